@@ -0,0 +1,88 @@
+/*
+ * Copyright 2017 Faculty of Informatics, Debrecen University, Hungary.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.klondike.component;
+
+import hu.unideb.inf.klondike.OffenseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks of the hot paths of the piles.
+ *
+ * @author sanyi
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ComponentBenchmark {
+
+    private static final int GRABBED = 8;
+
+    private Talon talon;
+    private Tableau tableau;
+    private int[] grabbed;
+
+    @Setup
+    public void setUp() {
+        List<Card> cards = new ArrayList<>();
+        for (int code = 0; code < 24; code++) {
+            cards.add(Card.valueOf(code));
+        }
+        talon = new Talon(cards);
+
+        cards.clear();
+        Card.RANK[] ranks = Card.RANK.values();
+        for (int i = ranks.length - 1; i >= 0; i--) {
+            cards.add(Card.valueOf(i % 2 == 0 ? Card.FOUNDATION.CLUB : Card.FOUNDATION.HEART, ranks[i]));
+        }
+        tableau = new Tableau(cards, 0);
+        grabbed = new int[cards.size() - GRABBED];
+        for (int i = 0; i < grabbed.length; i++) {
+            grabbed[i] = cards.get(GRABBED + i).getCode();
+        }
+    }
+
+    @Benchmark
+    public int talonNext() {
+        talon.next();
+        return talon.getAvailableCode();
+    }
+
+    @Benchmark
+    public int tableauGetAndApply() throws OffenseException {
+        tableau.get(GRABBED);
+        tableau.apply();
+        for (int code : grabbed) {
+            tableau.push(code);
+        }
+        return tableau.size();
+    }
+
+}
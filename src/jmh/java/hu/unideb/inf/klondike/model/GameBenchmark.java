@@ -0,0 +1,198 @@
+/*
+ * Copyright 2017 Faculty of Informatics, Debrecen University, Hungary.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.klondike.model;
+
+import hu.unideb.inf.klondike.OffenseException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks of the hot paths of the {@code Game}.
+ * <p>
+ * Every move benchmark performs the move and undoes it, so the measured game
+ * stays in the same position; the cost of the {@code undo} method is included
+ * in each of them. The save and load benchmark writes to a temporary
+ * directory, which replaces the user's home directory during the run.
+ *
+ * @author sanyi
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameBenchmark {
+
+    private Game game;
+    private Game view;
+    private Game loaded;
+    private long seed;
+    private Game tableauToTableau, tableauToFoundation, foundationToFoundation, foundationToTableau, talonToTableau, talonToFoundation;
+    private int tableauToTableauMove, tableauToFoundationMove, foundationToFoundationMove, foundationToTableauMove, talonToTableauMove, talonToFoundationMove;
+    private String userHome;
+    private Path home;
+
+    @Setup
+    public void setUp() throws IOException, OffenseException {
+        game = new Game();
+        game.newGame(0);
+        view = new Game();
+        view.newGame(0);
+        view.nextTalon();
+        loaded = new Game();
+        int[] move = new int[1];
+        tableauToTableau = find(Move.PILE.TABLEAU, Move.PILE.TABLEAU, move);
+        tableauToTableauMove = move[0];
+        tableauToFoundation = find(Move.PILE.TABLEAU, Move.PILE.FOUNDATION, move);
+        tableauToFoundationMove = move[0];
+        foundationToFoundation = find(Move.PILE.FOUNDATION, Move.PILE.FOUNDATION, move);
+        foundationToFoundationMove = move[0];
+        foundationToTableau = find(Move.PILE.FOUNDATION, Move.PILE.TABLEAU, move);
+        foundationToTableauMove = move[0];
+        talonToTableau = find(Move.PILE.TALON, Move.PILE.TABLEAU, move);
+        talonToTableauMove = move[0];
+        talonToFoundation = find(Move.PILE.TALON, Move.PILE.FOUNDATION, move);
+        talonToFoundationMove = move[0];
+
+        userHome = System.getProperty("user.home");
+        home = Files.createTempDirectory("klondike-jmh");
+        System.setProperty("user.home", home.toString());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        System.setProperty("user.home", userHome);
+        Files.deleteIfExists(home.resolve("save.k"));
+        Files.deleteIfExists(home);
+    }
+
+    /**
+     * Returns a game in which the first legal move of the given kind is
+     * stored into the array, found by the random playouts of seeded deals
+     * which are shared with the tests.
+     */
+    private static Game find(Move.PILE from, Move.PILE to, int[] move) throws OffenseException {
+        MoveBuffer buffer = new MoveBuffer();
+        for (long seed = 0;; seed++) {
+            for (int moves = 0; moves < 300; moves++) {
+                Game game = GameAssert.play(seed, moves);
+                if (game.legalMoves(buffer) == 0) {
+                    break;
+                }
+                for (int i = 0; i < buffer.size(); i++) {
+                    int candidate = buffer.get(i);
+                    if (!Move.isDraw(candidate) && Move.getFrom(candidate) == from && Move.getTo(candidate) == to) {
+                        move[0] = candidate;
+                        return game;
+                    }
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public Game newGame() {
+        game.newGame(seed++);
+        return game;
+    }
+
+    @Benchmark
+    public int moveFromTableauToTableau() throws OffenseException {
+        int move = tableauToTableauMove;
+        tableauToTableau.moveFromTableauToTableau(Move.getFromIndex(move), Move.getToIndex(move), Move.getCardIndex(move));
+        tableauToTableau.undo();
+        return tableauToTableau.getMoves();
+    }
+
+    @Benchmark
+    public int moveFromTableauToFoundation() throws OffenseException {
+        int move = tableauToFoundationMove;
+        tableauToFoundation.moveFromTableauToFoundation(Move.getFromIndex(move), Move.getToIndex(move), Move.getCardIndex(move));
+        tableauToFoundation.undo();
+        return tableauToFoundation.getMoves();
+    }
+
+    @Benchmark
+    public int moveFromFoundationToFoundation() throws OffenseException {
+        int move = foundationToFoundationMove;
+        foundationToFoundation.moveFromFoundationToFoundation(Move.getFromIndex(move), Move.getToIndex(move));
+        foundationToFoundation.undo();
+        return foundationToFoundation.getMoves();
+    }
+
+    @Benchmark
+    public int moveFromFoundationToTableau() throws OffenseException {
+        int move = foundationToTableauMove;
+        foundationToTableau.moveFromFoundationToTableau(Move.getFromIndex(move), Move.getToIndex(move));
+        foundationToTableau.undo();
+        return foundationToTableau.getMoves();
+    }
+
+    @Benchmark
+    public int moveFromTalonToTableau() throws OffenseException {
+        talonToTableau.moveFromTalonToTableau(Move.getToIndex(talonToTableauMove));
+        talonToTableau.undo();
+        return talonToTableau.getMoves();
+    }
+
+    @Benchmark
+    public int moveFromTalonToFoundation() throws OffenseException {
+        talonToFoundation.moveFromTalonToFoundation(Move.getToIndex(talonToFoundationMove));
+        talonToFoundation.undo();
+        return talonToFoundation.getMoves();
+    }
+
+    @Benchmark
+    public int nextTalon() {
+        view.nextTalon();
+        view.undo();
+        return view.getMoves();
+    }
+
+    @Benchmark
+    public List<String> getTableauCards() {
+        return view.getTableauCards(6);
+    }
+
+    @Benchmark
+    public List<String> getTalonCards() {
+        return view.getTalonCards();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Game saveAndLoadGame() throws IOException {
+        view.saveGame();
+        loaded.loadGame();
+        return loaded;
+    }
+
+}
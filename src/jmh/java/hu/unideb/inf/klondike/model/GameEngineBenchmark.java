@@ -0,0 +1,78 @@
+/*
+ * Copyright 2017 Faculty of Informatics, Debrecen University, Hungary.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.klondike.model;
+
+import hu.unideb.inf.klondike.OffenseException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmark of the {@code GameEngine}: random playouts of {@code MOVES}
+ * legal moves, measured per move. The deals cycle through the seeds
+ * 0..{@code DEALS - 1}, and the moves of every deal are chosen by a random
+ * generator of its seed, so the measured work is reproducible.
+ *
+ * @author sanyi
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameEngineBenchmark {
+
+    private static final int MOVES = 200;
+    private static final int DEALS = 1024;
+
+    private GameEngine engine;
+    private MoveBuffer buffer;
+    private Random random;
+    private long seed;
+
+    @Setup
+    public void setUp() {
+        engine = new GameEngine();
+        buffer = new MoveBuffer();
+        random = new Random();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MOVES)
+    public int randomPlayout() throws OffenseException {
+        long deal = seed++ % DEALS;
+        engine.newGame(deal);
+        random.setSeed(deal);
+        int moves = 0;
+        while (moves < MOVES && engine.legalMoves(buffer) > 0) {
+            engine.move(buffer.get(random.nextInt(buffer.size())));
+            moves++;
+        }
+        return moves;
+    }
+
+}
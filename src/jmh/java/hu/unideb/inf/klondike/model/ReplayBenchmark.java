@@ -0,0 +1,71 @@
+/*
+ * Copyright 2017 Faculty of Informatics, Debrecen University, Hungary.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.klondike.model;
+
+import hu.unideb.inf.klondike.OffenseException;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks of the replays: playing a replay of {@code STEPS} steps,
+ * measured per step, and decoding it. The size of the encoded replay is
+ * printed by the setup.
+ *
+ * @author sanyi
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ReplayBenchmark {
+
+    private static final int STEPS = 500;
+
+    private Replay replay;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws OffenseException {
+        replay = GameAssert.record(new GameEngine(), 0, STEPS);
+        encoded = replay.encode();
+        System.out.println("Replay of " + replay.size() + " steps: " + encoded.length + " bytes");
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(STEPS)
+    public Game play() throws OffenseException {
+        return ReplayEngine.play(replay);
+    }
+
+    @Benchmark
+    public Replay decode() throws IOException {
+        return Replay.decode(encoded);
+    }
+
+}
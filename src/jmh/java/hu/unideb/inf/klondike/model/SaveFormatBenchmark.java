@@ -0,0 +1,92 @@
+/*
+ * Copyright 2017 Faculty of Informatics, Debrecen University, Hungary.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.klondike.model;
+
+import hu.unideb.inf.klondike.OffenseException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks of the binary save format on games with the given number of
+ * recorded moves, compared to the migration of the save file of the former
+ * JSON format written by the former version of the game. The sizes of the
+ * save files are printed by the setup.
+ *
+ * @author sanyi
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SaveFormatBenchmark {
+
+    @Param({"10", "200"})
+    private int moves;
+
+    private Game game;
+    private byte[] binary;
+    private byte[] legacy;
+
+    @Setup
+    public void setUp() throws OffenseException, IOException {
+        game = GameAssert.play(0, moves);
+        ByteBuffer encoded = SaveFormat.encode(game);
+        binary = new byte[encoded.remaining()];
+        encoded.get(binary);
+        try (InputStream in = SaveFormatBenchmark.class.getResourceAsStream("legacy-save.k")) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] chunk = new byte[4096];
+            for (int n; (n = in.read(chunk)) > 0;) {
+                out.write(chunk, 0, n);
+            }
+            legacy = out.toByteArray();
+        }
+        System.out.println("Save file size with " + game.getJournal().size() + " recorded steps: binary "
+                + binary.length + " bytes; former format with 63 moves: " + legacy.length + " bytes");
+    }
+
+    @Benchmark
+    public ByteBuffer encode() {
+        return SaveFormat.encode(game);
+    }
+
+    @Benchmark
+    public Game decode() throws IOException {
+        return SaveFormat.decode(binary);
+    }
+
+    @Benchmark
+    public Game decodeLegacy() throws IOException {
+        return SaveFormat.decodeLegacy(legacy);
+    }
+
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2017 Faculty of Informatics, Debrecen University, Hungary.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.klondike.solver;
+
+import hu.unideb.inf.klondike.model.Game;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmark of the {@code Solver} on seeded deals with a budget of
+ * {@code NODE_LIMIT} nodes. The verdict and the number of searched nodes of
+ * every deal are printed by the setup, so the speed in nodes per second can
+ * be derived from the measured time.
+ *
+ * @author sanyi
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SolverBenchmark {
+
+    private static final long NODE_LIMIT = 200_000;
+
+    @Param({"3", "5", "7", "9"})
+    private long seed;
+
+    private Solver solver;
+    private Game game;
+
+    @Setup
+    public void setUp() {
+        solver = new Solver(NODE_LIMIT, 0);
+        game = new Game();
+        game.newGame(seed);
+        System.out.println("Deal " + seed + ": " + solver.solve(game));
+    }
+
+    @Benchmark
+    public SolverResult solve() {
+        return solver.solve(game);
+    }
+
+}
@@ -27,9 +27,37 @@ import javafx.stage.Stage;
  */
 public class App extends Application {
 
+    /**
+     * The name of the renderer which paints the board onto one canvas, it can
+     * be selected by the {@code --renderer=canvas} argument.
+     */
+    public static final String CANVAS_RENDERER = "canvas";
+
+    /**
+     * The name of the default renderer which shows a node for every card.
+     */
+    public static final String NODE_RENDERER = "nodes";
+
+    private GameForm form;
+
     @Override
     public void start(Stage stage) throws Exception {
-        Parent root = FXMLLoader.load(getClass().getResource("/fxml/GameScene.fxml"));
+        FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/GameScene.fxml"));
+        Parent root = loader.load();
+        form = loader.getController();
+        String renderer = getParameters().getNamed().getOrDefault("renderer", NODE_RENDERER);
+        if (CANVAS_RENDERER.equals(renderer)) {
+            form.useCanvas();
+        }
+        String hintBudget = getParameters().getNamed().get("hint-budget");
+        if (hintBudget != null) {
+            form.setHintBudget(Long.parseLong(hintBudget));
+        }
+        if (getParameters().getUnnamed().contains("--frame-stats")) {
+            FrameStatistics statistics = new FrameStatistics(renderer);
+            statistics.start();
+            stage.setOnHidden(event -> statistics.stop());
+        }
 
         Scene scene = new Scene(root);
         //scene.getStylesheets().add("/styles/Styles.css");
@@ -40,8 +68,16 @@ public class App extends Application {
         stage.show();
     }
 
+    @Override
+    public void stop() throws Exception {
+        form.close();
+    }
+
     /**
-     * Program entry point
+     * Program entry point. The {@code --renderer=canvas} argument selects the
+     * canvas renderer, the {@code --frame-stats} argument logs the frame
+     * times, and the {@code --hint-budget=<ms>} argument sets the time budget
+     * of the hint search.
      *
      * @param args command line args
      */
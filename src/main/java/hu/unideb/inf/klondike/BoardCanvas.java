@@ -0,0 +1,384 @@
+/*
+ * Copyright 2017 Faculty of Informatics, Debrecen University, Hungary.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.klondike;
+
+import hu.unideb.inf.klondike.component.Card;
+import hu.unideb.inf.klondike.model.GameEngine;
+import hu.unideb.inf.klondike.model.Move;
+import hu.unideb.inf.klondike.model.PileListener;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+
+/**
+ * This class paints the whole board of a game onto one {@code Canvas}, as an
+ * alternative to the node-per-card scene of the {@code GameForm}.
+ * <p>
+ * The piles are laid out the same way as the panes of the scene, and the
+ * cards are copied from the sprite atlas of {@code CardImages}. When piles
+ * change, only their rectangles are repainted. While cards are dragged, they
+ * are painted over the board, and only the rectangle they left and the one
+ * they cover are repainted. The card under the mouse is found by computing
+ * it from the layout instead of picking nodes.
+ *
+ * @see hu.unideb.inf.klondike.CardImages
+ */
+public class BoardCanvas extends Canvas {
+
+    private static final double CARD_WIDTH = 100;
+    private static final double CARD_HEIGHT = 136;
+    private static final double COLUMN_STEP = 110;
+    private static final double DECK_X = 10;
+    private static final double TOP_Y = 39;
+    private static final double TALON_X = 120;
+    private static final double TALON_Y = 38;
+    private static final double TALON_STEP = 25;
+    private static final double FOUNDATION_X = 340;
+    private static final double TABLEAU_X = 10;
+    private static final double TABLEAU_Y = 185;
+    private static final double DOWNSIDE_STEP = 15;
+    private static final double UPSIDE_STEP = 30;
+    private static final Color BACKGROUND = Color.web("#008000");
+
+    private final GameEngine engine;
+    private final CardImages images = CardImages.getInstance();
+    private final GraphicsContext graphics;
+
+    private Move.PILE dragPile;
+    private int dragPileIndex;
+    private int dragCardIndex;
+    private int dragCount;
+    private double dragX;
+    private double dragY;
+    private double mouseX;
+    private double mouseY;
+
+    /**
+     * Constructor for creating a {@code BoardCanvas} which shows the game
+     * driven by the specified {@code GameEngine}.
+     *
+     * @param engine the engine of the game to show
+     * @param width the width of the board
+     * @param height the height of the board
+     */
+    public BoardCanvas(GameEngine engine, double width, double height) {
+        super(width, height);
+        this.engine = engine;
+        graphics = getGraphicsContext2D();
+        repaint(0, 0, width, height);
+    }
+
+    /**
+     * This method repaints the rectangles of the specified piles.
+     *
+     * @param piles the bitmask of the piles to repaint
+     * @see hu.unideb.inf.klondike.model.PileListener
+     */
+    public void repaint(int piles) {
+        if ((piles & PileListener.TALON) != 0) {
+            repaint(TALON_X, TALON_Y, 2 * TALON_STEP + CARD_WIDTH, CARD_HEIGHT + TOP_Y - TALON_Y);
+        }
+        for (int i = 0; i < 4; i++) {
+            if ((piles & PileListener.foundation(i)) != 0) {
+                repaint(FOUNDATION_X + i * COLUMN_STEP, TOP_Y, CARD_WIDTH, CARD_HEIGHT);
+            }
+        }
+        for (int i = 0; i < 7; i++) {
+            if ((piles & PileListener.tableau(i)) != 0) {
+                repaint(TABLEAU_X + i * COLUMN_STEP, TABLEAU_Y, CARD_WIDTH, getHeight() - TABLEAU_Y);
+            }
+        }
+    }
+
+    /**
+     * This method returns the rectangle of the specified card together with
+     * the cards above it, in the layout of the board, which is the same as
+     * the layout of the scene. For an empty pile the rectangle of its place
+     * is returned.
+     *
+     * @param engine the engine of the game
+     * @param pile the type of the pile
+     * @param pileIndex index of the pile
+     * @param cardIndex index of the card, only used for a {@code Tableau}
+     * pile
+     * @return the rectangle of the cards
+     */
+    public static Rectangle2D cardBounds(GameEngine engine, Move.PILE pile, int pileIndex, int cardIndex) {
+        switch (pile) {
+            case TALON:
+                int visible = Math.max(engine.getTalonVisibleCount(), 1);
+                return new Rectangle2D(TALON_X + (visible - 1) * TALON_STEP, TALON_Y, CARD_WIDTH, CARD_HEIGHT);
+            case FOUNDATION:
+                return new Rectangle2D(FOUNDATION_X + pileIndex * COLUMN_STEP, TOP_Y, CARD_WIDTH, CARD_HEIGHT);
+            default:
+                int above = Math.max(engine.getTableauSize(pileIndex) - 1 - cardIndex, 0);
+                return new Rectangle2D(TABLEAU_X + pileIndex * COLUMN_STEP, TABLEAU_Y + tableauY(cardIndex, engine.getDownsideCount(pileIndex)),
+                        CARD_WIDTH, CARD_HEIGHT + above * UPSIDE_STEP);
+        }
+    }
+
+    /**
+     * This method returns true if the specified point is on the stock.
+     *
+     * @param x the x coordinate of the point
+     * @param y the y coordinate of the point
+     * @return true if the specified point is on the stock
+     */
+    public boolean isDeck(double x, double y) {
+        return contains(DECK_X, TOP_Y, CARD_WIDTH, CARD_HEIGHT, x, y);
+    }
+
+    /**
+     * This method starts dragging the movable card at the specified point,
+     * together with the cards above it. Returns false if there is no movable
+     * card at the point.
+     *
+     * @param x the x coordinate of the point
+     * @param y the y coordinate of the point
+     * @return true if the dragging has started
+     */
+    public boolean startDragging(double x, double y) {
+        if (!engine.isStarted() || !pick(x, y)) {
+            return false;
+        }
+        mouseX = x - dragX;
+        mouseY = y - dragY;
+        repaint(dragX, dragY, CARD_WIDTH, dragHeight());
+        return true;
+    }
+
+    /**
+     * This method moves the dragged cards to the specified point.
+     *
+     * @param x the x coordinate of the mouse
+     * @param y the y coordinate of the mouse
+     */
+    public void dragTo(double x, double y) {
+        if (dragPile == null) {
+            return;
+        }
+        double oldX = dragX;
+        double oldY = dragY;
+        dragX = x - mouseX;
+        dragY = y - mouseY;
+        repaint(oldX, oldY, CARD_WIDTH, dragHeight());
+        repaint(dragX, dragY, CARD_WIDTH, dragHeight());
+    }
+
+    /**
+     * This method stops dragging and removes the dragged cards from the
+     * screen. The pile they have been taken from has to be repainted by the
+     * caller.
+     */
+    public void terminateDragging() {
+        if (dragPile == null) {
+            return;
+        }
+        dragPile = null;
+        repaint(dragX, dragY, CARD_WIDTH, dragHeight());
+    }
+
+    /**
+     * This method returns true if cards are being dragged.
+     *
+     * @return true if cards are being dragged
+     */
+    public boolean isDragging() {
+        return dragPile != null;
+    }
+
+    /**
+     * This method returns the type of the pile of the dragged cards.
+     *
+     * @return the type of the pile of the dragged cards
+     */
+    public Move.PILE getDragPile() {
+        return dragPile;
+    }
+
+    /**
+     * This method returns the index of the pile of the dragged cards.
+     *
+     * @return the index of the pile of the dragged cards
+     */
+    public int getDragPileIndex() {
+        return dragPileIndex;
+    }
+
+    /**
+     * This method returns the index of the lowest dragged card in its pile.
+     *
+     * @return the index of the lowest dragged card in its pile
+     */
+    public int getDragCardIndex() {
+        return dragCardIndex;
+    }
+
+    /**
+     * Finds the movable card at the point and sets up the dragging of it.
+     */
+    private boolean pick(double x, double y) {
+        int visible = engine.getTalonVisibleCount();
+        if (visible > 0 && contains(TALON_X + (visible - 1) * TALON_STEP, TALON_Y, CARD_WIDTH, CARD_HEIGHT, x, y)) {
+            setDragging(Move.PILE.TALON, 0, visible - 1, 1, TALON_X + (visible - 1) * TALON_STEP, TALON_Y);
+            return true;
+        }
+        for (int i = 0; i < 4; i++) {
+            double left = FOUNDATION_X + i * COLUMN_STEP;
+            if (engine.getFoundationCode(i) >= 0 && contains(left, TOP_Y, CARD_WIDTH, CARD_HEIGHT, x, y)) {
+                setDragging(Move.PILE.FOUNDATION, i, 0, 1, left, TOP_Y);
+                return true;
+            }
+        }
+        for (int i = 0; i < 7; i++) {
+            double left = TABLEAU_X + i * COLUMN_STEP;
+            if (x < left || x >= left + CARD_WIDTH) {
+                continue;
+            }
+            int size = engine.getTableauSize(i);
+            int downside = engine.getDownsideCount(i);
+            for (int cardIndex = size - 1; cardIndex >= downside; cardIndex--) {
+                double top = TABLEAU_Y + tableauY(cardIndex, downside);
+                double height = cardIndex == size - 1 ? CARD_HEIGHT : UPSIDE_STEP;
+                if (y >= top && y < top + height) {
+                    setDragging(Move.PILE.TABLEAU, i, cardIndex, size - cardIndex, left, top);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void setDragging(Move.PILE pile, int pileIndex, int cardIndex, int count, double x, double y) {
+        dragPile = pile;
+        dragPileIndex = pileIndex;
+        dragCardIndex = cardIndex;
+        dragCount = count;
+        dragX = x;
+        dragY = y;
+    }
+
+    private double dragHeight() {
+        return CARD_HEIGHT + (dragCount - 1) * UPSIDE_STEP;
+    }
+
+    /**
+     * Repaints everything which intersects the rectangle, clipped to it.
+     */
+    private void repaint(double x, double y, double width, double height) {
+        graphics.save();
+        graphics.beginPath();
+        graphics.rect(x, y, width, height);
+        graphics.clip();
+        graphics.setFill(BACKGROUND);
+        graphics.fillRect(x, y, width, height);
+        if (intersects(DECK_X, TOP_Y, CARD_WIDTH, CARD_HEIGHT, x, y, width, height)) {
+            drawCard(CardImages.DOWNSIDE, DECK_X, TOP_Y);
+        }
+        if (engine.isStarted()) {
+            if (intersects(TALON_X, TALON_Y, 2 * TALON_STEP + CARD_WIDTH, CARD_HEIGHT, x, y, width, height)) {
+                paintTalon();
+            }
+            for (int i = 0; i < 4; i++) {
+                if (intersects(FOUNDATION_X + i * COLUMN_STEP, TOP_Y, CARD_WIDTH, CARD_HEIGHT, x, y, width, height)) {
+                    paintFoundation(i);
+                }
+            }
+            for (int i = 0; i < 7; i++) {
+                if (intersects(TABLEAU_X + i * COLUMN_STEP, TABLEAU_Y, CARD_WIDTH, getHeight() - TABLEAU_Y, x, y, width, height)) {
+                    paintTableau(i);
+                }
+            }
+            if (dragPile != null && intersects(dragX, dragY, CARD_WIDTH, dragHeight(), x, y, width, height)) {
+                paintDragged();
+            }
+        }
+        graphics.restore();
+    }
+
+    private void paintTalon() {
+        int visible = engine.getTalonVisibleCount();
+        if (dragPile == Move.PILE.TALON) {
+            visible--;
+        }
+        for (int i = 0; i < visible; i++) {
+            drawCard(engine.getTalonVisibleCode(i), TALON_X + i * TALON_STEP, TALON_Y);
+        }
+    }
+
+    private void paintFoundation(int pileIndex) {
+        int code = engine.getFoundationCode(pileIndex);
+        if (dragPile == Move.PILE.FOUNDATION && dragPileIndex == pileIndex) {
+            // The cards of a foundation are of the same suit, in rank order.
+            code = Card.rankOf(code) > 0 ? code - 1 : -1;
+        }
+        if (code >= 0) {
+            drawCard(code, FOUNDATION_X + pileIndex * COLUMN_STEP, TOP_Y);
+        }
+    }
+
+    private void paintTableau(int pileIndex) {
+        int size = engine.getTableauSize(pileIndex);
+        int downside = engine.getDownsideCount(pileIndex);
+        if (dragPile == Move.PILE.TABLEAU && dragPileIndex == pileIndex) {
+            size = dragCardIndex;
+        }
+        double x = TABLEAU_X + pileIndex * COLUMN_STEP;
+        for (int i = 0; i < size; i++) {
+            drawCard(i < downside ? CardImages.DOWNSIDE : engine.getTableauCode(pileIndex, i), x, TABLEAU_Y + tableauY(i, downside));
+        }
+    }
+
+    private void paintDragged() {
+        switch (dragPile) {
+            case TALON:
+                drawCard(engine.getTalonCode(), dragX, dragY);
+                break;
+            case FOUNDATION:
+                drawCard(engine.getFoundationCode(dragPileIndex), dragX, dragY);
+                break;
+            default:
+                for (int i = 0; i < dragCount; i++) {
+                    drawCard(engine.getTableauCode(dragPileIndex, dragCardIndex + i), dragX, dragY + i * UPSIDE_STEP);
+                }
+                break;
+        }
+    }
+
+    private void drawCard(int code, double x, double y) {
+        Rectangle2D viewport = images.getViewport(code);
+        graphics.drawImage(images.getAtlas(), viewport.getMinX(), viewport.getMinY(), viewport.getWidth(), viewport.getHeight(),
+                x, y, CARD_WIDTH, CARD_HEIGHT);
+    }
+
+    /**
+     * Returns the offset of a card of the tableau from the top of its pile.
+     */
+    private static double tableauY(int cardIndex, int downside) {
+        return DOWNSIDE_STEP * Math.min(cardIndex, downside) + UPSIDE_STEP * Math.max(cardIndex - downside, 0);
+    }
+
+    private static boolean contains(double left, double top, double width, double height, double x, double y) {
+        return x >= left && x < left + width && y >= top && y < top + height;
+    }
+
+    private static boolean intersects(double left, double top, double width, double height,
+            double x, double y, double otherWidth, double otherHeight) {
+        return left < x + otherWidth && x < left + width && top < y + otherHeight && y < top + height;
+    }
+
+}
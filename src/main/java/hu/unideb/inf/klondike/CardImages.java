@@ -0,0 +1,174 @@
+/*
+ * Copyright 2017 Faculty of Informatics, Debrecen University, Hungary.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.klondike;
+
+import hu.unideb.inf.klondike.component.Card;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class provides the images of the cards for the {@code GameForm}.
+ * <p>
+ * Every card face and the back of the cards are decoded only once, and are
+ * packed into one sprite atlas: a row for every
+ * {@link hu.unideb.inf.klondike.component.Card.FOUNDATION Foundation}, ordered
+ * by {@link hu.unideb.inf.klondike.component.Card.RANK Rank}, and a last row
+ * for the back. Every {@code ImageView} shares the atlas and shows its card
+ * through a viewport, which is selected by the code of the card.
+ *
+ * @see hu.unideb.inf.klondike.component.Card#getCode()
+ */
+public final class CardImages {
+
+    private static final Logger logger = LoggerFactory.getLogger(CardImages.class);
+
+    /**
+     * The code of the back of the cards, used for the <i>DOWNSIDE</i> ones.
+     */
+    public static final int DOWNSIDE = Card.COUNT;
+
+    private static final int COLUMNS = Card.RANK.values().length;
+
+    private static CardImages instance;
+
+    private final WritableImage atlas;
+    private final Rectangle2D[] viewports;
+
+    private CardImages() {
+        Image back = decode("downside");
+        int width = (int) back.getWidth();
+        int height = (int) back.getHeight();
+        atlas = new WritableImage(width * COLUMNS, height * (Card.FOUNDATION.values().length + 1));
+        viewports = new Rectangle2D[Card.COUNT + 1];
+        PixelWriter writer = atlas.getPixelWriter();
+        for (int code = 0; code <= Card.COUNT; code++) {
+            Image image;
+            if (code == DOWNSIDE) {
+                image = back;
+            } else {
+                Card card = Card.valueOf(code);
+                image = decode(card.getFoundation() + "_" + card.getRank());
+            }
+            int x = code % COLUMNS * width;
+            int y = code / COLUMNS * height;
+            writer.setPixels(x, y, width, height, image.getPixelReader(), 0, 0);
+            viewports[code] = new Rectangle2D(x, y, width, height);
+        }
+        logger.debug("Card atlas of {}x{} pixels created.", (int) atlas.getWidth(), (int) atlas.getHeight());
+    }
+
+    private static Image decode(String name) {
+        String path = "cards/" + name.toLowerCase() + ".png";
+        try (InputStream in = CardImages.class.getClassLoader().getResourceAsStream(path)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing card image: " + path);
+            }
+            return new Image(in);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * This method returns the shared instance. The images are decoded at the
+     * first call.
+     *
+     * @return the shared instance
+     */
+    public static synchronized CardImages getInstance() {
+        if (instance == null) {
+            instance = new CardImages();
+        }
+        return instance;
+    }
+
+    /**
+     * This method returns the code of the card represented by the specified
+     * {@code String}, which is built up for <i>FOUNDATION_RANK</i> pattern or
+     * is "DOWNSIDE", as returned by the {@code Game}.
+     *
+     * @see hu.unideb.inf.klondike.model.Game#getTableauCards(int)
+     * @param cardValue the {@code String} representation of the card
+     * @return the code of the card, or {@code DOWNSIDE}
+     * @throws IllegalArgumentException if the {@code String} does not
+     * represent a card
+     */
+    public static int codeOf(String cardValue) throws IllegalArgumentException {
+        if (cardValue.equals("DOWNSIDE")) {
+            return DOWNSIDE;
+        }
+        int separator = cardValue.indexOf('_');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Not a card: " + cardValue);
+        }
+        return Card.codeOf(Card.FOUNDATION.valueOf(cardValue.substring(0, separator)),
+                Card.RANK.valueOf(cardValue.substring(separator + 1)));
+    }
+
+    /**
+     * This method returns the sprite atlas of the cards.
+     *
+     * @return the sprite atlas of the cards
+     */
+    public Image getAtlas() {
+        return atlas;
+    }
+
+    /**
+     * This method returns the region of the atlas which shows the card with
+     * the specified code.
+     *
+     * @param code the code of the card, or {@code DOWNSIDE}
+     * @return the region of the atlas which shows the card
+     */
+    public Rectangle2D getViewport(int code) {
+        return viewports[code];
+    }
+
+    /**
+     * This method makes the specified {@code ImageView} show the card with the
+     * specified code.
+     *
+     * @param view the {@code ImageView} to set
+     * @param code the code of the card, or {@code DOWNSIDE}
+     */
+    public void show(ImageView view, int code) {
+        view.setImage(atlas);
+        view.setViewport(viewports[code]);
+    }
+
+    /**
+     * This method creates a new {@code ImageView} which shows the card with the
+     * specified code.
+     *
+     * @param code the code of the card, or {@code DOWNSIDE}
+     * @return a new {@code ImageView} which shows the card
+     */
+    public ImageView createView(int code) {
+        ImageView view = new ImageView();
+        show(view, code);
+        return view;
+    }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2017 Faculty of Informatics, Debrecen University, Hungary.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.klondike;
+
+import java.util.Arrays;
+import javafx.animation.AnimationTimer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class measures the time between the frames of the JavaFX application
+ * thread, to compare the renderers of the board.
+ * <p>
+ * While it is running, a pulse is requested for every frame, so a frame which
+ * takes longer than the refresh period of the screen shows up as a long
+ * interval. The mean, the median, the 99th percentile and the maximum of the
+ * intervals are logged after every {@code SAMPLES} frames and when the
+ * measurement is stopped.
+ */
+public class FrameStatistics extends AnimationTimer {
+
+    private static final Logger logger = LoggerFactory.getLogger(FrameStatistics.class);
+
+    /**
+     * The number of frames summarized by one report.
+     */
+    public static final int SAMPLES = 1800;
+
+    private final String renderer;
+    private final long[] intervals = new long[SAMPLES];
+    private int count;
+    private long last;
+
+    /**
+     * Constructor for creating a {@code FrameStatistics} instance.
+     *
+     * @param renderer the name of the measured renderer, used in the reports
+     */
+    public FrameStatistics(String renderer) {
+        this.renderer = renderer;
+    }
+
+    @Override
+    public void handle(long now) {
+        if (last != 0) {
+            intervals[count++] = now - last;
+            if (count == SAMPLES) {
+                report();
+            }
+        }
+        last = now;
+    }
+
+    @Override
+    public void stop() {
+        super.stop();
+        report();
+        last = 0;
+    }
+
+    private void report() {
+        if (count == 0) {
+            return;
+        }
+        Arrays.sort(intervals, 0, count);
+        long sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += intervals[i];
+        }
+        logger.info(String.format("Frame times of the %s renderer over %d frames: mean %.2f ms, median %.2f ms, 99th percentile %.2f ms, max %.2f ms",
+                renderer, count, sum / 1e6 / count, intervals[count / 2] / 1e6, intervals[count * 99 / 100] / 1e6, intervals[count - 1] / 1e6));
+        count = 0;
+    }
+
+}
@@ -15,22 +15,38 @@
  */
 package hu.unideb.inf.klondike;
 
+import hu.unideb.inf.klondike.model.Autosave;
 import hu.unideb.inf.klondike.model.Game;
+import hu.unideb.inf.klondike.model.GameEngine;
+import hu.unideb.inf.klondike.model.Move;
+import hu.unideb.inf.klondike.model.PileListener;
+import hu.unideb.inf.klondike.model.ReplayRecorder;
+import hu.unideb.inf.klondike.model.SaveService;
+import hu.unideb.inf.klondike.solver.Hint;
+import hu.unideb.inf.klondike.solver.HintEngine;
+import hu.unideb.inf.klondike.solver.SolverResult;
 import java.io.IOException;
 import java.net.URL;
+import java.util.Arrays;
 import java.util.List;
 import java.util.ResourceBundle;
+import java.util.concurrent.CancellationException;
 import javafx.application.Platform;
+import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
+import javafx.geometry.Rectangle2D;
 import javafx.scene.Cursor;
+import javafx.scene.Group;
+import javafx.scene.Node;
 import javafx.scene.control.Label;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.AnchorPane;
 import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -42,12 +58,30 @@ public class GameForm implements Initializable {
 
     private static final Logger logger = LoggerFactory.getLogger(GameForm.class);
 
+    private static final String[][] TABLEAU_IDS = new String[7][0];
+
     Game controller = new Game();
 
+    private final GameEngine engine = new GameEngine(controller);
+
+    private final SaveService saveService = new SaveService(Platform::runLater);
+
+    private final Autosave autosave = Autosave.inSaveDirectory();
+
+    private final ReplayRecorder recorder = new ReplayRecorder();
+
+    private final HintEngine hints = new HintEngine(Platform::runLater);
+
+    private final CardImages images = CardImages.getInstance();
+
     private double mouseX;
     private double mouseY;
-    private boolean isDragged;
-    private ImageView dragged[];
+    private final Group dragLayer = new Group();
+    private BoardCanvas board;
+    private int refreshed;
+    private final ImageView[][] tableauNodes = new ImageView[7][0];
+    private final Rectangle hintSource = createHintMarker();
+    private final Rectangle hintTarget = createHintMarker();
 
     @FXML
     AnchorPane mainPane;
@@ -60,7 +94,7 @@ public class GameForm implements Initializable {
             tableauPile5, tableauPile6, tableauPile7, foundations, tableauPiles[];
 
     @FXML
-    Label score, moves, lblYouWon, lblCongratulations;
+    Label score, moves, status, lblYouWon, lblCongratulations;
 
     public Pane getContainer(ImageView card) {
         switch (card.getId().charAt(0)) {
@@ -113,52 +147,59 @@ public class GameForm implements Initializable {
     }
 
     public void releaseCard(ImageView card, MouseEvent mouseEvent) {
+        switch (card.getId().charAt(0)) {
+            case 't':
+                drop(Move.PILE.TALON, 0, 0, mouseEvent);
+                break;
+            case 'f':
+                drop(Move.PILE.FOUNDATION, getFoundationIndex(card), 0, mouseEvent);
+                break;
+            default:
+                drop(Move.PILE.TABLEAU, Integer.parseInt(card.getId().substring(0, 1)), Integer.parseInt(card.getId().substring(1, 3)), mouseEvent);
+                break;
+        }
+    }
+
+    /**
+     * This method performs the move of the cards dropped at the position of
+     * the specified mouse event.
+     *
+     * @param from the type of the pile of the dropped cards
+     * @param fromIndex index of the pile of the dropped cards
+     * @param cardIndex index of the lowest dropped card in its pile
+     * @param mouseEvent the event of the drop
+     */
+    public void drop(Move.PILE from, int fromIndex, int cardIndex, MouseEvent mouseEvent) {
+        int source = PileListener.of(from, fromIndex);
+        boolean faceDown = hasDownsideCards();
+        refreshed = 0;
         try {
-            switch (card.getId().charAt(0)) {
-                case 't':
+            switch (from) {
+                case TALON:
                     if (mouseEvent.getSceneY() < 185) {
-                        if (mouseEvent.getSceneX() < 340) {
-                            LoadTalonContext();
-                        } else {
+                        if (mouseEvent.getSceneX() >= 340) {
                             controller.moveFromTalonToFoundation(getFoundationIndex(mouseEvent));
-                            LoadTalonContext();
-                            LoadFoundationsContext();
                         }
                     } else {
                         controller.moveFromTalonToTableau(getTableauIndex(mouseEvent));
-                        LoadTalonContext();
-                        LoadTableauPileContext(getTableauIndex(mouseEvent));
                     }
                     break;
-                case 'f':
+                case FOUNDATION:
                     if (mouseEvent.getSceneY() < 185) {
-                        if (mouseEvent.getSceneX() < 340) {
-                            LoadFoundationsContext();
-                        } else {
-                            controller.moveFromFoundationToFoundation(getFoundationIndex(card), getFoundationIndex(mouseEvent));
-                            LoadFoundationsContext();
+                        if (mouseEvent.getSceneX() >= 340) {
+                            controller.moveFromFoundationToFoundation(fromIndex, getFoundationIndex(mouseEvent));
                         }
                     } else {
-                        controller.moveFromFoundationToTableau(getFoundationIndex(card), getTableauIndex(mouseEvent));
-                        LoadFoundationsContext();
-                        LoadTableauPileContext(getTableauIndex(mouseEvent));
+                        controller.moveFromFoundationToTableau(fromIndex, getTableauIndex(mouseEvent));
                     }
                     break;
                 default:
-                    int fromIndex = Integer.parseInt(card.getId().substring(0, 1));
-                    int cardIndex = Integer.parseInt(card.getId().substring(1, 3));
                     if (mouseEvent.getSceneY() < 185) {
-                        if (mouseEvent.getSceneX() < 340) {
-                            LoadTableauPileContext(fromIndex);
-                        } else {
+                        if (mouseEvent.getSceneX() >= 340) {
                             controller.moveFromTableauToFoundation(fromIndex, getFoundationIndex(mouseEvent), cardIndex);
-                            LoadTableauPileContext(fromIndex);
-                            LoadFoundationsContext();
                         }
                     } else {
                         controller.moveFromTableauToTableau(fromIndex, getTableauIndex(mouseEvent), cardIndex);
-                        LoadTableauPileContext(fromIndex);
-                        LoadTableauPileContext(getTableauIndex(mouseEvent));
                     }
                     break;
             }
@@ -168,76 +209,127 @@ public class GameForm implements Initializable {
                 lblYouWon.setVisible(true);
                 lblCongratulations.setDisable(false);
                 lblCongratulations.setVisible(true);
+            } else if (faceDown && !hasDownsideCards()) {
+                // Only the drop turning the last card up is announced; whether
+                // the finish really works out is left to the menu item.
+                status.setText("Every card is face up: try Hint > Auto Complete.");
             }
         } catch (OffenseException ex) {
+            logger.debug("The move has been rejected: {}", ex.getMessage());
+        }
+        // The dragged cards have been taken out of their pane, so it has to be
+        // rebuilt even if the move did not change it.
+        if ((refreshed & source) != source) {
+            refresh(source & ~refreshed);
+        }
+    }
+
+    /**
+     * This method rebuilds the panes of the specified piles.
+     *
+     * @param piles the bitmask of the piles to rebuild
+     * @see hu.unideb.inf.klondike.model.PileListener
+     */
+    public void refresh(int piles) {
+        refreshed |= piles;
+        hints.cancel();
+        hideHint();
+        if (board != null) {
+            board.repaint(piles);
+            return;
+        }
+        if ((piles & PileListener.TALON) != 0) {
             LoadTalonContext();
+        }
+        if ((piles & PileListener.FOUNDATIONS) != 0) {
             LoadFoundationsContext();
-            for (int i = 0; i < 7; i++) {
+        }
+        for (int i = 0; i < 7; i++) {
+            if ((piles & PileListener.tableau(i)) != 0) {
                 LoadTableauPileContext(i);
             }
-            logger.warn("All container reloaded due to OffenseException!");
         }
     }
 
-    public void setUpMoving(ImageView card, MouseEvent mouseEvent) {
-        int pileIndex = Integer.parseInt(card.getId().substring(0, 1));
-        int cardIndex = Integer.parseInt(card.getId().substring(1, 3));
-        int sum = controller.getTableauCards(pileIndex).size() - cardIndex - 1;
-        if (sum == 0) {
-            isDragged = false;
-            return;
-        } else {
-            isDragged = true;
-        }
-        dragged = new ImageView[sum];
-        for (int i = 0; i < sum; i++) {
-            dragged[i] = (ImageView) getContainer(card)
-                    .lookup("#" + String.valueOf(pileIndex) + ((cardIndex + i + 1 < 10) ? "0" + String.valueOf(cardIndex + i + 1) : String.valueOf(cardIndex + i + 1)));
-            getContainer(dragged[i]).getChildren().remove(dragged[i]);
-            mainPane.getChildren().add(dragged[i]);
-            dragged[i].relocate(card.getLayoutX(), card.getLayoutY() + (i + 1) * 30);
+    /**
+     * This method starts dragging the cards of the specified {@code Tableau}
+     * pile from the specified index to its top. The nodes of the run are moved
+     * to the drag layer.
+     *
+     * @param pileIndex index of the {@code Tableau} pile
+     * @param cardIndex index of the grabbed card
+     * @param mouseEvent the event which started the dragging
+     */
+    public void setUpMoving(int pileIndex, int cardIndex, MouseEvent mouseEvent) {
+        startDragging(mouseEvent);
+        ImageView[] nodes = tableauNodes[pileIndex];
+        int size = engine.getTableauSize(pileIndex);
+        for (int i = cardIndex; i < size; i++) {
+            pickUp(tableauPiles[pileIndex], nodes[i]);
         }
     }
 
-    public void moving(ImageView card, MouseEvent mouseEvent) {
-        if (isDragged) {
-            for (int i = 0; i < dragged.length; i++) {
-                dragged[i].relocate(card.getLayoutX(), card.getLayoutY() + (i + 1) * 30);
-            }
-        }
+    /**
+     * This method moves the drag layer with the mouse. Only the translation of
+     * the layer changes, however many cards are dragged.
+     *
+     * @param mouseEvent the drag event
+     */
+    public void moving(MouseEvent mouseEvent) {
+        dragLayer.setTranslateX(mouseEvent.getSceneX() - mouseX);
+        dragLayer.setTranslateY(mouseEvent.getSceneY() - mouseY);
     }
 
+    /**
+     * This method removes the dragged cards from the drag layer. They are put
+     * back to their panes by the following refresh.
+     *
+     * @param mouseEvent the event which terminated the dragging
+     */
     public void terminateMoving(MouseEvent mouseEvent) {
-        if (isDragged) {
-            for (int i = 0; i < dragged.length; i++) {
-                mainPane.getChildren().remove(dragged[i]);
-            }
-        }
+        dragLayer.getChildren().clear();
+        dragLayer.setTranslateX(0);
+        dragLayer.setTranslateY(0);
+    }
+
+    private void startDragging(MouseEvent mouseEvent) {
+        mouseX = mouseEvent.getSceneX();
+        mouseY = mouseEvent.getSceneY();
+        dragLayer.getChildren().clear();
+        dragLayer.setTranslateX(0);
+        dragLayer.setTranslateY(0);
+        dragLayer.toFront();
+    }
+
+    /**
+     * Moves a card from its pane to the drag layer keeping its position on
+     * the screen.
+     */
+    private void pickUp(Pane container, ImageView card) {
+        double x = container.getLayoutX() + card.getLayoutX();
+        double y = container.getLayoutY() + card.getLayoutY();
+        dragLayer.getChildren().add(card);
+        card.relocate(x, y);
     }
 
     public void LoadTalonContext() {
         reserveDeck.getChildren().clear();
         int cardIndex = 0;
         for (String cardValue : controller.getTalonCards()) {
-            ImageView card = new ImageView(new Image(this.getClass().getClassLoader().getResourceAsStream("cards/" + cardValue.toLowerCase() + ".png")));
+            ImageView card = images.createView(CardImages.codeOf(cardValue));
             card.relocate(cardIndex * 25, 0);
             if (cardIndex == controller.getTalonCards().size() - 1) {
                 card.setId("t");
                 card.setCursor(Cursor.OPEN_HAND);
                 card.setOnMousePressed(mouseEvent -> {
-                    mouseX = mouseEvent.getSceneX() - reserveDeck.getLayoutX() - card.getLayoutX();
-                    mouseY = mouseEvent.getSceneY() - reserveDeck.getLayoutY();
-                    reserveDeck.getChildren().remove(card);
-                    mainPane.getChildren().add(card);
-                    card.relocate(mouseEvent.getSceneX() - mouseX, mouseEvent.getSceneY() - mouseY);
+                    startDragging(mouseEvent);
+                    pickUp(reserveDeck, card);
                     card.setCursor(Cursor.CLOSED_HAND);
                 });
-                card.setOnMouseDragged(mouseEvent -> {
-                    card.relocate(mouseEvent.getSceneX() - mouseX, mouseEvent.getSceneY() - mouseY);
-                });
+                card.setOnMouseDragged(this::moving);
                 card.setOnMouseReleased(mouseEvent -> {
+                    terminateMoving(mouseEvent);
                     releaseCard(card, mouseEvent);
-                    mainPane.getChildren().remove(card);
                 });
             };
             reserveDeck.getChildren().add(card);
@@ -250,29 +342,24 @@ public class GameForm implements Initializable {
         for (int i = 0; i < 4; i++) {
             List<String> cards = controller.getFoundationCards(i);
             if (cards.size() > 1) {
-                ImageView card = new ImageView(new Image(this.getClass().getClassLoader().getResourceAsStream("cards/" + cards.get(cards.size() - 2).toLowerCase() + ".png")));
+                ImageView card = images.createView(CardImages.codeOf(cards.get(cards.size() - 2)));
                 card.relocate(i * 110, 0);
                 foundations.getChildren().add(card);
             }
             if (!cards.isEmpty()) {
-                ImageView card = new ImageView(new Image(this.getClass().getClassLoader().getResourceAsStream("cards/" + cards.get(cards.size() - 1).toLowerCase() + ".png")));
+                ImageView card = images.createView(CardImages.codeOf(cards.get(cards.size() - 1)));
                 card.setId("f" + i);
                 card.relocate(i * 110, 0);
                 card.setCursor(Cursor.OPEN_HAND);
                 card.setOnMousePressed(mouseEvent -> {
-                    mouseX = mouseEvent.getSceneX() - foundations.getLayoutX() - card.getLayoutX();
-                    mouseY = mouseEvent.getSceneY() - foundations.getLayoutY();
-                    foundations.getChildren().remove(card);
-                    mainPane.getChildren().add(card);
-                    card.relocate(mouseEvent.getSceneX() - mouseX, mouseEvent.getSceneY() - mouseY);
+                    startDragging(mouseEvent);
+                    pickUp(foundations, card);
                     card.setCursor(Cursor.CLOSED_HAND);
                 });
-                card.setOnMouseDragged(mouseEvent -> {
-                    card.relocate(mouseEvent.getSceneX() - mouseX, mouseEvent.getSceneY() - mouseY);
-                });
+                card.setOnMouseDragged(this::moving);
                 card.setOnMouseReleased(mouseEvent -> {
+                    terminateMoving(mouseEvent);
                     releaseCard(card, mouseEvent);
-                    mainPane.getChildren().remove(card);
                 });
                 foundations.getChildren().add(card);
             }
@@ -280,64 +367,90 @@ public class GameForm implements Initializable {
     }
 
     public void LoadTableauPileContext(int pileIndex) {
-        tableauPiles[pileIndex].getChildren().clear();
-        String prevValue = "";
-        int locY = 0;
-        int cardIndex = 0;
-        for (String cardValue : controller.getTableauCards(pileIndex)) {
-            ImageView card = new ImageView(new Image(this.getClass().getClassLoader().getResourceAsStream("cards/" + cardValue.toLowerCase() + ".png")));
-            if (prevValue.equals("downside")) {
-                card.relocate(0, locY += 15);
-            } else {
-                if (cardIndex == 0) {
-                    card.relocate(0, 0);
-                } else {
-                    card.relocate(0, locY += 30);
-                }
+        int size = engine.getTableauSize(pileIndex);
+        int downside = engine.getDownsideCount(pileIndex);
+        ImageView[] nodes = tableauNodes[pileIndex];
+        if (nodes.length < size) {
+            nodes = tableauNodes[pileIndex] = Arrays.copyOf(nodes, size);
+        }
+        ObservableList<Node> children = tableauPiles[pileIndex].getChildren();
+        boolean attached = children.size() == size;
+        for (int cardIndex = 0; cardIndex < size; cardIndex++) {
+            ImageView card = nodes[cardIndex];
+            if (card == null) {
+                card = nodes[cardIndex] = createTableauCard(pileIndex, cardIndex);
             }
-            if (!cardValue.toLowerCase().equals("downside")) {
-                card.setId(String.valueOf(pileIndex) + (cardIndex < 10 ? "0" + String.valueOf(cardIndex) : String.valueOf(cardIndex)));
+            if (cardIndex < downside) {
+                images.show(card, CardImages.DOWNSIDE);
+                card.setId(null);
+                card.setCursor(null);
+            } else {
+                images.show(card, engine.getTableauCode(pileIndex, cardIndex));
+                card.setId(tableauId(pileIndex, cardIndex));
                 card.setCursor(Cursor.OPEN_HAND);
-                card.setOnMousePressed(mouseEvent -> {
-                    mouseX = mouseEvent.getSceneX() - getContainer(card).getLayoutX();
-                    mouseY = mouseEvent.getSceneY() - getContainer(card).getLayoutY() - card.getLayoutY();
-                    getContainer(card).getChildren().remove(card);
-                    mainPane.getChildren().add(card);
-                    card.relocate(mouseEvent.getSceneX() - mouseX, mouseEvent.getSceneY() - mouseY);
-                    card.setCursor(Cursor.CLOSED_HAND);
-                    setUpMoving(card, mouseEvent);
-                });
-                card.setOnMouseDragged(mouseEvent -> {
-                    card.relocate(mouseEvent.getSceneX() - mouseX, mouseEvent.getSceneY() - mouseY);
-                    moving(card, mouseEvent);
-                });
-                card.setOnMouseReleased(mouseEvent -> {
-                    releaseCard(card, mouseEvent);
-                    mainPane.getChildren().remove(card);
-                    terminateMoving(mouseEvent);
-                });
             }
-            tableauPiles[pileIndex].getChildren().add(card);
-            cardIndex++;
-            prevValue = cardValue.toLowerCase();
+            card.relocate(0, 15 * Math.min(cardIndex, downside) + 30 * Math.max(cardIndex - downside, 0));
+            attached = attached && children.get(cardIndex) == card;
+        }
+        if (!attached) {
+            children.setAll(Arrays.asList(nodes).subList(0, size));
         }
     }
 
+    /**
+     * Creates the node of the specified place of the tableau with its mouse
+     * handlers. The handlers ignore the node while it shows a <i>DOWNSIDE</i>
+     * card, which is marked by the lack of an id.
+     */
+    private ImageView createTableauCard(int pileIndex, int cardIndex) {
+        ImageView card = new ImageView();
+        card.setOnMousePressed(mouseEvent -> {
+            if (card.getId() == null) {
+                return;
+            }
+            setUpMoving(pileIndex, cardIndex, mouseEvent);
+            card.setCursor(Cursor.CLOSED_HAND);
+        });
+        card.setOnMouseDragged(mouseEvent -> {
+            if (card.getId() == null) {
+                return;
+            }
+            moving(mouseEvent);
+        });
+        card.setOnMouseReleased(mouseEvent -> {
+            if (card.getId() == null) {
+                return;
+            }
+            terminateMoving(mouseEvent);
+            releaseCard(card, mouseEvent);
+        });
+        return card;
+    }
+
+    /**
+     * Returns the id of a card of the tableau: the index of the pile followed
+     * by the two-digit index of the card. The ids are created only once.
+     */
+    private static String tableauId(int pileIndex, int cardIndex) {
+        if (TABLEAU_IDS[pileIndex].length <= cardIndex) {
+            String[] ids = Arrays.copyOf(TABLEAU_IDS[pileIndex], cardIndex + 1);
+            for (int i = TABLEAU_IDS[pileIndex].length; i < ids.length; i++) {
+                ids[i] = String.valueOf(pileIndex) + (i < 10 ? "0" + String.valueOf(i) : String.valueOf(i));
+            }
+            TABLEAU_IDS[pileIndex] = ids;
+        }
+        return TABLEAU_IDS[pileIndex][cardIndex];
+    }
+
     @FXML
     public void stockOnMousePressed() {
         controller.nextTalon();
-        LoadTalonContext();
         updateLabels();
     }
 
     @FXML
     public void newGame(ActionEvent event) {
         controller.newGame();
-        reserveDeck.getChildren().clear();
-        foundations.getChildren().clear();
-        for (int i = 0; i < 7; i++) {
-            LoadTableauPileContext(i);
-        }
         updateLabels();
         lblYouWon.setDisable(true);
         lblYouWon.setVisible(false);
@@ -347,13 +460,17 @@ public class GameForm implements Initializable {
 
     @FXML
     public void loadGame(ActionEvent event) {
-        try {
-            controller.loadGame();
-            LoadTalonContext();
-            LoadFoundationsContext();
-            for (int i = 0; i < 7; i++) {
-                LoadTableauPileContext(i);
+        // The loaded game replaces the actual one, so it can not be played
+        // until the loading finishes.
+        mainPane.setMouseTransparent(true);
+        saveService.load(done -> showProgress("Loading", done)).whenComplete((saved, ex) -> {
+            mainPane.setMouseTransparent(false);
+            if (ex != null) {
+                showFailure("load", ex);
+                return;
             }
+            controller.loadGame(saved);
+            status.setText("");
             updateLabels();
             if (controller.isWon()) {
                 lblYouWon.setDisable(false);
@@ -366,19 +483,12 @@ public class GameForm implements Initializable {
                 lblCongratulations.setDisable(true);
                 lblCongratulations.setVisible(false);
             }
-        } catch (IOException ex) {
-            logger.warn("Failed to load game due to {}: {}", ex.getClass().getSimpleName(), ex.getMessage());
-        }
+        });
     }
 
     @FXML
     public void undo(ActionEvent event) throws Exception {
         controller.undo();
-        LoadTalonContext();
-        LoadFoundationsContext();
-        for (int i = 0; i < 7; i++) {
-            LoadTableauPileContext(i);
-        }
         updateLabels();
     }
 
@@ -387,19 +497,231 @@ public class GameForm implements Initializable {
         Platform.exit();
     }
 
+    /**
+     * This method waits for the pending save and autosave operations to
+     * finish, it has to be called when the application stops.
+     */
+    public void close() {
+        hints.close();
+        saveService.close();
+        autosave.close();
+    }
+
     @FXML
     public void saveGame(ActionEvent event) throws Exception {
-        controller.saveGame();
+        if (!engine.isStarted()) {
+            logger.warn("To save, start a new game first!");
+            return;
+        }
+        saveService.save(controller, done -> showProgress("Saving", done)).whenComplete((result, ex) -> {
+            if (ex != null) {
+                showFailure("save", ex);
+            } else {
+                status.setText("Game saved.");
+            }
+        });
+    }
+
+    @FXML
+    public void exportReplay(ActionEvent event) {
+        if (!recorder.isAvailable()) {
+            status.setText("Only the games started here can be exported.");
+            return;
+        }
+        saveService.export(recorder.getReplay()).whenComplete((file, ex) -> {
+            if (ex != null) {
+                showFailure("export", ex);
+            } else {
+                status.setText("Replay exported to " + file.getFileName() + ".");
+            }
+        });
+    }
+
+    /**
+     * This method sets the time budget of the hint search.
+     *
+     * @param budget the time budget in milliseconds
+     * @see hu.unideb.inf.klondike.solver.HintEngine
+     */
+    public void setHintBudget(long budget) {
+        hints.setBudget(budget);
+    }
+
+    @FXML
+    public void hint(ActionEvent event) {
+        if (!engine.isStarted()) {
+            return;
+        }
+        status.setText("Searching for a hint...");
+        hints.hint(controller).whenComplete((hint, ex) -> {
+            if (ex instanceof CancellationException) {
+                // The search was cancelled by a move.
+                status.setText("");
+                return;
+            }
+            if (ex != null) {
+                status.setText("Failed to find a hint!");
+                logger.error("The hint search has failed!", ex);
+                return;
+            }
+            showHint(hint);
+        });
+    }
+
+    /**
+     * This method finishes the game once every card is face up. The moves are
+     * performed as one batch, so the changed piles are rebuilt only once.
+     *
+     * @param event the event of the menu item
+     * @see hu.unideb.inf.klondike.model.Game#autoComplete()
+     */
+    @FXML
+    public void autoComplete(ActionEvent event) {
+        if (!engine.isStarted()) {
+            return;
+        }
+        int performed = controller.autoComplete();
+        if (performed == 0) {
+            status.setText("The game can be auto-completed once every card is face up.");
+            return;
+        }
+        status.setText("Auto-completed in " + performed + " moves.");
+        updateLabels();
+        if (controller.isWon()) {
+            lblYouWon.setDisable(false);
+            lblYouWon.setVisible(true);
+            lblCongratulations.setDisable(false);
+            lblCongratulations.setVisible(true);
+        }
+    }
+
+    private void showHint(Hint hint) {
+        String speed = " (" + hint.getNodesPerSecond() / 1000 + "k nodes/s)";
+        int move = hint.getMove();
+        if (move < 0) {
+            status.setText("No useful move" + speed);
+            return;
+        }
+        status.setText((hint.getStatus() == SolverResult.STATUS.SOLVED ? "Winning move" : "Hint") + speed);
+        if (Move.isDraw(move)) {
+            mark(hintSource, new Rectangle2D(deck.getLayoutX(), deck.getLayoutY(), deck.getFitWidth(), deck.getFitHeight()));
+            return;
+        }
+        mark(hintSource, BoardCanvas.cardBounds(engine, Move.getFrom(move), Move.getFromIndex(move), Move.getCardIndex(move)));
+        int targetIndex = Move.getTo(move) == Move.PILE.TABLEAU ? Math.max(engine.getTableauSize(Move.getToIndex(move)) - 1, 0) : 0;
+        mark(hintTarget, BoardCanvas.cardBounds(engine, Move.getTo(move), Move.getToIndex(move), targetIndex));
+    }
+
+    private void mark(Rectangle marker, Rectangle2D bounds) {
+        marker.setX(bounds.getMinX());
+        marker.setY(bounds.getMinY());
+        marker.setWidth(bounds.getWidth());
+        marker.setHeight(bounds.getHeight());
+        marker.setVisible(true);
+        marker.toFront();
+    }
+
+    private boolean hasDownsideCards() {
+        for (int i = 0; i < 7; i++) {
+            if (engine.getDownsideCount(i) > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void hideHint() {
+        hintSource.setVisible(false);
+        hintTarget.setVisible(false);
+    }
+
+    private static Rectangle createHintMarker() {
+        Rectangle marker = new Rectangle();
+        marker.setManaged(false);
+        marker.setMouseTransparent(true);
+        marker.setVisible(false);
+        marker.setFill(Color.TRANSPARENT);
+        marker.setStroke(Color.GOLD);
+        marker.setStrokeWidth(3);
+        marker.setArcWidth(8);
+        marker.setArcHeight(8);
+        return marker;
+    }
+
+    private void showProgress(String operation, double done) {
+        status.setText(operation + "... " + Math.round(done * 100) + "%");
+    }
+
+    private void showFailure(String operation, Throwable ex) {
+        status.setText("Failed to " + operation + " the game!");
+        logger.warn("Failed to {} game due to {}: {}", operation, ex.getClass().getSimpleName(), ex.getMessage());
+    }
+
+    /**
+     * This method switches the form to paint the board onto one
+     * {@code BoardCanvas} instead of showing a node for every card.
+     *
+     * @see hu.unideb.inf.klondike.BoardCanvas
+     */
+    public void useCanvas() {
+        board = new BoardCanvas(engine, mainPane.getPrefWidth(), mainPane.getPrefHeight());
+        deck.setVisible(false);
+        reserveDeck.setVisible(false);
+        foundations.setVisible(false);
+        for (Pane pile : tableauPiles) {
+            pile.setVisible(false);
+        }
+        board.setOnMousePressed(mouseEvent -> {
+            if (board.isDeck(mouseEvent.getX(), mouseEvent.getY())) {
+                stockOnMousePressed();
+            } else if (board.startDragging(mouseEvent.getX(), mouseEvent.getY())) {
+                board.setCursor(Cursor.CLOSED_HAND);
+            }
+        });
+        board.setOnMouseDragged(mouseEvent -> board.dragTo(mouseEvent.getX(), mouseEvent.getY()));
+        board.setOnMouseReleased(mouseEvent -> {
+            if (board.isDragging()) {
+                Move.PILE from = board.getDragPile();
+                int fromIndex = board.getDragPileIndex();
+                int cardIndex = board.getDragCardIndex();
+                board.terminateDragging();
+                board.setCursor(Cursor.DEFAULT);
+                drop(from, fromIndex, cardIndex, mouseEvent);
+            }
+        });
+        mainPane.getChildren().add(0, board);
+        refresh(PileListener.ALL);
     }
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         tableauPiles = new Pane[]{tableauPile1, tableauPile2, tableauPile3, tableauPile4, tableauPile5, tableauPile6, tableauPile7};
-        deck.setImage(new Image(this.getClass().getClassLoader().getResourceAsStream("cards/downside.png")));
+        controller.addPileListener(this::refresh);
+        try {
+            Game recovered = autosave.recover();
+            if (recovered != null) {
+                controller.loadGame(recovered);
+                updateLabels();
+                if (controller.isWon()) {
+                    lblYouWon.setDisable(false);
+                    lblYouWon.setVisible(true);
+                    lblCongratulations.setDisable(false);
+                    lblCongratulations.setVisible(true);
+                }
+            }
+        } catch (IOException ex) {
+            logger.warn("Failed to recover the autosaved game due to {}: {}", ex.getClass().getSimpleName(), ex.getMessage());
+        }
+        autosave.attach(controller);
+        recorder.attach(controller);
+        dragLayer.setManaged(false);
+        mainPane.getChildren().addAll(dragLayer, hintSource, hintTarget);
+        images.show(deck, CardImages.DOWNSIDE);
         deck.setCursor(Cursor.HAND);
         mainPane.setStyle("-fx-background-color: #008000");
         score.setStyle("-fx-font-weight: bold; -fx-text-fill: #FFFFFF");
         moves.setStyle("-fx-font-weight: bold; -fx-text-fill: #FFFFFF");
+        status.setStyle("-fx-font-weight: bold; -fx-text-fill: #FFFFFF");
     }
 
 }
@@ -16,14 +16,12 @@
 package hu.unideb.inf.klondike.component;
 
 import java.util.Objects;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 /**
  * This class represents a card from the 52-card French card deck.
  * <p>
- * Each {@code Card} has a foundation, rank and state value that are represented
- * as enums:
+ * Each {@code Card} has a foundation and rank value that are represented as
+ * enums:
  * <ul>
  * <li> {@link hu.unideb.inf.klondike.component.Card.FOUNDATION Foundation}: the
  *      foundation of the {@code Card} such as <i>Heart</i>, <i>Diamond</i>,
@@ -31,10 +29,17 @@ import org.slf4j.LoggerFactory;
  * <li> {@link hu.unideb.inf.klondike.component.Card.RANK Rank}: the rank of the
  *      {@code Card} for example <i>King</i>, <i>Queen</i>, <i>Ace</i>, <i>10</i>,
  *      <i>9</i> and so on.
- * <li> {@link hu.unideb.inf.klondike.component.Card.STATE State}: that
- *      indicates if the {@code Card} is visible or not.
  * </ul>
  * <p>
+ * There are exactly 52 {@code Card} instances, one for each code between 0 and
+ * 51, which can be obtained by the
+ * {@link hu.unideb.inf.klondike.component.Card#valueOf(int) valueOf} methods.
+ * The instances are immutable, the
+ * {@link hu.unideb.inf.klondike.component.Card.STATE State} of a card (whether
+ * it is visible or not) is stored by the pile that holds it. Rank, foundation,
+ * color and stacking rules are available for codes as well, these are simple
+ * table lookups.
+ * <p>
  * Furthermore, there is a fourth component named
  * {@link hu.unideb.inf.klondike.component.Card.COLOR Color} but this enum's
  * value is not stored as part of the {@code Card} object. It's value can be
@@ -44,14 +49,11 @@ import org.slf4j.LoggerFactory;
  * @see hu.unideb.inf.klondike.component.Card.FOUNDATION
  * @see hu.unideb.inf.klondike.component.Card.RANK
  * @see hu.unideb.inf.klondike.component.Card.STATE
- * @see hu.unideb.inf.klondike.component.Card.STATE
  * @see hu.unideb.inf.klondike.component.Card.COLOR
  * @see hu.unideb.inf.klondike.component.Card#getColor()
  */
 public class Card implements Comparable<Card> {
 
-    private static final Logger logger = LoggerFactory.getLogger(Card.class);
-
     /**
      * Enum for representing the foundation of the {@code Card}.
      */
@@ -96,7 +98,7 @@ public class Card implements Comparable<Card> {
     }
 
     /**
-     * Enum for representing the state of the {@code Card}.
+     * Enum for representing the state of a {@code Card} on a pile.
      */
     public static enum STATE {
         /**
@@ -109,37 +111,176 @@ public class Card implements Comparable<Card> {
         DOWNSIDE
     }
 
+    /**
+     * The number of {@code Card} objects in the deck.
+     */
+    public static final int COUNT = 52;
+
+    private static final FOUNDATION[] FOUNDATIONS = FOUNDATION.values();
+    private static final RANK[] RANKS = RANK.values();
+    private static final COLOR[] COLORS = COLOR.values();
+
+    private static final Card[] CARDS = new Card[COUNT];
+    private static final byte[] RANK_OF = new byte[COUNT];
+    private static final byte[] FOUNDATION_OF = new byte[COUNT];
+    private static final byte[] COLOR_OF = new byte[COUNT];
+    private static final long[] STACKS_ON = new long[COUNT];
+    private static final long[] BUILDS_ON = new long[COUNT];
+
+    static {
+        for (int code = 0; code < COUNT; code++) {
+            FOUNDATION_OF[code] = (byte) (code / RANKS.length);
+            RANK_OF[code] = (byte) (code % RANKS.length);
+            COLOR_OF[code] = (byte) (FOUNDATION_OF[code] < FOUNDATION.SPADE.ordinal() ? COLOR.RED.ordinal() : COLOR.BLACK.ordinal());
+        }
+        for (int code = 0; code < COUNT; code++) {
+            for (int onto = 0; onto < COUNT; onto++) {
+                if (RANK_OF[code] + 1 == RANK_OF[onto] && COLOR_OF[code] != COLOR_OF[onto]) {
+                    STACKS_ON[code] |= 1L << onto;
+                }
+                if (RANK_OF[code] == RANK_OF[onto] + 1 && FOUNDATION_OF[code] == FOUNDATION_OF[onto]) {
+                    BUILDS_ON[code] |= 1L << onto;
+                }
+            }
+            CARDS[code] = new Card(FOUNDATIONS[FOUNDATION_OF[code]], RANKS[RANK_OF[code]], code);
+        }
+    }
+
     private final FOUNDATION foundation;
     private final RANK rank;
-    private STATE state;
+    private final int code;
 
     private Card() {
         this.foundation = null;
         this.rank = null;
-        this.state = STATE.DOWNSIDE;
+        this.code = -1;
+    }
+
+    private Card(FOUNDATION foundation, RANK rank, int code) {
+        this.foundation = foundation;
+        this.rank = rank;
+        this.code = code;
     }
 
     /**
-     * Creates a {@code Card} instance with the specified {@code Foundation} and
-     * specified {@code Rank}. The {@code State} of {@code Card} object will be
-     * {@link hu.unideb.inf.klondike.component.Card.STATE#DOWNSIDE State.DOWNSIDE}.
+     * Returns the {@code Card} with the specified {@code Foundation} and
+     * specified {@code Rank}. There is only one instance of each {@code Card},
+     * so the returned object is shared and immutable. The {@code State} of a
+     * {@code Card} is stored by the pile that holds it.
      *
      * @see hu.unideb.inf.klondike.component.Card.FOUNDATION
      * @see hu.unideb.inf.klondike.component.Card.RANK
-     * @see hu.unideb.inf.klondike.component.Card.STATE
-     * @param foundation {@code Foundation} to be set
-     * @param rank {@code Rank} to be set
+     * @param foundation {@code Foundation} of the {@code Card}
+     * @param rank {@code Rank} of the {@code Card}
+     * @return the {@code Card} with the specified {@code Foundation} and
+     * {@code Rank}
      * @throws NullPointerException if one of the parameters is null
      */
-    public Card(FOUNDATION foundation, RANK rank) throws NullPointerException {
+    public static Card valueOf(FOUNDATION foundation, RANK rank) throws NullPointerException {
         Objects.requireNonNull(foundation);
         Objects.requireNonNull(rank);
 
-        this.foundation = foundation;
-        this.rank = rank;
-        this.state = STATE.DOWNSIDE;
+        return CARDS[codeOf(foundation, rank)];
+    }
+
+    /**
+     * Returns the {@code Card} with the specified code.
+     *
+     * @see hu.unideb.inf.klondike.component.Card#getCode()
+     * @param code the code of the {@code Card}, between 0 and 51
+     * @return the {@code Card} with the specified code
+     * @throws IndexOutOfBoundsException if the code is out of range
+     */
+    public static Card valueOf(int code) throws IndexOutOfBoundsException {
+        return CARDS[code];
+    }
+
+    /**
+     * This method returns the code of the {@code Card} with the specified
+     * {@code Foundation} and specified {@code Rank}.
+     *
+     * @see hu.unideb.inf.klondike.component.Card#getCode()
+     * @param foundation {@code Foundation} of the {@code Card}
+     * @param rank {@code Rank} of the {@code Card}
+     * @return the code of the {@code Card}
+     */
+    public static int codeOf(FOUNDATION foundation, RANK rank) {
+        return foundation.ordinal() * RANKS.length + rank.ordinal();
+    }
+
+    /**
+     * This method returns the ordinal of the {@code Rank} of the {@code Card}
+     * with the specified code.
+     *
+     * @see hu.unideb.inf.klondike.component.Card.RANK
+     * @param code the code of the {@code Card}
+     * @return the ordinal of the {@code Rank}
+     */
+    public static int rankOf(int code) {
+        return RANK_OF[code];
+    }
+
+    /**
+     * This method returns the ordinal of the {@code Foundation} of the
+     * {@code Card} with the specified code.
+     *
+     * @see hu.unideb.inf.klondike.component.Card.FOUNDATION
+     * @param code the code of the {@code Card}
+     * @return the ordinal of the {@code Foundation}
+     */
+    public static int foundationOf(int code) {
+        return FOUNDATION_OF[code];
+    }
+
+    /**
+     * This method returns the ordinal of the {@code Color} of the
+     * {@code Card} with the specified code.
+     *
+     * @see hu.unideb.inf.klondike.component.Card.COLOR
+     * @param code the code of the {@code Card}
+     * @return the ordinal of the {@code Color}
+     */
+    public static int colorOf(int code) {
+        return COLOR_OF[code];
+    }
+
+    /**
+     * This method returns {@code true} if the {@code Card} with the specified
+     * code can be put on the other one on a {@code Tableau} pile, that is it
+     * has one lower {@code Rank} and different {@code Color}.
+     *
+     * @see hu.unideb.inf.klondike.component.Tableau
+     * @param code the code of the {@code Card} to put
+     * @param onto the code of the {@code Card} on the top of the pile
+     * @return {@code true} if the {@code Card} can be put on the other one
+     */
+    public static boolean canStackOn(int code, int onto) {
+        return (STACKS_ON[code] >>> onto & 1L) != 0;
+    }
 
-        logger.trace("Card({}-{}) created.", foundation, rank);
+    /**
+     * This method returns {@code true} if the {@code Card} with the specified
+     * code can be put on the other one on a {@code Foundation} pile, that is it
+     * has one higher {@code Rank} and the same {@code Foundation}.
+     *
+     * @see hu.unideb.inf.klondike.component.Foundation
+     * @param code the code of the {@code Card} to put
+     * @param onto the code of the {@code Card} on the top of the pile
+     * @return {@code true} if the {@code Card} can be put on the other one
+     */
+    public static boolean canBuildOn(int code, int onto) {
+        return (BUILDS_ON[code] >>> onto & 1L) != 0;
+    }
+
+    /**
+     * This method returns the code of the {@code Card} object which identifies
+     * it between 0 and 51. The code is {@code foundation * 13 + rank}, where
+     * both values are the ordinals of the enums.
+     *
+     * @return the code of the {@code Card} object
+     */
+    public int getCode() {
+        return code;
     }
 
     /**
@@ -169,35 +310,7 @@ public class Card implements Comparable<Card> {
      * @return the {@code Color} of the {@code Card} object
      */
     public COLOR getColor() {
-        switch (foundation) {
-            case HEART:
-            case DIAMOND:
-                return COLOR.RED;
-            default:
-                return COLOR.BLACK;
-        }
-    }
-
-    /**
-     * This method returns the {@code State} of the {@code Card} object.
-     *
-     * @see hu.unideb.inf.klondike.component.Card.STATE
-     * @return the {@code State} of the {@code Card} object
-     */
-    public STATE getState() {
-        return state;
-    }
-
-    /**
-     * This method sets the {@code State} of the {@code Card} object.
-     *
-     * @see hu.unideb.inf.klondike.component.Card.STATE
-     * @param state the {@code State} to be set
-     */
-    public void setState(STATE state) {
-        logger.trace("Card({}-{})'s state updated({}-->{}).", foundation, rank, this.state, state);
-
-        this.state = state;
+        return COLORS[COLOR_OF[code]];
     }
 
     /**
@@ -236,6 +349,17 @@ public class Card implements Comparable<Card> {
         return false;
     }
 
+    /**
+     * Returns a hash code value for the {@code Card}, which is its code.
+     *
+     * @see hu.unideb.inf.klondike.component.Card#getCode()
+     * @return a hash code value for the {@code Card}
+     */
+    @Override
+    public int hashCode() {
+        return code;
+    }
+
     /**
      * Returns a {@code String} representation of the {@code Card} object,
      * including it's {@code Foundation}, {@code Rank} and {@code Color}.
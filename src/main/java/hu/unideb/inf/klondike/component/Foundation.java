@@ -18,7 +18,6 @@ package hu.unideb.inf.klondike.component;
 import hu.unideb.inf.klondike.OffenseWhileAddingException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -52,22 +51,40 @@ public class Foundation {
 
     private final static Logger logger = LoggerFactory.getLogger(Foundation.class);
 
-    private List<Card> storedCards;
+    private byte[] storedCards;
+    private int size;
     private Card erasureBuffer;
-    private List<Card> prevState;
-    private List<Character> prevOp;
 
     /**
      * Constructor for creating an empty {@code Foundation} instance.
      */
     public Foundation() {
-        storedCards = new ArrayList<>();
+        storedCards = new byte[Card.RANK.values().length];
+        size = 0;
         erasureBuffer = null;
-        prevState = new ArrayList<>();
-        prevOp = new ArrayList<>();
         logger.trace("An empty foundation created.");
     }
 
+    /**
+     * Constructor for creating a {@code Foundation} instance which stores the
+     * given {@code Card} objects. The {@code Card} objects must be in
+     * ascending order from <i>Ace</i> and must have the same
+     * {@code Foundation}.
+     *
+     * @param cards the {@code Card} objects to store
+     * @throws IllegalArgumentException if the {@code Card} objects can not be
+     * stored on a {@code Foundation}
+     */
+    public Foundation(List<Card> cards) throws IllegalArgumentException {
+        this();
+        for (Card card : cards) {
+            if (!accepts(card.getCode())) {
+                throw new IllegalArgumentException(card + " can not be stored on the foundation!");
+            }
+            storedCards[size++] = (byte) card.getCode();
+        }
+    }
+
     /**
      * This method returns all the {@code Card} objects stored on the
      * {@code Foundation}.
@@ -75,7 +92,49 @@ public class Foundation {
      * @return all the {@code Card} objects stored on the {@code Foundation}
      */
     public List<Card> getStoredCards() {
-        return storedCards.stream().collect(Collectors.toList());
+        List<Card> cards = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            cards.add(Card.valueOf(storedCards[i]));
+        }
+        return cards;
+    }
+
+    /**
+     * This method returns the number of {@code Card} objects stored on the
+     * {@code Foundation}.
+     *
+     * @return the number of {@code Card} objects stored on the
+     * {@code Foundation}
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * This method returns the code of the top {@code Card} of the
+     * {@code Foundation}, or -1 if it is empty.
+     *
+     * @see hu.unideb.inf.klondike.component.Card#getCode()
+     * @return the code of the top {@code Card}, or -1 if the
+     * {@code Foundation} is empty
+     */
+    public int getTopCode() {
+        return size > 0 ? storedCards[size - 1] : -1;
+    }
+
+    /**
+     * This method returns {@code true} if the {@code Card} with the specified
+     * code can be added to the {@code Foundation}.
+     *
+     * @see hu.unideb.inf.klondike.component.Card#canBuildOn(int, int)
+     * @param code the code of the {@code Card} to add
+     * @return {@code true} if the {@code Card} can be added
+     */
+    public boolean accepts(int code) {
+        if (size == 0) {
+            return Card.rankOf(code) == Card.RANK.ACE.ordinal();
+        }
+        return Card.canBuildOn(code, storedCards[size - 1]);
     }
 
     /**
@@ -90,26 +149,52 @@ public class Foundation {
             erasureBuffer = null;
             logger.warn("Erasure buffer had not been empty when the add() function was called! Cleared.");
         }
-        if (storedCards.isEmpty()) {
-            if (card.getRank() == Card.RANK.ACE) {
-                card.setState(Card.STATE.UPSIDE);
-                storedCards.add(card);
-            } else {
+        add(card.getCode());
+        logger.trace("Card({}-{}) added to foundation.", card.getFoundation(), card.getRank());
+    }
+
+    /**
+     * This method adds the {@code Card} with the specified code to the
+     * {@code Foundation}.
+     *
+     * @see hu.unideb.inf.klondike.component.Card#getCode()
+     * @param code the code of the {@code Card} to add
+     * @throws OffenseWhileAddingException if the {@code Card} can not be added
+     * due to rule offense
+     */
+    public void add(int code) throws OffenseWhileAddingException {
+        if (!accepts(code)) {
+            if (size == 0) {
                 throw new OffenseWhileAddingException("The first card of the foundation must be an Ace one!");
             }
-        } else {
-            Card cardToComp = storedCards.get(storedCards.size() - 1);
-            if ((card.compareTo(cardToComp) == 1)
-                    & card.getFoundation() == cardToComp.getFoundation()) {
-                card.setState(Card.STATE.UPSIDE);
-                storedCards.add(card);
-            } else {
-                throw new OffenseWhileAddingException("The given card has too low/high rank or different color!");
-            }
+            throw new OffenseWhileAddingException("The given card has too low/high rank or different color!");
         }
-        logger.trace("Card({}-{}) added to foundation.", card.getFoundation(), card.getRank());
-        prevState.add(card);
-        prevOp.add('+');
+        storedCards[size++] = (byte) code;
+    }
+
+    /**
+     * This method puts the {@code Card} with the specified code on the
+     * {@code Foundation} without checking the rules. It is meant for restoring
+     * a previous state.
+     *
+     * @param code the code of the {@code Card} to put
+     */
+    public void push(int code) {
+        storedCards[size++] = (byte) code;
+    }
+
+    /**
+     * This method removes the top {@code Card} of the {@code Foundation} and
+     * returns its code.
+     *
+     * @return the code of the removed {@code Card}
+     * @throws IllegalStateException if the {@code Foundation} is empty
+     */
+    public int pop() throws IllegalStateException {
+        if (size == 0) {
+            throw new IllegalStateException("The foundation is empty!");
+        }
+        return storedCards[--size];
     }
 
     /**
@@ -123,7 +208,7 @@ public class Foundation {
      * @return he top {@code Card} of the {@code Foundation}
      */
     public Card get() {
-        return erasureBuffer = ((storedCards.size() > 0) ? storedCards.get(storedCards.size() - 1) : null);
+        return erasureBuffer = ((size > 0) ? Card.valueOf(storedCards[size - 1]) : null);
     }
 
     /**
@@ -135,9 +220,7 @@ public class Foundation {
      */
     public void apply() {
         if (erasureBuffer != null) {
-            storedCards.remove(erasureBuffer);
-            prevState.add(erasureBuffer);
-            prevOp.add('-');
+            size--;
             erasureBuffer = null;
             logger.trace("Erasure buffer cleared.");
         } else {
@@ -154,36 +237,7 @@ public class Foundation {
      * has <i>King</i> type of {@code Rank}
      */
     public boolean isKing() {
-        if (!storedCards.isEmpty()) {
-            if (storedCards.get(storedCards.size() - 1).getRank() == Card.RANK.KING) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    /**
-     * This method restores the {@code Foundation} to the previous state.
-     * Returns {@code true} if the previous state restored successfully,
-     * {@code false} if nothing changed.
-     *
-     * @return {@code true} if the previous state restored successfully,
-     * {@code false} if nothing changed
-     */
-    public boolean undo() {
-        if (!prevState.isEmpty()) {
-            if (prevOp.get(prevOp.size() - 1).equals('-')) {
-                storedCards.add(prevState.get(prevState.size() - 1));
-            } else {
-                storedCards.remove(prevState.get(prevState.size() - 1));
-            }
-            prevOp.remove(prevOp.size() - 1);
-            prevState.remove(prevState.size() - 1);
-            logger.info("The foundation's previous state restored successfully.");
-            return true;
-        }
-        logger.warn("The foundation's previous state did not restored! Is it in initial state?");
-        return false;
+        return size > 0 && Card.rankOf(storedCards[size - 1]) == Card.RANK.KING.ordinal();
     }
 
     /**
@@ -195,7 +249,7 @@ public class Foundation {
      */
     @Override
     public String toString() {
-        return !storedCards.isEmpty() ? "Foundation[ " + storedCards.get(storedCards.size() - 1) + " ]" : "Foundation[ ]";
+        return size > 0 ? "Foundation[ " + Card.valueOf(storedCards[size - 1]) + " ]" : "Foundation[ ]";
     }
 
 }
@@ -19,7 +19,6 @@ import hu.unideb.inf.klondike.OffenseException;
 import hu.unideb.inf.klondike.OffenseWhileAddingException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -55,10 +54,10 @@ public class Tableau {
 
     private final static Logger logger = LoggerFactory.getLogger(Tableau.class);
 
-    private List<Card> storedCards;
+    private byte[] storedCards;
+    private int size;
+    private int downside;
     private List<Card> erasureBuffer;
-    private List<List<Card>> prevState;
-    private List<Character> prevOp;
 
     /**
      * Constructor for creating a {@code Tableau} with the given {@code Card}
@@ -68,14 +67,25 @@ public class Tableau {
      * @param cards the starting {@code Card} objects to add
      */
     public Tableau(List<Card> cards) {
-        storedCards = new ArrayList<>();
+        this(cards, Math.max(cards.size() - 1, 0));
+    }
+
+    /**
+     * Constructor for creating a {@code Tableau} with the given {@code Card}
+     * objects, of which the specified number of bottom ones are
+     * <i>DOWNSIDE</i>.
+     *
+     * @see hu.unideb.inf.klondike.component.Card.STATE
+     * @param cards the starting {@code Card} objects to add
+     * @param downside the number of <i>DOWNSIDE</i> {@code Card} objects
+     */
+    public Tableau(List<Card> cards, int downside) {
+        storedCards = new byte[cards.size() + Card.RANK.values().length];
         erasureBuffer = new ArrayList<>();
-        prevState = new ArrayList<>();
-        prevOp = new ArrayList<>();
-        cards.stream().forEach(card -> storedCards.add(card));
-        if (!cards.isEmpty()) {
-            storedCards.get(storedCards.size() - 1).setState(Card.STATE.UPSIDE);
+        for (Card card : cards) {
+            storedCards[size++] = (byte) card.getCode();
         }
+        this.downside = downside;
         logger.trace("Tableau created with {} card(s).", cards.size());
     }
 
@@ -86,7 +96,74 @@ public class Tableau {
      * @return the {@code Card} objects stored on the {@code Tableau}
      */
     public List<Card> getStoredCards() {
-        return storedCards.stream().collect(Collectors.toList());
+        List<Card> cards = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            cards.add(Card.valueOf(storedCards[i]));
+        }
+        return cards;
+    }
+
+    /**
+     * This method returns the number of {@code Card} objects stored on the
+     * {@code Tableau}.
+     *
+     * @return the number of {@code Card} objects stored on the {@code Tableau}
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * This method returns the code of the {@code Card} at the specified index.
+     *
+     * @see hu.unideb.inf.klondike.component.Card#getCode()
+     * @param index index of the {@code Card}
+     * @return the code of the {@code Card} at the specified index
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public int getCode(int index) throws IndexOutOfBoundsException {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return storedCards[index];
+    }
+
+    /**
+     * This method returns the number of <i>DOWNSIDE</i> {@code Card} objects
+     * which are always at the bottom of the {@code Tableau}.
+     *
+     * @see hu.unideb.inf.klondike.component.Card.STATE
+     * @return the number of <i>DOWNSIDE</i> {@code Card} objects
+     */
+    public int getDownsideCount() {
+        return downside;
+    }
+
+    /**
+     * This method returns the {@code State} of the {@code Card} at the
+     * specified index.
+     *
+     * @see hu.unideb.inf.klondike.component.Card.STATE
+     * @param index index of the {@code Card}
+     * @return the {@code State} of the {@code Card} at the specified index
+     */
+    public Card.STATE getState(int index) {
+        return index < downside ? Card.STATE.DOWNSIDE : Card.STATE.UPSIDE;
+    }
+
+    /**
+     * This method returns {@code true} if the {@code Card} with the specified
+     * code can be added to the {@code Tableau}.
+     *
+     * @see hu.unideb.inf.klondike.component.Card#canStackOn(int, int)
+     * @param code the code of the {@code Card} to add
+     * @return {@code true} if the {@code Card} can be added
+     */
+    public boolean accepts(int code) {
+        if (size == 0) {
+            return Card.rankOf(code) == Card.RANK.KING.ordinal();
+        }
+        return Card.canStackOn(code, storedCards[size - 1]);
     }
 
     /**
@@ -102,24 +179,147 @@ public class Tableau {
             erasureBuffer.clear();
             logger.warn("Erasure buffer had not been empty when the add() function was called! Cleared.");
         }
-        if (storedCards.isEmpty()) {
-            if (cards.get(0).getRank() == Card.RANK.KING) {
-                cards.stream().peek(card -> card.setState(Card.STATE.UPSIDE)).forEach(card -> storedCards.add(card));
-            } else {
-                throw new OffenseWhileAddingException(cards.get(0) + " is not a King!");
-            }
-        } else {
-            Card cardToComp = storedCards.get(storedCards.size() - 1);
-            if ((cards.get(0).compareTo(cardToComp) == -1)
-                    & cards.get(0).getColor() != cardToComp.getColor()) {
-                cards.stream().peek(card -> card.setState(Card.STATE.UPSIDE)).forEach(card -> storedCards.add(card));
-            } else {
-                throw new OffenseWhileAddingException("The given card has too low/high rank or same color!");
-            }
+        checkAdd(cards.get(0).getCode());
+        for (Card card : cards) {
+            storedCards[size++] = (byte) card.getCode();
         }
         logger.trace("Card({}-{}) added to foundation.", cards.get(0).getFoundation(), cards.get(0).getRank());
-        prevState.add(new ArrayList<>(cards));
-        prevOp.add('+');
+    }
+
+    /**
+     * This method adds the {@code Card} with the specified code to the
+     * {@code Tableau}.
+     *
+     * @see hu.unideb.inf.klondike.component.Card#getCode()
+     * @param code the code of the {@code Card} to add
+     * @throws OffenseWhileAddingException if the {@code Card} can not be added
+     * due to rule offense
+     */
+    public void add(int code) throws OffenseWhileAddingException {
+        checkAdd(code);
+        storedCards[size++] = (byte) code;
+    }
+
+    private void checkAdd(int code) throws OffenseWhileAddingException {
+        if (!accepts(code)) {
+            if (size == 0) {
+                throw new OffenseWhileAddingException(Card.valueOf(code) + " is not a King!");
+            }
+            throw new OffenseWhileAddingException("The given card has too low/high rank or same color!");
+        }
+    }
+
+    /**
+     * This method returns the code of the <i>UPSIDE</i> {@code Card} at the
+     * specified index.
+     *
+     * @see hu.unideb.inf.klondike.component.Card#getCode()
+     * @param index index of the {@code Card}
+     * @return the code of the {@code Card} at the specified index
+     * @throws OffenseException if {@code State} of the specified {@code Card}
+     * is <i>DOWNSIDE</i>
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public int getUpsideCode(int index) throws OffenseException, IndexOutOfBoundsException {
+        int code = getCode(index);
+        if (index < downside) {
+            throw new OffenseException("Card state is downside!");
+        }
+        return code;
+    }
+
+    /**
+     * This method moves the {@code Card} objects from the specified to the last
+     * one to the specified {@code Tableau}. If the new top {@code Card} of this
+     * {@code Tableau} is <i>DOWNSIDE</i>, it is turned <i>UPSIDE</i>.
+     *
+     * @param target the {@code Tableau} to put the {@code Card} objects on
+     * @param index the grabbed {@code Card} index
+     * @return {@code true} if a {@code Card} has been turned <i>UPSIDE</i>
+     * @throws OffenseException if {@code State} of the specified {@code Card}
+     * is <i>DOWNSIDE</i> or the {@code Card} objects can not be added to the
+     * target due to rule offense
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public boolean moveTo(Tableau target, int index) throws OffenseException, IndexOutOfBoundsException {
+        target.checkAdd(getUpsideCode(index));
+        transfer(target, size - index);
+        return turnUp();
+    }
+
+    /**
+     * This method removes the top {@code Card} of the {@code Tableau}. If the
+     * new top {@code Card} is <i>DOWNSIDE</i>, it is turned <i>UPSIDE</i>.
+     *
+     * @return {@code true} if a {@code Card} has been turned <i>UPSIDE</i>
+     * @throws IllegalStateException if the {@code Tableau} is empty
+     */
+    public boolean remove() throws IllegalStateException {
+        pop();
+        return turnUp();
+    }
+
+    private boolean turnUp() {
+        if (size > 0 && downside == size) {
+            downside--;
+            logger.trace("The bottom card of the tableau turned upside.");
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * This method puts the {@code Card} with the specified code on the
+     * {@code Tableau} without checking the rules. It is meant for restoring a
+     * previous state.
+     *
+     * @param code the code of the {@code Card} to put
+     */
+    public void push(int code) {
+        storedCards[size++] = (byte) code;
+    }
+
+    /**
+     * This method removes the top {@code Card} of the {@code Tableau} and
+     * returns its code. The new top {@code Card} is not turned. It is meant for
+     * restoring a previous state.
+     *
+     * @return the code of the removed {@code Card}
+     * @throws IllegalStateException if the {@code Tableau} is empty
+     */
+    public int pop() throws IllegalStateException {
+        if (size == 0) {
+            throw new IllegalStateException("The tableau is empty!");
+        }
+        return storedCards[--size];
+    }
+
+    /**
+     * This method moves the specified number of top {@code Card} objects to
+     * the specified {@code Tableau} without checking the rules. It is meant
+     * for restoring a previous state.
+     *
+     * @param target the {@code Tableau} to put the {@code Card} objects on
+     * @param count the number of {@code Card} objects to move
+     */
+    public void transfer(Tableau target, int count) {
+        System.arraycopy(storedCards, size - count, target.storedCards, target.size, count);
+        target.size += count;
+        size -= count;
+    }
+
+    /**
+     * This method turns the top {@code Card} of the {@code Tableau}
+     * <i>DOWNSIDE</i>. It is meant for restoring a previous state.
+     *
+     * @throws IllegalStateException if the top {@code Card} is already
+     * <i>DOWNSIDE</i>
+     */
+    public void turnDown() throws IllegalStateException {
+        if (downside >= size) {
+            throw new IllegalStateException("The top card is already downside!");
+        }
+        downside++;
     }
 
     /**
@@ -139,8 +339,13 @@ public class Tableau {
      */
     public List<Card> get(int index) throws OffenseException, IndexOutOfBoundsException {
         erasureBuffer.clear();
-        if (storedCards.get(index).getState() == Card.STATE.UPSIDE) {
-            erasureBuffer.addAll(storedCards.subList(index, storedCards.size()));
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        if (index >= downside) {
+            for (int i = index; i < size; i++) {
+                erasureBuffer.add(Card.valueOf(storedCards[i]));
+            }
             return erasureBuffer;
         } else {
             throw new OffenseException("Card state is downside!");
@@ -156,59 +361,15 @@ public class Tableau {
      */
     public void apply() {
         if (!erasureBuffer.isEmpty()) {
-            prevState.add(new ArrayList<>(erasureBuffer));
-            if (storedCards.size() - erasureBuffer.size() > 0) {
-                if (storedCards.get(storedCards.size() - erasureBuffer.size() - 1).getState() == Card.STATE.DOWNSIDE) {
-                    prevOp.add('d');
-                } else {
-                    prevOp.add('-');
-                }
-            } else {
-                prevOp.add('-');
-            }
-            storedCards.removeAll(erasureBuffer);
+            size -= erasureBuffer.size();
+            turnUp();
             logger.trace("Erasure buffer cleared.");
         } else {
             logger.warn("Erasure buffer had been empty when the apply() function was called! Nothing changed.");
         }
-        if (!storedCards.isEmpty()) {
-            if (storedCards.get(storedCards.size() - 1).getState() == Card.STATE.DOWNSIDE) {
-                storedCards.get(storedCards.size() - 1).setState(Card.STATE.UPSIDE);
-                logger.trace("The bottom card of the tableau turned upside.");
-            }
-        }
         erasureBuffer.clear();
     }
 
-    /**
-     * This method restores the {@code Tableau} to the previous state. Returns
-     * {@code true} if the previous state restored successfully, {@code false}
-     * if nothing changed.
-     *
-     * @return {@code true} if the previous state restored successfully,
-     * {@code false} if nothing changed
-     */
-    public boolean undo() {
-        if (!prevState.isEmpty()) {
-            switch (prevOp.get(prevOp.size() - 1)) {
-                case 'd':
-                    storedCards.get(storedCards.size() - 1).setState(Card.STATE.DOWNSIDE);
-                case '-':
-                    prevState.get(prevState.size() - 1).stream().forEach(card -> storedCards.add(card));
-                    break;
-                default:
-                    storedCards.removeAll(prevState.get(prevState.size() - 1));
-                    break;
-            }
-            prevOp.remove(prevOp.size() - 1);
-            prevState.remove(prevState.size() - 1);
-            logger.info("The tableau's previous state restored successfully.");
-            return true;
-        }
-        logger.warn("The tableau's previous state did not restored! Is it in initial state?");
-        return false;
-    }
-
     /**
      * Returns a {@code String} representation of the {@code Card} has
      * <i>UPSIDE</i> type of {@code State} on the {@code Tableau}.
@@ -220,11 +381,8 @@ public class Tableau {
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder("Tableau[ ");
-        List<Card> cards = getStoredCards();
-        for (int i = 0; i < cards.size(); i++) {
-            if (cards.get(i).getState() != Card.STATE.DOWNSIDE) {
-                sb.append(i + 1).append('@').append(cards.get(i)).append(' ');
-            }
+        for (int i = downside; i < size; i++) {
+            sb.append(i + 1).append('@').append(Card.valueOf(storedCards[i])).append(' ');
         }
         return sb.append(']').toString();
     }
@@ -16,8 +16,8 @@
 package hu.unideb.inf.klondike.component;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -27,40 +27,13 @@ import org.slf4j.LoggerFactory;
  */
 public class Talon {
 
-    class State {
-
-        final int pointer;
-        final int available;
-        final Character prevOp;
-
-        State(int pointer, int available, Character prevOp) {
-            this.pointer = pointer;
-            this.available = available;
-            this.prevOp = prevOp;
-        }
-
-        int getPointer() {
-            return pointer;
-        }
-
-        int getAvailable() {
-            return available;
-        }
-
-        Character getPrevOp() {
-            return prevOp;
-        }
-
-    }
-
     private final static Logger logger = LoggerFactory.getLogger(Talon.class);
 
-    private List<Card> storedCards;
+    private byte[] storedCards;
+    private int size;
     private Card erasureBuffer;
     private int pointer;
     private int available;
-    private List<State> prevState;
-    private List<Card> prevCard;
 
     /**
      * Constructor for creating a {@code Talon} object.
@@ -68,13 +41,25 @@ public class Talon {
      * @param cards the {@code Card} objects to add
      */
     public Talon(List<Card> cards) {
-        storedCards = new ArrayList<>();
-        cards.stream().forEach(card -> storedCards.add(card));
+        this(cards, 0, 0);
+    }
+
+    /**
+     * Constructor for creating a {@code Talon} object in the specified state.
+     *
+     * @param cards the {@code Card} objects to add
+     * @param pointer index of the first visible {@code Card}
+     * @param available the number of visible {@code Card} objects
+     */
+    public Talon(List<Card> cards, int pointer, int available) {
+        storedCards = new byte[cards.size()];
+        size = 0;
+        for (Card card : cards) {
+            storedCards[size++] = (byte) card.getCode();
+        }
         erasureBuffer = null;
-        pointer = 0;
-        available = 0;
-        prevState = new ArrayList<>();
-        prevCard = new ArrayList<>();
+        this.pointer = pointer;
+        this.available = available;
     }
 
     /**
@@ -84,7 +69,65 @@ public class Talon {
      * @return a list of {@code Card} objects up to max 3 items
      */
     public List<Card> getVisibleCards() {
-        return available != 0 ? storedCards.subList(pointer, pointer + available).stream().collect(Collectors.toList()) : new ArrayList<>();
+        List<Card> cards = new ArrayList<>(available);
+        for (int i = pointer; i < pointer + available; i++) {
+            cards.add(Card.valueOf(storedCards[i]));
+        }
+        return cards;
+    }
+
+    /**
+     * This method returns the number of {@code Card} objects stored on the
+     * {@code Talon}.
+     *
+     * @return the number of {@code Card} objects stored on the {@code Talon}
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * This method returns the code of the {@code Card} at the specified index.
+     *
+     * @see hu.unideb.inf.klondike.component.Card#getCode()
+     * @param index index of the {@code Card}
+     * @return the code of the {@code Card} at the specified index
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public int getCode(int index) throws IndexOutOfBoundsException {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return storedCards[index];
+    }
+
+    /**
+     * This method returns the index of the first visible {@code Card}.
+     *
+     * @return the index of the first visible {@code Card}
+     */
+    public int getPointer() {
+        return pointer;
+    }
+
+    /**
+     * This method returns the number of visible {@code Card} objects.
+     *
+     * @return the number of visible {@code Card} objects
+     */
+    public int getAvailable() {
+        return available;
+    }
+
+    /**
+     * This method returns the code of the available {@code Card} on the
+     * {@code Talon}, or -1 if there is no available one.
+     *
+     * @see hu.unideb.inf.klondike.component.Card#getCode()
+     * @return the code of the available {@code Card}, or -1 if there is none
+     */
+    public int getAvailableCode() {
+        return available != 0 ? storedCards[pointer + available - 1] : -1;
     }
 
     /**
@@ -94,32 +137,52 @@ public class Talon {
      * be visible. When there is a turning point, no {@code Card} is available.
      */
     public void next() {
-        prevState.add(new State(pointer, available, 'n'));
         if (erasureBuffer != null) {
             erasureBuffer = null;
             logger.warn("Erasure buffer had not been empty when the next() function was called! Cleared.");
         }
-        if (storedCards.size() > 3 && pointer == 0 && available == 0) {
+        int state = nextState(size, pointer, available);
+        pointer = state >>> 2;
+        available = state & 0x3;
+    }
+
+    /**
+     * This method returns the state a {@code Talon} moves to from the
+     * specified state by the
+     * {@link hu.unideb.inf.klondike.component.Talon#next()} method. The result
+     * is packed into one {@code int}: the new pointer is {@code result >>> 2}
+     * and the new number of available {@code Card} objects is
+     * {@code result & 3}.
+     *
+     * @param size the number of {@code Card} objects stored on the
+     * {@code Talon}
+     * @param pointer index of the first visible {@code Card}
+     * @param available the number of visible {@code Card} objects
+     * @return the packed next state of the {@code Talon}
+     */
+    public static int nextState(int size, int pointer, int available) {
+        if (size > 3 && pointer == 0 && available == 0) {
             available = 3;
-        } else if (pointer + available + 3 < storedCards.size()) {
+        } else if (pointer + available + 3 < size) {
             pointer += available;
             available = 3;
         } else {
-            if (storedCards.size() <= 3 && pointer == 0) {
+            if (size <= 3 && pointer == 0) {
                 if (available != 0) {
                     available = 0;
                 } else {
-                    available = storedCards.size();
+                    available = size;
                 }
             } else {
                 pointer += available;
-                available = storedCards.size() - pointer;
-                if (storedCards.size() == pointer) {
+                available = size - pointer;
+                if (size == pointer) {
                     pointer = 0;
                     available = 0;
                 }
             }
         }
+        return pointer << 2 | available;
     }
 
     /**
@@ -132,7 +195,7 @@ public class Talon {
      * @return the available {@code Card} on the {@code Talon}
      */
     public Card get() {
-        return erasureBuffer = available != 0 ? storedCards.get(pointer + available - 1) : null;
+        return erasureBuffer = available != 0 ? Card.valueOf(storedCards[pointer + available - 1]) : null;
     }
 
     /**
@@ -144,39 +207,65 @@ public class Talon {
      */
     public void apply() {
         if (erasureBuffer != null) {
-            prevState.add(new State(pointer, available, '-'));
-            prevCard.add(erasureBuffer);
-            storedCards.remove(erasureBuffer);
+            remove();
         } else {
             logger.warn("cardToRemove's value had been null when the apply() function was called!");
         }
-        available -= 1;
         erasureBuffer = null;
     }
 
     /**
-     * This method restores the {@code Talon} to the previous state. Returns
-     * {@code true} if the previous state restored successfully, {@code false}
-     * if nothing changed.
+     * This method removes the available {@code Card} of the {@code Talon} and
+     * returns its code.
      *
-     * @return {@code true} if the previous state restored successfully,
-     * {@code false} if nothing changed
-     */
-    public boolean undo() {
-        if (!prevState.isEmpty()) {
-            if (prevState.get(prevState.size() - 1).prevOp.equals('-')) {
-                pointer = prevState.get(prevState.size() - 1).getPointer();
-                available = prevState.get(prevState.size() - 1).getAvailable();
-                storedCards.add(pointer + available - 1, prevCard.remove(prevCard.size() - 1));
-                prevState.remove(prevState.size() - 1);
-            } else {
-                pointer = prevState.get(prevState.size() - 1).getPointer();
-                available = prevState.get(prevState.size() - 1).getAvailable();
-                prevState.remove(prevState.size() - 1);
-            }
-            return true;
+     * @return the code of the removed {@code Card}
+     * @throws IllegalStateException if there is no available {@code Card}
+     */
+    public int remove() throws IllegalStateException {
+        if (available == 0) {
+            throw new IllegalStateException("There is no available card on the talon!");
+        }
+        int index = pointer + available - 1;
+        int code = storedCards[index];
+        System.arraycopy(storedCards, index + 1, storedCards, index, size - index - 1);
+        size--;
+        available--;
+        return code;
+    }
+
+    /**
+     * This method puts back the {@code Card} with the specified code as the
+     * available one, after the visible {@code Card} objects. It is the inverse
+     * of the {@link hu.unideb.inf.klondike.component.Talon#remove()} method
+     * and is meant for restoring a previous state.
+     *
+     * @param code the code of the {@code Card} to put back
+     */
+    public void insert(int code) {
+        if (size == storedCards.length) {
+            storedCards = Arrays.copyOf(storedCards, size + 1);
+        }
+        int index = pointer + available;
+        System.arraycopy(storedCards, index, storedCards, index + 1, size - index);
+        storedCards[index] = (byte) code;
+        size++;
+        available++;
+    }
+
+    /**
+     * This method sets the state of the {@code Talon}. It is meant for
+     * restoring a previous state.
+     *
+     * @param pointer index of the first visible {@code Card}
+     * @param available the number of visible {@code Card} objects
+     * @throws IllegalArgumentException if the state is out of range
+     */
+    public void setState(int pointer, int available) throws IllegalArgumentException {
+        if (pointer < 0 || available < 0 || available > 3 || pointer + available > size) {
+            throw new IllegalArgumentException("Invalid talon state: " + pointer + ", " + available);
         }
-        return false;
+        this.pointer = pointer;
+        this.available = available;
     }
 
     /**
@@ -0,0 +1,270 @@
+/*
+ * Copyright 2017 Faculty of Informatics, Debrecen University, Hungary.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.klondike.model;
+
+import hu.unideb.inf.klondike.OffenseException;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class saves every step of a {@code Game} automatically, so the game
+ * can be continued after a crash.
+ * <p>
+ * The autosave consists of two files: a snapshot of the game in the format of
+ * the save files, and a log which is appended by 4 bytes for every step: the
+ * packed entry of the recorded step, or -1 for an undone one. The log starts
+ * with the checksum of the snapshot it continues, so a log which belongs to
+ * an earlier snapshot is ignored. After every {@code COMPACT_INTERVAL}
+ * records, and when the game is replaced, the log is compacted: a new
+ * snapshot is written atomically and the log is emptied.
+ * <p>
+ * The files are written on a background thread in the order of the steps.
+ * The log is not forced to the disk after every step, so it survives the
+ * crash of the application but not the crash of the operating system.
+ *
+ * @see hu.unideb.inf.klondike.model.SaveFormat
+ * @see hu.unideb.inf.klondike.model.Journal
+ */
+public class Autosave implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(Autosave.class);
+
+    /**
+     * The number of records in the log after which it is compacted.
+     */
+    public static final int COMPACT_INTERVAL = 256;
+
+    private static final int UNDONE = -1;
+
+    private final Path snapshotFile;
+    private final Path logFile;
+    private final ExecutorService executor;
+    private final ByteBuffer record = ByteBuffer.allocateDirect(4);
+    private FileChannel log;
+    private volatile boolean failed;
+    private Game game;
+    private int records;
+
+    private final JournalListener listener = new JournalListener() {
+        @Override
+        public void pushed(int entry) {
+            append(entry);
+        }
+
+        @Override
+        public void popped() {
+            append(UNDONE);
+        }
+
+        @Override
+        public void replaced() {
+            compact();
+        }
+    };
+
+    /**
+     * Constructor for creating an {@code Autosave} which uses the specified
+     * files.
+     *
+     * @param snapshotFile the file of the snapshot
+     * @param logFile the file of the log
+     */
+    public Autosave(Path snapshotFile, Path logFile) {
+        this.snapshotFile = snapshotFile;
+        this.logFile = logFile;
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "klondike-autosave");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * This method returns an {@code Autosave} which uses the
+     * {@code autosave.k} and {@code autosave.log} files in the directory of
+     * the save file.
+     *
+     * @return an {@code Autosave} in the directory of the save file
+     */
+    public static Autosave inSaveDirectory() {
+        Path directory = SaveFile.location().toAbsolutePath().getParent();
+        return new Autosave(directory.resolve("autosave.k"), directory.resolve("autosave.log"));
+    }
+
+    /**
+     * This method restores the automatically saved game: it reads the
+     * snapshot and replays the log after it. The recovery stops at the first
+     * record which can not be replayed.
+     *
+     * @return the automatically saved game, or null if there is none
+     * @throws IOException if the snapshot can not be read
+     */
+    public Game recover() throws IOException {
+        byte[] snapshot;
+        try {
+            snapshot = SaveFile.read(snapshotFile, null);
+        } catch (FileNotFoundException ex) {
+            return null;
+        }
+        Game recovered = SaveFormat.decode(snapshot);
+        if (!Files.isRegularFile(logFile)) {
+            return recovered;
+        }
+        ByteBuffer content = ByteBuffer.wrap(SaveFile.read(logFile, null));
+        if (content.remaining() < 4 || content.getInt() != checksum(ByteBuffer.wrap(snapshot))) {
+            return recovered;
+        }
+        GameEngine engine = new GameEngine(recovered);
+        int replayed = 0;
+        try {
+            while (content.remaining() >= 4) {
+                int entry = content.getInt();
+                if (entry == UNDONE) {
+                    recovered.undo();
+                } else {
+                    ReplayEngine.step(engine, Journal.getMove(entry));
+                }
+                replayed++;
+            }
+        } catch (OffenseException | IndexOutOfBoundsException ex) {
+            logger.warn("The autosave log could not be replayed after {} records: {}", replayed, ex.getMessage());
+        }
+        logger.info("Autosaved game recovered with {} logged steps.", replayed);
+        return recovered;
+    }
+
+    /**
+     * This method starts saving the steps of the specified game. A started
+     * game is compacted to a new snapshot immediately.
+     *
+     * @param game the game to save automatically
+     */
+    public void attach(Game game) {
+        if (this.game != null) {
+            this.game.removeJournalListener(listener);
+        }
+        this.game = game;
+        game.addJournalListener(listener);
+        compact();
+    }
+
+    /**
+     * This method stops saving the steps of the game, waits for the pending
+     * writes to finish and closes the log.
+     */
+    @Override
+    public void close() {
+        if (game != null) {
+            game.removeJournalListener(listener);
+            game = null;
+        }
+        executor.execute(this::closeLog);
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.warn("The pending autosave writes have not finished in time!");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void append(int entry) {
+        if (failed || ++records >= COMPACT_INTERVAL) {
+            compact();
+            return;
+        }
+        executor.execute(() -> {
+            if (failed || log == null) {
+                return;
+            }
+            try {
+                record.clear();
+                record.putInt(entry).flip();
+                while (record.hasRemaining()) {
+                    log.write(record);
+                }
+            } catch (IOException ex) {
+                fail(ex);
+            }
+        });
+    }
+
+    /**
+     * Encodes the snapshot on the calling thread, which is the thread of the
+     * game, and writes it in the background.
+     */
+    private void compact() {
+        if (game.getTalon() == null) {
+            return;
+        }
+        records = 0;
+        ByteBuffer snapshot = SaveFormat.encode(game);
+        executor.execute(() -> {
+            try {
+                int checksum = checksum(snapshot);
+                SaveFile.write(snapshotFile, snapshot, null);
+                if (log == null) {
+                    log = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                }
+                log.truncate(0);
+                log.position(0);
+                record.clear();
+                record.putInt(checksum).flip();
+                while (record.hasRemaining()) {
+                    log.write(record);
+                }
+                failed = false;
+            } catch (IOException ex) {
+                fail(ex);
+            }
+        });
+    }
+
+    private void fail(IOException ex) {
+        failed = true;
+        logger.warn("Failed to save the game automatically due to {}: {}", ex.getClass().getSimpleName(), ex.getMessage());
+    }
+
+    private void closeLog() {
+        if (log != null) {
+            try {
+                log.close();
+            } catch (IOException ex) {
+                logger.warn("Failed to close the autosave log: {}", ex.getMessage());
+            }
+            log = null;
+        }
+    }
+
+    /**
+     * Returns the checksum at the end of an encoded save file.
+     */
+    private static int checksum(ByteBuffer content) {
+        return content.getInt(content.limit() - 4);
+    }
+
+}
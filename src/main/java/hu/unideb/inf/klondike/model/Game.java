@@ -17,21 +17,14 @@ package hu.unideb.inf.klondike.model;
 
 import hu.unideb.inf.klondike.component.*;
 import hu.unideb.inf.klondike.*;
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
-import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
-import java.io.FileReader;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.io.Writer;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.DoubleConsumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -40,52 +33,20 @@ import org.slf4j.LoggerFactory;
  */
 public class Game {
     
-    class Movement {
-        
-        private final String from;
-        private final String to;
-        private final int fromIndex;
-        private final int toIndex;
-        private final int score;
-        
-        Movement(String from, String to, int fromIndex, int toIndex, int score) {
-            this.from = from;
-            this.to = to;
-            this.fromIndex = fromIndex;
-            this.toIndex = toIndex;
-            this.score = score;
-        }
-        
-        String getFrom() {
-            return from;
-        }
-        
-        String getTo() {
-            return to;
-        }
-        
-        int getFromIndex() {
-            return fromIndex;
-        }
-        
-        int getToIndex() {
-            return toIndex;
-        }
-        
-        int getScore() {
-            return score;
-        }
-        
-    }
-    
     private static final Logger logger = LoggerFactory.getLogger(Game.class);
-    
+
     private Tableau[] tableauPiles;
     private Foundation[] foundationPiles;
     private Talon talon;
     private int score, moves;
-    private List<Movement> prevMovements;
-    private List<Character> prevOps;
+    private Journal journal;
+    private long hash;
+    private List<PileListener> listeners;
+    private List<JournalListener> journalListeners;
+    private long seed;
+    private boolean seeded;
+    private boolean batching;
+    private int batchedPiles;
 
     /**
      * Constructor for creating a {@code Game} instance.
@@ -95,8 +56,9 @@ public class Game {
         foundationPiles = new Foundation[4];
         score = 0;
         moves = 0;
-        prevMovements = new ArrayList<>();
-        prevOps = new ArrayList<>();
+        journal = new Journal();
+        listeners = new ArrayList<>();
+        journalListeners = new ArrayList<>();
     }
 
     /**
@@ -131,13 +93,105 @@ public class Game {
         }
         return kings == 4;
     }
+
+    /**
+     * This method returns the 64-bit Zobrist hash of the actual position. It
+     * depends on the {@code Card} objects of the piles, their face states and
+     * the state of the {@code Talon}, but not on the score and the number of
+     * steps. The hash is updated by every move and undo in constant time, so
+     * it can be used by solvers and caches to recognize positions.
+     *
+     * @return the hash of the actual position, or 0 if the game has not been
+     * started yet
+     */
+    public long positionHash() {
+        return hash;
+    }
     
-    private void updateScore(int score) {
-        this.score += score;
-        if (this.score < 0) {
-            this.score = 0;
+    /**
+     * Records a performed move to the journal and updates the score and the
+     * number of steps.
+     */
+    private void record(int move, boolean turned, boolean counted, int score) {
+        int previous = this.score;
+        this.score = Math.max(this.score + score, 0);
+        if (counted) {
+            moves++;
+        }
+        int entry = Journal.entry(move, turned, counted, this.score - previous);
+        journal.push(entry);
+        firePushed(entry);
+        firePilesChanged(PileListener.of(Move.getFrom(move), Move.getFromIndex(move)) | PileListener.of(Move.getTo(move), Move.getToIndex(move)));
+    }
+
+    /**
+     * This method adds the specified listener to receive the changes of the
+     * piles.
+     *
+     * @param listener the listener to add
+     */
+    public void addPileListener(PileListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * This method removes the specified listener.
+     *
+     * @param listener the listener to remove
+     */
+    public void removePileListener(PileListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Adds a listener of the history.
+     */
+    void addJournalListener(JournalListener listener) {
+        journalListeners.add(listener);
+    }
+
+    /**
+     * Removes a listener of the history.
+     */
+    void removeJournalListener(JournalListener listener) {
+        journalListeners.remove(listener);
+    }
+
+    private void firePushed(int entry) {
+        for (JournalListener listener : journalListeners) {
+            listener.pushed(entry);
+        }
+    }
+
+    private void fireReplaced() {
+        for (JournalListener listener : journalListeners) {
+            listener.replaced();
+        }
+    }
+
+    /**
+     * Returns true if the game has been dealt by a known seed.
+     */
+    boolean isSeeded() {
+        return seeded;
+    }
+
+    /**
+     * Returns the seed of the deal, if the game has been dealt by a known
+     * seed.
+     */
+    long getSeed() {
+        return seed;
+    }
+
+    private void firePilesChanged(int piles) {
+        if (batching) {
+            batchedPiles |= piles;
+            return;
+        }
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).pilesChanged(piles);
         }
-        moves++;
     }
 
     /**
@@ -156,12 +210,13 @@ public class Game {
         if (fromIndex == toIndex) {
             return;
         }
-        tableauPiles[toIndex].add(tableauPiles[fromIndex].get(cardIndex));
-        prevOps.add('m');
-        prevMovements.add(new Movement(Tableau.class.getTypeName(), Tableau.class.getTypeName(), fromIndex, toIndex, score));
-        tableauPiles[fromIndex].apply();
-        updateScore(5);
-        logger.info("Card(s) moved from tableau to tableau.");
+        Tableau to = tableauPiles[toIndex];
+        int toStart = to.size();
+        long before = tableauHash(fromIndex, cardIndex - 1);
+        boolean turned = tableauPiles[fromIndex].moveTo(to, cardIndex);
+        hash ^= before ^ tableauHash(fromIndex, cardIndex - 1) ^ tableauHash(toIndex, toStart);
+        record(Move.of(Move.PILE.TABLEAU, fromIndex, Move.PILE.TABLEAU, toIndex, to.size() - toStart), turned, true, 5);
+        logger.debug("Card(s) moved from tableau to tableau.");
     }
 
     /**
@@ -178,15 +233,17 @@ public class Game {
      * rule offense
      */
     public void moveFromTableauToFoundation(int fromIndex, int toIndex, int cardIndex) throws OffenseException {
-        if (Arrays.asList(tableauPiles[fromIndex].get(cardIndex)).size() != 1) {
+        Tableau from = tableauPiles[fromIndex];
+        int code = from.getUpsideCode(cardIndex);
+        if (cardIndex != from.size() - 1) {
             throw new OffenseWhileAddingException("Only one card can be added!");
         }
-        foundationPiles[toIndex].add(tableauPiles[fromIndex].get(cardIndex).get(0));
-        prevOps.add('m');
-        prevMovements.add(new Movement(Tableau.class.getTypeName(), Foundation.class.getTypeName(), fromIndex, toIndex, score));
-        tableauPiles[fromIndex].apply();
-        updateScore(10);
-        logger.info("Card moved from tableau to foundation.");
+        long before = tableauHash(fromIndex, cardIndex - 1) ^ foundationHash(toIndex);
+        foundationPiles[toIndex].add(code);
+        boolean turned = from.remove();
+        hash ^= before ^ tableauHash(fromIndex, cardIndex - 1) ^ foundationHash(toIndex);
+        record(Move.of(Move.PILE.TABLEAU, fromIndex, Move.PILE.FOUNDATION, toIndex, 1), turned, true, 10);
+        logger.debug("Card moved from tableau to foundation.");
     }
 
     /**
@@ -204,11 +261,16 @@ public class Game {
         if (fromIndex == toIndex) {
             return;
         }
-        foundationPiles[toIndex].add(foundationPiles[fromIndex].get());
-        prevOps.add('m');
-        prevMovements.add(new Movement(Foundation.class.getTypeName(), Foundation.class.getTypeName(), fromIndex, toIndex, score));
-        foundationPiles[fromIndex].apply();
-        logger.info("Card moved from foundation to foundation.");
+        int code = foundationPiles[fromIndex].getTopCode();
+        if (code < 0) {
+            throw new OffenseException("The foundation is empty!");
+        }
+        long before = foundationHash(fromIndex) ^ foundationHash(toIndex);
+        foundationPiles[toIndex].add(code);
+        foundationPiles[fromIndex].pop();
+        hash ^= before ^ foundationHash(fromIndex) ^ foundationHash(toIndex);
+        record(Move.of(Move.PILE.FOUNDATION, fromIndex, Move.PILE.FOUNDATION, toIndex, 1), false, false, 0);
+        logger.debug("Card moved from foundation to foundation.");
     }
 
     /**
@@ -224,12 +286,17 @@ public class Game {
      * rule offense
      */
     public void moveFromFoundationToTableau(int fromIndex, int toIndex) throws OffenseException {
-        tableauPiles[toIndex].add(Arrays.asList(foundationPiles[fromIndex].get()));
-        prevOps.add('m');
-        prevMovements.add(new Movement(Foundation.class.getTypeName(), Tableau.class.getTypeName(), fromIndex, toIndex, score));
-        foundationPiles[fromIndex].apply();
-        updateScore(-15);
-        logger.info("Card moved from foundation to tableau.");
+        int code = foundationPiles[fromIndex].getTopCode();
+        if (code < 0) {
+            throw new OffenseException("The foundation is empty!");
+        }
+        int toStart = tableauPiles[toIndex].size();
+        long before = foundationHash(fromIndex);
+        tableauPiles[toIndex].add(code);
+        foundationPiles[fromIndex].pop();
+        hash ^= before ^ foundationHash(fromIndex) ^ tableauHash(toIndex, toStart);
+        record(Move.of(Move.PILE.FOUNDATION, fromIndex, Move.PILE.TABLEAU, toIndex, 1), false, true, -15);
+        logger.debug("Card moved from foundation to tableau.");
     }
 
     /**
@@ -244,12 +311,17 @@ public class Game {
      * rule offense
      */
     public void moveFromTalonToTableau(int toIndex) throws OffenseException {
-        tableauPiles[toIndex].add(Arrays.asList(talon.get()));
-        prevOps.add('m');
-        prevMovements.add(new Movement(Talon.class.getTypeName(), Tableau.class.getTypeName(), 0, toIndex, score));
-        talon.apply();
-        updateScore(5);
-        logger.info("Card moved from talon to tableau.");
+        int code = talon.getAvailableCode();
+        if (code < 0) {
+            throw new OffenseException("There is no available card on the talon!");
+        }
+        int toStart = tableauPiles[toIndex].size();
+        long before = talonStateHash() ^ talonLinkHash();
+        tableauPiles[toIndex].add(code);
+        talon.remove();
+        hash ^= before ^ talonStateHash() ^ tableauHash(toIndex, toStart);
+        record(Move.of(Move.PILE.TALON, 0, Move.PILE.TABLEAU, toIndex, 1), false, true, 5);
+        logger.debug("Card moved from talon to tableau.");
     }
 
     /**
@@ -261,12 +333,16 @@ public class Game {
      * rule offense
      */
     public void moveFromTalonToFoundation(int toIndex) throws OffenseException {
-        foundationPiles[toIndex].add(talon.get());
-        prevOps.add('m');
-        prevMovements.add(new Movement(Talon.class.getTypeName(), Foundation.class.getTypeName(), 0, toIndex, score));
-        talon.apply();
-        updateScore(10);
-        logger.info("Card moved from talon to foundation.");
+        int code = talon.getAvailableCode();
+        if (code < 0) {
+            throw new OffenseException("There is no available card on the talon!");
+        }
+        long before = talonStateHash() ^ talonLinkHash() ^ foundationHash(toIndex);
+        foundationPiles[toIndex].add(code);
+        talon.remove();
+        hash ^= before ^ talonStateHash() ^ foundationHash(toIndex);
+        record(Move.of(Move.PILE.TALON, 0, Move.PILE.FOUNDATION, toIndex, 1), false, true, 10);
+        logger.debug("Card moved from talon to foundation.");
     }
 
     /**
@@ -286,11 +362,13 @@ public class Game {
      */
     public List<String> getTableauCards(int pileIndex) {
         List<String> list = new ArrayList<>();
-        if (tableauPiles[pileIndex] != null) {
-            for (Card card : tableauPiles[pileIndex].getStoredCards()) {
-                if (card.getState() == Card.STATE.DOWNSIDE) {
+        Tableau tableau = tableauPiles[pileIndex];
+        if (tableau != null) {
+            for (int i = 0; i < tableau.size(); i++) {
+                if (tableau.getState(i) == Card.STATE.DOWNSIDE) {
                     list.add("DOWNSIDE");
                 } else {
+                    Card card = Card.valueOf(tableau.getCode(i));
                     list.add(card.getFoundation() + "_" + card.getRank());
                 }
             }
@@ -358,32 +436,260 @@ public class Game {
      */
     public void nextTalon() {
         if ((talon != null)) {
-            prevOps.add('n');
+            int pointer = talon.getPointer();
+            int available = talon.getAvailable();
+            hash ^= talonStateHash();
             talon.next();
-            if (!talon.getVisibleCards().isEmpty()) {
-                updateScore(0);
+            hash ^= talonStateHash();
+            boolean counted = talon.getAvailable() != 0;
+            if (counted) {
+                moves++;
+            }
+            int entry = Journal.draw(pointer, available, counted);
+            journal.push(entry);
+            firePushed(entry);
+            firePilesChanged(PileListener.TALON);
+        }
+    }
+
+    /**
+     * This method fills the specified buffer with every legal move of the
+     * actual position. The previous content of the buffer is cleared. The
+     * method does not allocate memory, so it can be called in hot loops of
+     * bots and solvers.
+     * <p>
+     * The generated moves are the following, in this order:
+     * <ul>
+     * <li> moving the available {@code Card} of the {@code Talon} to a
+     *      {@code Foundation} or a {@code Tableau} pile;
+     * <li> moving the top {@code Card} of a {@code Tableau} pile to a
+     *      {@code Foundation} pile;
+     * <li> moving any <i>UPSIDE</i> {@code Card} of a {@code Tableau} pile,
+     *      together with the ones on it, to another {@code Tableau} pile;
+     * <li> moving the top {@code Card} of a {@code Foundation} pile to a
+     *      {@code Tableau} or another {@code Foundation} pile; and
+     * <li> {@link hu.unideb.inf.klondike.model.Move#DRAW turning} the
+     *      {@code Talon}, if it is not empty.
+     * </ul>
+     *
+     * @see hu.unideb.inf.klondike.model.Move
+     * @param buffer the buffer to fill
+     * @return the number of legal moves
+     */
+    public int legalMoves(MoveBuffer buffer) {
+        buffer.clear();
+        if (talon == null) {
+            return 0;
+        }
+        int code = talon.getAvailableCode();
+        if (code >= 0) {
+            for (int to = 0; to < foundationPiles.length; to++) {
+                if (foundationPiles[to].accepts(code)) {
+                    buffer.add(Move.of(Move.PILE.TALON, 0, Move.PILE.FOUNDATION, to, 0));
+                }
+            }
+            for (int to = 0; to < tableauPiles.length; to++) {
+                if (tableauPiles[to].accepts(code)) {
+                    buffer.add(Move.of(Move.PILE.TALON, 0, Move.PILE.TABLEAU, to, 0));
+                }
+            }
+        }
+        for (int from = 0; from < tableauPiles.length; from++) {
+            Tableau tableau = tableauPiles[from];
+            if (tableau.size() == 0) {
+                continue;
+            }
+            int top = tableau.size() - 1;
+            code = tableau.getCode(top);
+            for (int to = 0; to < foundationPiles.length; to++) {
+                if (foundationPiles[to].accepts(code)) {
+                    buffer.add(Move.of(Move.PILE.TABLEAU, from, Move.PILE.FOUNDATION, to, top));
+                }
+            }
+        }
+        for (int from = 0; from < tableauPiles.length; from++) {
+            Tableau tableau = tableauPiles[from];
+            for (int cardIndex = tableau.getDownsideCount(); cardIndex < tableau.size(); cardIndex++) {
+                code = tableau.getCode(cardIndex);
+                for (int to = 0; to < tableauPiles.length; to++) {
+                    if (to != from && tableauPiles[to].accepts(code)) {
+                        buffer.add(Move.of(Move.PILE.TABLEAU, from, Move.PILE.TABLEAU, to, cardIndex));
+                    }
+                }
+            }
+        }
+        for (int from = 0; from < foundationPiles.length; from++) {
+            code = foundationPiles[from].getTopCode();
+            if (code < 0) {
+                continue;
+            }
+            for (int to = 0; to < tableauPiles.length; to++) {
+                if (tableauPiles[to].accepts(code)) {
+                    buffer.add(Move.of(Move.PILE.FOUNDATION, from, Move.PILE.TABLEAU, to, 0));
+                }
+            }
+            for (int to = 0; to < foundationPiles.length; to++) {
+                if (to != from && foundationPiles[to].accepts(code)) {
+                    buffer.add(Move.of(Move.PILE.FOUNDATION, from, Move.PILE.FOUNDATION, to, 0));
+                }
+            }
+        }
+        if (talon.size() > 0) {
+            buffer.add(Move.DRAW);
+        }
+        return buffer.size();
+    }
+
+    /**
+     * This method returns the moves which finish the game once every
+     * {@code Card} of the {@code Tableau} piles is <i>UPSIDE</i>. The moves
+     * are computed in one pass on a copy of the position: the top
+     * {@code Card} of a {@code Tableau} pile or the available {@code Card} of
+     * the {@code Talon} is moved to a {@code Foundation} pile while any of
+     * them fits, and the {@code Talon} is turned otherwise.
+     *
+     * @see hu.unideb.inf.klondike.model.Move
+     * @return the packed moves which finish the game, or null if there is a
+     * <i>DOWNSIDE</i> {@code Card} on a {@code Tableau} pile, or the
+     * {@code Talon} can not be cleared this way
+     */
+    public int[] autoCompletion() {
+        if (talon == null || isWon()) {
+            return null;
+        }
+        for (Tableau tableau : tableauPiles) {
+            if (tableau.getDownsideCount() > 0) {
+                return null;
+            }
+        }
+        Game copy = GameState.of(this).toGame();
+        MoveBuffer sequence = new MoveBuffer();
+        // The Talon returns to the same state after at most as many turns as
+        // it has cards, so turning it more often without progress is futile.
+        int turns = 0;
+        try {
+            while (!copy.isWon()) {
+                int move = copy.nextCompletionMove();
+                if (move == Move.DRAW) {
+                    if (++turns > copy.talon.size() + 1) {
+                        return null;
+                    }
+                    copy.nextTalon();
+                } else {
+                    turns = 0;
+                    if (Move.getFrom(move) == Move.PILE.TALON) {
+                        copy.moveFromTalonToFoundation(Move.getToIndex(move));
+                    } else {
+                        copy.moveFromTableauToFoundation(Move.getFromIndex(move), Move.getToIndex(move), Move.getCardIndex(move));
+                    }
+                }
+                sequence.add(move);
+            }
+        } catch (OffenseException ex) {
+            throw new IllegalStateException("The auto-completion has broken the rules!", ex);
+        }
+        int[] moves = new int[sequence.size()];
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = sequence.get(i);
+        }
+        return moves;
+    }
+
+    /**
+     * Returns the next move of the auto-completion: a move of a top card to a
+     * foundation, or a draw if none of them fits.
+     */
+    private int nextCompletionMove() {
+        int code = talon.getAvailableCode();
+        for (int to = 0; to < foundationPiles.length; to++) {
+            if (code >= 0 && foundationPiles[to].accepts(code)) {
+                return Move.of(Move.PILE.TALON, 0, Move.PILE.FOUNDATION, to, 0);
+            }
+        }
+        for (int from = 0; from < tableauPiles.length; from++) {
+            int top = tableauPiles[from].size() - 1;
+            if (top < 0) {
+                continue;
+            }
+            code = tableauPiles[from].getCode(top);
+            for (int to = 0; to < foundationPiles.length; to++) {
+                if (foundationPiles[to].accepts(code)) {
+                    return Move.of(Move.PILE.TABLEAU, from, Move.PILE.FOUNDATION, to, top);
+                }
             }
         }
+        return Move.DRAW;
     }
 
     /**
-     * This method starts a new game.
+     * This method finishes the game by performing the moves returned by the
+     * {@link hu.unideb.inf.klondike.model.Game#autoCompletion()} method as one
+     * batch. Every move is recorded to the history one by one, so they can be
+     * undone one by one, but the pile listeners are notified only once, with
+     * every pile changed by the batch.
+     *
+     * @return the number of performed moves, 0 if the game can not be
+     * finished this way
+     */
+    public int autoComplete() {
+        int[] sequence = autoCompletion();
+        if (sequence == null) {
+            return 0;
+        }
+        GameEngine engine = new GameEngine(this);
+        batching = true;
+        batchedPiles = 0;
+        try {
+            for (int move : sequence) {
+                engine.move(move);
+            }
+        } catch (OffenseException ex) {
+            throw new IllegalStateException("The auto-completion has broken the rules!", ex);
+        } finally {
+            batching = false;
+            firePilesChanged(batchedPiles);
+        }
+        logger.debug("The game has been auto-completed in {} moves.", sequence.length);
+        return sequence.length;
+    }
+
+    /**
+     * This method starts a new game with a random deal.
      */
     public void newGame() {
+        newGame(ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * This method starts the game dealt by the specified seed.
+     * <p>
+     * The seed is the number of the deal: the deck is shuffled by a
+     * {@code SplittableRandom} created from the seed alone, so the same seed
+     * deals the same game in every run and on every thread, and the deals of
+     * different seeds are independent. Therefore disjoint ranges of seeds are
+     * reproducible streams of deals, which can be dealt by parallel workers
+     * without sharing a random generator, and any worker can jump directly to
+     * any deal of its range.
+     *
+     * @param seed the seed of the deal
+     */
+    public void newGame(long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        this.seed = seed;
+        seeded = true;
         score = 0;
         moves = 0;
-        prevMovements = new ArrayList<>();
-        prevOps = new ArrayList<>();
+        journal = new Journal();
         List<Card> cards = new ArrayList<>();
         List<Card> cardsToTableau = new ArrayList<>();
         int cardPointer = 0;
         
-        for (Card.FOUNDATION foundation : Card.FOUNDATION.values()) {
-            for (Card.RANK rank : Card.RANK.values()) {
-                cards.add(new Card(foundation, rank));
-            }
+        for (int code = 0; code < Card.COUNT; code++) {
+            cards.add(Card.valueOf(code));
+        }
+        for (int i = cards.size() - 1; i > 0; i--) {
+            Collections.swap(cards, i, random.nextInt(i + 1));
         }
-        Collections.shuffle(cards);
         
         for (int i = 0; i < tableauPiles.length; i++) {
             for (int j = 0; j <= i; j++) {
@@ -398,13 +704,17 @@ public class Game {
         }
         
         talon = new Talon(cards.subList(cardPointer, cards.size()));
+        hash = computePositionHash();
+        firePilesChanged(PileListener.ALL);
+        fireReplaced();
         
-        logger.info("A new game started.");
+        logger.debug("A new game started.");
     }
 
     /**
      * This method loads the previously saved state of the game <b>from the
-     * user's home directory</b>.
+     * user's home directory</b>, or from the location given by the
+     * {@code klondike.save.file} system property.
      *
      * @throws IOException if an I/O error occurs
      * @throws FileNotFoundException if the file exists but is a directory
@@ -412,21 +722,35 @@ public class Game {
      * cannot be opened for any other reason
      */
     public void loadGame() throws IOException, FileNotFoundException {
-        Gson gson = new Gson();
-        Game controller = gson.fromJson(loadSaveFileContext(), Game.class);
-        tableauPiles = controller.getTableauPiles();
-        foundationPiles = controller.getFoundationPiles();
-        talon = controller.getTalon();
-        score = controller.getScore();
-        moves = controller.getMoves();
-        prevMovements = controller.getPrevMovements();
-        prevOps = controller.getPrevOps();
+        loadGame(readSaveFile(null));
+    }
+
+    /**
+     * This method continues the specified game, which has been read by the
+     * {@link hu.unideb.inf.klondike.model.SaveService}.
+     *
+     * @param saved the saved game to continue
+     */
+    public void loadGame(Game saved) {
+        tableauPiles = saved.getTableauPiles();
+        foundationPiles = saved.getFoundationPiles();
+        talon = saved.getTalon();
+        score = saved.getScore();
+        moves = saved.getMoves();
+        journal = saved.journal != null ? saved.journal : new Journal();
+        seed = saved.seed;
+        seeded = saved.seeded;
+        hash = computePositionHash();
+        firePilesChanged(PileListener.ALL);
+        fireReplaced();
         logger.info("Game loaded succesfully.");
     }
 
     /**
      * This method saves the actual state of the game <b>to the user's home
-     * directory</b>.
+     * directory</b>, or to the location given by the
+     * {@code klondike.save.file} system property. The former save is replaced
+     * only when the new one has been written completely.
      *
      * @throws IOException if an I/O error occurs
      * @throws FileNotFoundException if the file exists but is a directory
@@ -438,17 +762,24 @@ public class Game {
             logger.warn("To save, start a new game first!");
             return;
         }
-        String file_loc = (System.getProperty("user.home") + System.getProperty("file.separator") + "save.k");
-        FileOutputStream file_out = new FileOutputStream(file_loc);
-        try (Writer writer = new BufferedWriter(new OutputStreamWriter(file_out, "UTF-8"))) {
-            Gson gson = new GsonBuilder().create();
-            writer.write(encrypt(gson.toJson(this).toCharArray()));
-        }
-        if (!new File(file_loc).exists()) {
-            logger.error("Failed to save game data!");
-            throw new FileNotFoundException("file does not exists");
-        }
-        logger.info("Game saved to user's home directory succesfully.");
+        writeSaveFile(this, null);
+    }
+
+    /**
+     * This method returns an independent copy of the game with its score,
+     * number of moves and history. The listeners are not copied.
+     *
+     * @return an independent copy of the game
+     * @throws IllegalStateException if the game has not been started yet
+     */
+    public Game snapshot() throws IllegalStateException {
+        Game copy = GameState.of(this).toGame();
+        copy.score = score;
+        copy.moves = moves;
+        copy.journal = journal.copy();
+        copy.seed = seed;
+        copy.seeded = seeded;
+        return copy;
     }
 
     /**
@@ -456,96 +787,205 @@ public class Game {
      * previous state, it will not do anything.
      */
     public void undo() {
-        if (!prevOps.isEmpty()) {
-            if (prevOps.get(prevOps.size() - 1).equals('n')) {
-                talon.undo();
-            } else {
-                String from = prevMovements.get(prevMovements.size() - 1).getFrom();
-                String to = prevMovements.get(prevMovements.size() - 1).getTo();
-                int fromIndex = prevMovements.get(prevMovements.size() - 1).getFromIndex();
-                int toIndex = prevMovements.get(prevMovements.size() - 1).getToIndex();
-                if (from.equals(Tableau.class.getTypeName())) {
-                    tableauPiles[fromIndex].undo();
-                    if (to.equals(Tableau.class.getTypeName())) {
-                        tableauPiles[toIndex].undo();
+        if (journal.isEmpty()) {
+            logger.debug("The previous state of the game has not been restored: there is nothing to restore.");
+            return;
+        }
+        int entry = journal.pop();
+        int move = Journal.getMove(entry);
+        if (Move.isDraw(move)) {
+            hash ^= talonStateHash();
+            talon.setState(Journal.getPointer(entry), Journal.getAvailable(entry));
+            hash ^= talonStateHash();
+        } else {
+            undo(move, Journal.isTurned(entry));
+        }
+        score -= Journal.getScore(entry);
+        if (Journal.isCounted(entry)) {
+            moves--;
+        }
+        for (JournalListener listener : journalListeners) {
+            listener.popped();
+        }
+        firePilesChanged(PileListener.of(Move.getFrom(move), Move.getFromIndex(move)) | PileListener.of(Move.getTo(move), Move.getToIndex(move)));
+        logger.debug("The previous state of the game has been restored successfully.");
+    }
+
+    /**
+     * Moves the cards of the specified move back and restores the hash.
+     */
+    private void undo(int move, boolean turned) {
+        int fromIndex = Move.getFromIndex(move);
+        int toIndex = Move.getToIndex(move);
+        int count = Move.getCardIndex(move);
+        long before;
+        switch (Move.getFrom(move)) {
+            case TABLEAU:
+                Tableau from = tableauPiles[fromIndex];
+                int fromStart = from.size() - 1;
+                if (Move.getTo(move) == Move.PILE.TABLEAU) {
+                    int toStart = tableauPiles[toIndex].size() - count;
+                    before = tableauHash(fromIndex, fromStart) ^ tableauHash(toIndex, toStart);
+                    if (turned) {
+                        from.turnDown();
                     }
-                    if (to.equals(Foundation.class.getTypeName())) {
-                        foundationPiles[toIndex].undo();
+                    tableauPiles[toIndex].transfer(from, count);
+                    hash ^= before ^ tableauHash(fromIndex, fromStart) ^ tableauHash(toIndex, toStart);
+                } else {
+                    before = tableauHash(fromIndex, fromStart) ^ foundationHash(toIndex);
+                    if (turned) {
+                        from.turnDown();
                     }
+                    from.push(foundationPiles[toIndex].pop());
+                    hash ^= before ^ tableauHash(fromIndex, fromStart) ^ foundationHash(toIndex);
                 }
-                if (from.equals(Foundation.class.getTypeName())) {
-                    foundationPiles[fromIndex].undo();
-                    if (to.equals(Tableau.class.getTypeName())) {
-                        tableauPiles[toIndex].undo();
-                    }
-                    if (to.equals(Foundation.class.getTypeName())) {
-                        foundationPiles[toIndex].undo();
-                    }
+                break;
+            case FOUNDATION:
+                if (Move.getTo(move) == Move.PILE.TABLEAU) {
+                    int toStart = tableauPiles[toIndex].size() - 1;
+                    before = foundationHash(fromIndex) ^ tableauHash(toIndex, toStart);
+                    foundationPiles[fromIndex].push(tableauPiles[toIndex].pop());
+                    hash ^= before ^ foundationHash(fromIndex) ^ tableauHash(toIndex, toStart);
+                } else {
+                    before = foundationHash(fromIndex) ^ foundationHash(toIndex);
+                    foundationPiles[fromIndex].push(foundationPiles[toIndex].pop());
+                    hash ^= before ^ foundationHash(fromIndex) ^ foundationHash(toIndex);
                 }
-                if (from.equals(Talon.class.getTypeName())) {
-                    talon.undo();
-                    if (to.equals(Tableau.class.getTypeName())) {
-                        tableauPiles[toIndex].undo();
-                    }
-                    if (to.equals(Foundation.class.getTypeName())) {
-                        foundationPiles[toIndex].undo();
-                    }
+                break;
+            default:
+                if (Move.getTo(move) == Move.PILE.TABLEAU) {
+                    int toStart = tableauPiles[toIndex].size() - 1;
+                    before = talonStateHash() ^ tableauHash(toIndex, toStart);
+                    talon.insert(tableauPiles[toIndex].pop());
+                    hash ^= before ^ tableauHash(toIndex, toStart);
+                } else {
+                    before = talonStateHash() ^ foundationHash(toIndex);
+                    talon.insert(foundationPiles[toIndex].pop());
+                    hash ^= before ^ foundationHash(toIndex);
                 }
-                score = prevMovements.get(prevMovements.size() - 1).getScore();
-                prevMovements.remove(prevMovements.size() - 1);
-            }
-            moves--;
-            prevOps.remove(prevOps.size() - 1);
-            logger.info("The previous state of the game has been restored successfully.");
+                hash ^= talonStateHash() ^ talonLinkHash();
+                break;
         }
-        logger.info("The previous state of the game has not been restored: there is nothing to restore.");
     }
     
-    private Tableau[] getTableauPiles() {
-        return tableauPiles;
+    void restore(Tableau[] tableauPiles, Foundation[] foundationPiles, Talon talon) {
+        restore(tableauPiles, foundationPiles, talon, 0, 0, new Journal(), false, 0);
+    }
+
+    /**
+     * Sets the position, the score, the number of moves, the history of the
+     * game and the seed of its deal, if it is known.
+     */
+    void restore(Tableau[] tableauPiles, Foundation[] foundationPiles, Talon talon, int score, int moves, Journal journal, boolean seeded, long seed) {
+        this.tableauPiles = tableauPiles;
+        this.foundationPiles = foundationPiles;
+        this.talon = talon;
+        this.score = score;
+        this.moves = moves;
+        this.journal = journal;
+        this.seeded = seeded;
+        this.seed = seeded ? seed : 0;
+        hash = computePositionHash();
+        firePilesChanged(PileListener.ALL);
+        fireReplaced();
     }
     
-    private Foundation[] getFoundationPiles() {
-        return foundationPiles;
+    /**
+     * Computes the Zobrist hash of the actual position from scratch.
+     */
+    long computePositionHash() {
+        if (talon == null) {
+            return 0;
+        }
+        long h = talonStateHash();
+        for (int i = 0; i < tableauPiles.length; i++) {
+            h ^= tableauHash(i, 0);
+        }
+        for (int i = 0; i < foundationPiles.length; i++) {
+            h ^= foundationHash(i);
+        }
+        int prev = -1;
+        for (int i = 0; i < talon.size(); i++) {
+            h ^= Zobrist.talon(prev, talon.getCode(i));
+            prev = talon.getCode(i);
+        }
+        return h ^ Zobrist.talon(prev, -1);
     }
     
-    private Talon getTalon() {
-        return talon;
+    /**
+     * Returns the hash of the cards of the tableau pile from the given index.
+     */
+    private long tableauHash(int pileIndex, int start) {
+        Tableau tableau = tableauPiles[pileIndex];
+        int downside = tableau.getDownsideCount();
+        long h = 0;
+        for (int i = Math.max(start, 0); i < tableau.size(); i++) {
+            h ^= Zobrist.tableau(pileIndex, i, tableau.getCode(i), i < downside);
+        }
+        return h;
     }
     
-    private List<Movement> getPrevMovements() {
-        return prevMovements;
+    private long foundationHash(int pileIndex) {
+        return Zobrist.foundation(pileIndex, foundationPiles[pileIndex].getTopCode());
     }
     
-    private List<Character> getPrevOps() {
-        return prevOps;
+    private long talonStateHash() {
+        return Zobrist.talonState(talon.getPointer(), talon.getAvailable());
     }
     
-    private String loadSaveFileContext() throws IOException {
-        String file_loc = System.getProperty("user.home") + System.getProperty("file.separator") + "save.k";
-        if (!new File(file_loc).exists()) {
-            logger.warn("Failed to load game data!");
-            throw new FileNotFoundException("file does not exists");
-        }
-        
-        FileReader file = new FileReader(file_loc);
-        StringBuilder sb = new StringBuilder();
-        try (BufferedReader br = new BufferedReader(file)) {
-            int r;
-            while ((r = br.read()) != -1) {
-                sb.append((char) r);
-            }
+    /**
+     * Returns the hash which toggles the available card of the talon between
+     * its neighbours, or 0 if no card is available.
+     */
+    private long talonLinkHash() {
+        int index = talon.getPointer() + talon.getAvailable() - 1;
+        if (index < 0) {
+            return 0;
         }
-        return encrypt(sb.toString().toCharArray());
+        int code = talon.getCode(index);
+        int prev = index > 0 ? talon.getCode(index - 1) : -1;
+        int next = index + 1 < talon.size() ? talon.getCode(index + 1) : -1;
+        return Zobrist.talon(prev, code) ^ Zobrist.talon(code, next) ^ Zobrist.talon(prev, next);
+    }
+    
+    Tableau[] getTableauPiles() {
+        return tableauPiles;
+    }
+    
+    Foundation[] getFoundationPiles() {
+        return foundationPiles;
+    }
+    
+    Talon getTalon() {
+        return talon;
     }
     
-    private String encrypt(char[] bytefile) {
-        char[] key = {'K', 'L', 'O', 'N', 'D', 'I', 'K', 'E'};
-        char state[] = bytefile;
-        for (int i = 0; i < state.length; i++) {
-            state[i] = (char) (state[i] ^ key[i % key.length]);
+    Journal getJournal() {
+        return journal;
+    }
+    
+    /**
+     * Writes the game to the save file, reporting the written fraction of it
+     * to the progress consumer if it is not null.
+     */
+    static void writeSaveFile(Game game, DoubleConsumer progress) throws IOException {
+        SaveFile.write(SaveFile.location(), SaveFormat.encode(game), progress);
+        logger.info("Game saved to {} succesfully.", SaveFile.location());
+    }
+
+    /**
+     * Reads the game from the save file, reporting the read fraction of it to
+     * the progress consumer if it is not null.
+     */
+    static Game readSaveFile(DoubleConsumer progress) throws IOException {
+        byte[] content;
+        try {
+            content = SaveFile.read(SaveFile.location(), progress);
+        } catch (FileNotFoundException ex) {
+            logger.warn("Failed to load game data!");
+            throw ex;
         }
-        return String.valueOf(state);
+        return SaveFormat.decode(content);
     }
     
 }
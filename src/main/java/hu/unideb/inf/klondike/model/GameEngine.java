@@ -0,0 +1,333 @@
+/*
+ * Copyright 2017 Faculty of Informatics, Debrecen University, Hungary.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.klondike.model;
+
+import hu.unideb.inf.klondike.OffenseException;
+import hu.unideb.inf.klondike.component.Talon;
+
+/**
+ * This class drives a {@code Game} without any user interface. It can be used
+ * for simulations, bots and batch jobs running on machines without a display.
+ * <p>
+ * Every move is described by its source pile, target pile and the index of the
+ * grabbed card, either as a packed {@code int} built by
+ * {@link hu.unideb.inf.klondike.model.Move Move} or as separate arguments. The
+ * rules are the same as the ones enforced by the {@code Tableau},
+ * {@code Foundation} and {@code Talon} components, because every move is
+ * performed by the underlying {@code Game}.
+ *
+ * @see hu.unideb.inf.klondike.model.Game
+ * @see hu.unideb.inf.klondike.model.Move
+ */
+public class GameEngine {
+
+    private final Game game;
+
+    /**
+     * Constructor for creating a {@code GameEngine} with a new {@code Game}.
+     * To deal the cards, call the
+     * {@link hu.unideb.inf.klondike.model.GameEngine#newGame()} method.
+     */
+    public GameEngine() {
+        this(new Game());
+    }
+
+    /**
+     * Constructor for creating a {@code GameEngine} that drives the specified
+     * {@code Game}.
+     *
+     * @param game the {@code Game} to drive
+     */
+    public GameEngine(Game game) {
+        this.game = game;
+    }
+
+    /**
+     * This method returns the {@code Game} driven by the engine.
+     *
+     * @return the {@code Game} driven by the engine
+     */
+    public Game getGame() {
+        return game;
+    }
+
+    /**
+     * This method starts a new game.
+     */
+    public void newGame() {
+        game.newGame();
+    }
+
+    /**
+     * This method starts the game dealt by the specified seed.
+     *
+     * @see hu.unideb.inf.klondike.model.Game#newGame(long)
+     * @param seed the seed of the deal
+     */
+    public void newGame(long seed) {
+        game.newGame(seed);
+    }
+
+    /**
+     * This method performs the specified move.
+     *
+     * @see hu.unideb.inf.klondike.model.Move
+     * @param move the packed move to perform
+     * @throws OffenseException if the move can not be performed due to rule
+     * offense
+     */
+    public void move(int move) throws OffenseException {
+        if (Move.isDraw(move)) {
+            game.nextTalon();
+            return;
+        }
+        int fromIndex = Move.getFromIndex(move);
+        int toIndex = Move.getToIndex(move);
+        try {
+            switch (Move.getFrom(move)) {
+                case TABLEAU:
+                    switch (Move.getTo(move)) {
+                        case TABLEAU:
+                            game.moveFromTableauToTableau(fromIndex, toIndex, Move.getCardIndex(move));
+                            return;
+                        case FOUNDATION:
+                            game.moveFromTableauToFoundation(fromIndex, toIndex, Move.getCardIndex(move));
+                            return;
+                        default:
+                            break;
+                    }
+                    break;
+                case FOUNDATION:
+                    switch (Move.getTo(move)) {
+                        case TABLEAU:
+                            game.moveFromFoundationToTableau(fromIndex, toIndex);
+                            return;
+                        case FOUNDATION:
+                            game.moveFromFoundationToFoundation(fromIndex, toIndex);
+                            return;
+                        default:
+                            break;
+                    }
+                    break;
+                default:
+                    switch (Move.getTo(move)) {
+                        case TABLEAU:
+                            game.moveFromTalonToTableau(toIndex);
+                            return;
+                        case FOUNDATION:
+                            game.moveFromTalonToFoundation(toIndex);
+                            return;
+                        default:
+                            break;
+                    }
+                    break;
+            }
+        } catch (IndexOutOfBoundsException ex) {
+            throw new OffenseException("There is no card at the given index!", ex);
+        }
+        throw new OffenseException("Cards can not be moved to the talon!");
+    }
+
+    /**
+     * This method moves the grabbed card(s) from the specified source pile to
+     * the specified target pile.
+     *
+     * @param from the type of the source pile
+     * @param fromIndex index of the source pile
+     * @param to the type of the target pile
+     * @param toIndex index of the target pile
+     * @param cardIndex index of the grabbed card on the source pile, only used
+     * when the source is a {@code Tableau} pile
+     * @throws OffenseException if the move can not be performed due to rule
+     * offense
+     */
+    public void move(Move.PILE from, int fromIndex, Move.PILE to, int toIndex, int cardIndex) throws OffenseException {
+        move(Move.of(from, fromIndex, to, toIndex, cardIndex));
+    }
+
+    /**
+     * This method fills the specified buffer with every legal move of the
+     * actual position.
+     *
+     * @see hu.unideb.inf.klondike.model.Game#legalMoves(MoveBuffer)
+     * @param buffer the buffer to fill
+     * @return the number of legal moves
+     */
+    public int legalMoves(MoveBuffer buffer) {
+        return game.legalMoves(buffer);
+    }
+
+    /**
+     * This method moves the {@code Talon} to the next state.
+     *
+     * @see hu.unideb.inf.klondike.model.Game#nextTalon()
+     */
+    public void draw() {
+        game.nextTalon();
+    }
+
+    /**
+     * This method finishes the game by moving every card to the
+     * {@code Foundation} piles as one batch, once every card of the
+     * {@code Tableau} piles is <i>UPSIDE</i>.
+     *
+     * @see hu.unideb.inf.klondike.model.Game#autoComplete()
+     * @return the number of performed moves, 0 if the game can not be
+     * finished this way
+     */
+    public int autoComplete() {
+        return game.autoComplete();
+    }
+
+    /**
+     * This method restores the game to the previous state. If there is no
+     * previous state, it will not do anything.
+     */
+    public void undo() {
+        game.undo();
+    }
+
+    /**
+     * This method returns true if the cards have been dealt.
+     *
+     * @return true if the cards have been dealt
+     */
+    public boolean isStarted() {
+        return game.getTalon() != null;
+    }
+
+    /**
+     * This method returns the number of {@code Card} objects stored on the
+     * specified {@code Tableau} pile.
+     *
+     * @param pileIndex index of the {@code Tableau} pile
+     * @return the number of {@code Card} objects stored on the pile
+     */
+    public int getTableauSize(int pileIndex) {
+        return game.getTableauPiles()[pileIndex].size();
+    }
+
+    /**
+     * This method returns the code of the {@code Card} at the specified index
+     * of the specified {@code Tableau} pile.
+     *
+     * @see hu.unideb.inf.klondike.component.Card#getCode()
+     * @param pileIndex index of the {@code Tableau} pile
+     * @param cardIndex index of the {@code Card}
+     * @return the code of the {@code Card}
+     * @throws IndexOutOfBoundsException if the card index is out of range
+     */
+    public int getTableauCode(int pileIndex, int cardIndex) throws IndexOutOfBoundsException {
+        return game.getTableauPiles()[pileIndex].getCode(cardIndex);
+    }
+
+    /**
+     * This method returns the number of <i>DOWNSIDE</i> {@code Card} objects
+     * on the specified {@code Tableau} pile.
+     *
+     * @param pileIndex index of the {@code Tableau} pile
+     * @return the number of <i>DOWNSIDE</i> {@code Card} objects
+     */
+    public int getDownsideCount(int pileIndex) {
+        return game.getTableauPiles()[pileIndex].getDownsideCount();
+    }
+
+    /**
+     * This method returns the code of the top {@code Card} of the specified
+     * {@code Foundation} pile, or -1 if it is empty.
+     *
+     * @param pileIndex index of the {@code Foundation} pile
+     * @return the code of the top {@code Card}, or -1 if the pile is empty
+     */
+    public int getFoundationCode(int pileIndex) {
+        return game.getFoundationPiles()[pileIndex].getTopCode();
+    }
+
+    /**
+     * This method returns the code of the available {@code Card} on the
+     * {@code Talon}, or -1 if there is no available one.
+     *
+     * @return the code of the available {@code Card}, or -1 if there is none
+     */
+    public int getTalonCode() {
+        return game.getTalon().getAvailableCode();
+    }
+
+    /**
+     * This method returns the number of visible {@code Card} objects on the
+     * {@code Talon}.
+     *
+     * @return the number of visible {@code Card} objects
+     */
+    public int getTalonVisibleCount() {
+        return game.getTalon().getAvailable();
+    }
+
+    /**
+     * This method returns the code of the visible {@code Card} at the
+     * specified index on the {@code Talon}, the last visible one is the
+     * available {@code Card}.
+     *
+     * @param index index of the visible {@code Card}
+     * @return the code of the visible {@code Card}
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public int getTalonVisibleCode(int index) throws IndexOutOfBoundsException {
+        Talon talon = game.getTalon();
+        if (index < 0 || index >= talon.getAvailable()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Visible: " + talon.getAvailable());
+        }
+        return talon.getCode(talon.getPointer() + index);
+    }
+
+    /**
+     * This method returns the collected score.
+     *
+     * @return the collected score
+     */
+    public int getScore() {
+        return game.getScore();
+    }
+
+    /**
+     * This method returns the number of steps in the game.
+     *
+     * @return the number of steps in the game
+     */
+    public int getMoves() {
+        return game.getMoves();
+    }
+
+    /**
+     * This method returns true if the game is won.
+     *
+     * @return true if the game is won
+     */
+    public boolean isWon() {
+        return game.isWon();
+    }
+
+    /**
+     * This method returns the 64-bit Zobrist hash of the actual position.
+     *
+     * @see hu.unideb.inf.klondike.model.Game#positionHash()
+     * @return the hash of the actual position
+     */
+    public long positionHash() {
+        return game.positionHash();
+    }
+
+}
@@ -0,0 +1,477 @@
+/*
+ * Copyright 2017 Faculty of Informatics, Debrecen University, Hungary.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.klondike.model;
+
+import hu.unideb.inf.klondike.OffenseException;
+import hu.unideb.inf.klondike.OffenseWhileAddingException;
+import hu.unideb.inf.klondike.component.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class represents an immutable snapshot of the position of a
+ * {@code Game}, packed into seven {@code long} values.
+ * <p>
+ * The snapshot contains the position only: the cards of every pile, the number
+ * of <i>DOWNSIDE</i> cards on each {@code Tableau} pile and the pointer and the
+ * number of available cards of the {@code Talon}. The score, the number of
+ * moves and the history of the game are not part of it, so two snapshots are
+ * equal if and only if they describe the same position.
+ * <p>
+ * The bit layout is the following (from the lowest bit of the first
+ * {@code long}):
+ * <ul>
+ * <li> the number of <i>DOWNSIDE</i> cards of the seven {@code Tableau} piles
+ *      (5 bits each);
+ * <li> the code of the top card of the four {@code Foundation} piles (6 bits
+ *      each, 63 if the pile is empty);
+ * <li> the pointer (6 bits) and the number of available cards (2 bits) of the
+ *      {@code Talon}; and
+ * <li> the codes of the cards of the seven {@code Tableau} piles and the
+ *      {@code Talon} from bottom to top (6 bits each), every pile closed by the
+ *      value 63.
+ * </ul>
+ * The cards of the {@code Foundation} piles are not stored one by one, because
+ * they are determined by the top card.
+ *
+ * @see hu.unideb.inf.klondike.model.Game
+ * @see hu.unideb.inf.klondike.model.Move
+ */
+public final class GameState {
+
+    private static final int WORDS = 7;
+    private static final int TABLEAUS = 7;
+    private static final int FOUNDATIONS = 4;
+    private static final int DOWNSIDE_BITS = 5;
+    private static final int CODE_BITS = 6;
+    private static final int POINTER_BITS = 6;
+    private static final int AVAILABLE_BITS = 2;
+    private static final int NONE = (1 << CODE_BITS) - 1;
+
+    private final long[] words;
+    private final long hash;
+
+    private GameState(long[] words) {
+        this.words = words;
+        long h = 0;
+        for (long word : words) {
+            h = (h ^ word) * 0x9E3779B97F4A7C15L;
+            h ^= h >>> 29;
+        }
+        this.hash = h;
+    }
+
+    /**
+     * This method returns the snapshot of the actual position of the specified
+     * {@code Game}.
+     *
+     * @param game the {@code Game} to take the snapshot of
+     * @return the snapshot of the actual position of the {@code Game}
+     * @throws IllegalStateException if the game has not been started yet
+     */
+    public static GameState of(Game game) throws IllegalStateException {
+        if (game.getTalon() == null) {
+            throw new IllegalStateException("The game has not been started yet!");
+        }
+        return new GameState(Layout.of(game).encode());
+    }
+
+    /**
+     * This method returns the snapshot stored in the specified array, which
+     * must have been returned by the
+     * {@link hu.unideb.inf.klondike.model.GameState#toLongArray()} method.
+     *
+     * @param words the packed snapshot
+     * @return the snapshot stored in the specified array
+     * @throws IllegalArgumentException if the length of the array is invalid
+     */
+    public static GameState valueOf(long[] words) throws IllegalArgumentException {
+        if (words.length != WORDS) {
+            throw new IllegalArgumentException("A game state consists of " + WORDS + " longs!");
+        }
+        return new GameState(words.clone());
+    }
+
+    /**
+     * This method returns the packed representation of the snapshot.
+     *
+     * @return the packed representation of the snapshot
+     */
+    public long[] toLongArray() {
+        return words.clone();
+    }
+
+    /**
+     * This method returns a new {@code Game} which is in the position of the
+     * snapshot. The score, the number of moves and the history of the returned
+     * game are empty.
+     *
+     * @return a new {@code Game} in the position of the snapshot
+     */
+    public Game toGame() {
+        return Layout.decode(words).toGame();
+    }
+
+    /**
+     * This method returns the snapshot of the position after performing the
+     * specified move. The move must follow the same rules as the moves of the
+     * {@code Game}.
+     *
+     * @see hu.unideb.inf.klondike.model.Move
+     * @param move the packed move to perform
+     * @return the snapshot of the position after performing the move
+     * @throws OffenseException if the move can not be performed due to rule
+     * offense
+     */
+    public GameState apply(int move) throws OffenseException {
+        Layout layout = Layout.decode(words);
+        if (!layout.apply(move)) {
+            return this;
+        }
+        return new GameState(layout.encode());
+    }
+
+    /**
+     * This method returns true if the position is won, that is all the cards
+     * are on the {@code Foundation} piles.
+     *
+     * @return true if the position is won
+     */
+    public boolean isWon() {
+        for (int i = 0; i < FOUNDATIONS; i++) {
+            int top = get(words, TABLEAUS * DOWNSIDE_BITS + i * CODE_BITS, CODE_BITS);
+            if (top == NONE || Card.rankOf(top) != Card.RANK.KING.ordinal()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compares this snapshot to the specified object. The result is
+     * {@code true} if the given object is a {@code GameState} which describes
+     * the same position.
+     *
+     * @param obj the object to compare with
+     * @return {@code true} if the given object describes the same position
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj instanceof GameState) {
+            return hash == ((GameState) obj).hash && Arrays.equals(words, ((GameState) obj).words);
+        }
+        return false;
+    }
+
+    /**
+     * Returns a hash code value for the snapshot.
+     *
+     * @return a hash code value for the snapshot
+     */
+    @Override
+    public int hashCode() {
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    /**
+     * Returns a 64-bit hash code value for the snapshot, which is suitable as
+     * a key of large hash tables.
+     *
+     * @return a 64-bit hash code value for the snapshot
+     */
+    public long longHashCode() {
+        return hash;
+    }
+
+    /**
+     * Returns a {@code String} representation of the snapshot, listing the
+     * codes of the cards on each pile.
+     *
+     * @return a {@code String} representation of the snapshot
+     */
+    @Override
+    public String toString() {
+        Layout layout = Layout.decode(words);
+        StringBuilder sb = new StringBuilder("GameState[");
+        for (int i = 0; i < TABLEAUS; i++) {
+            sb.append(" T").append(i).append('=').append(layout.downside[i]).append(':')
+                    .append(Arrays.toString(Arrays.copyOf(layout.tableau[i], layout.tableauSize[i])));
+        }
+        sb.append(" F=").append(Arrays.toString(layout.foundation));
+        sb.append(" S=").append(layout.pointer).append('+').append(layout.available).append(':')
+                .append(Arrays.toString(Arrays.copyOf(layout.talon, layout.talonSize)));
+        return sb.append(" ]").toString();
+    }
+
+    private static int get(long[] words, int pos, int bits) {
+        int word = pos >>> 6;
+        int offset = pos & 63;
+        long value = words[word] >>> offset;
+        if (offset + bits > 64) {
+            value |= words[word + 1] << (64 - offset);
+        }
+        return (int) (value & ((1L << bits) - 1));
+    }
+
+    private static void put(long[] words, int pos, int bits, int value) {
+        int word = pos >>> 6;
+        int offset = pos & 63;
+        words[word] |= (long) value << offset;
+        if (offset + bits > 64) {
+            words[word + 1] |= (long) value >>> (64 - offset);
+        }
+    }
+
+    /**
+     * Mutable, unpacked form of a position used while moving.
+     */
+    private static final class Layout {
+
+        final byte[][] tableau = new byte[TABLEAUS][Card.COUNT];
+        final int[] tableauSize = new int[TABLEAUS];
+        final int[] downside = new int[TABLEAUS];
+        final int[] foundation = new int[FOUNDATIONS];
+        final byte[] talon = new byte[Card.COUNT];
+        int talonSize;
+        int pointer;
+        int available;
+
+        static Layout of(Game game) {
+            Layout layout = new Layout();
+            Tableau[] tableauPiles = game.getTableauPiles();
+            for (int i = 0; i < TABLEAUS; i++) {
+                layout.tableauSize[i] = tableauPiles[i].size();
+                layout.downside[i] = tableauPiles[i].getDownsideCount();
+                for (int j = 0; j < layout.tableauSize[i]; j++) {
+                    layout.tableau[i][j] = (byte) tableauPiles[i].getCode(j);
+                }
+            }
+            Foundation[] foundationPiles = game.getFoundationPiles();
+            for (int i = 0; i < FOUNDATIONS; i++) {
+                layout.foundation[i] = foundationPiles[i].getTopCode();
+            }
+            Talon talon = game.getTalon();
+            layout.talonSize = talon.size();
+            for (int i = 0; i < layout.talonSize; i++) {
+                layout.talon[i] = (byte) talon.getCode(i);
+            }
+            layout.pointer = talon.getPointer();
+            layout.available = talon.getAvailable();
+            return layout;
+        }
+
+        static Layout decode(long[] words) {
+            Layout layout = new Layout();
+            int pos = 0;
+            for (int i = 0; i < TABLEAUS; i++, pos += DOWNSIDE_BITS) {
+                layout.downside[i] = get(words, pos, DOWNSIDE_BITS);
+            }
+            for (int i = 0; i < FOUNDATIONS; i++, pos += CODE_BITS) {
+                int top = get(words, pos, CODE_BITS);
+                layout.foundation[i] = top == NONE ? -1 : top;
+            }
+            layout.pointer = get(words, pos, POINTER_BITS);
+            pos += POINTER_BITS;
+            layout.available = get(words, pos, AVAILABLE_BITS);
+            pos += AVAILABLE_BITS;
+            for (int i = 0; i < TABLEAUS; i++) {
+                int code;
+                while ((code = get(words, pos, CODE_BITS)) != NONE) {
+                    layout.tableau[i][layout.tableauSize[i]++] = (byte) code;
+                    pos += CODE_BITS;
+                }
+                pos += CODE_BITS;
+            }
+            int code;
+            while ((code = get(words, pos, CODE_BITS)) != NONE) {
+                layout.talon[layout.talonSize++] = (byte) code;
+                pos += CODE_BITS;
+            }
+            return layout;
+        }
+
+        long[] encode() {
+            long[] words = new long[WORDS];
+            int pos = 0;
+            for (int i = 0; i < TABLEAUS; i++, pos += DOWNSIDE_BITS) {
+                put(words, pos, DOWNSIDE_BITS, downside[i]);
+            }
+            for (int i = 0; i < FOUNDATIONS; i++, pos += CODE_BITS) {
+                put(words, pos, CODE_BITS, foundation[i] < 0 ? NONE : foundation[i]);
+            }
+            put(words, pos, POINTER_BITS, pointer);
+            pos += POINTER_BITS;
+            put(words, pos, AVAILABLE_BITS, available);
+            pos += AVAILABLE_BITS;
+            for (int i = 0; i < TABLEAUS; i++) {
+                for (int j = 0; j < tableauSize[i]; j++, pos += CODE_BITS) {
+                    put(words, pos, CODE_BITS, tableau[i][j]);
+                }
+                put(words, pos, CODE_BITS, NONE);
+                pos += CODE_BITS;
+            }
+            for (int i = 0; i < talonSize; i++, pos += CODE_BITS) {
+                put(words, pos, CODE_BITS, talon[i]);
+            }
+            put(words, pos, CODE_BITS, NONE);
+            return words;
+        }
+
+        Game toGame() {
+            Tableau[] tableauPiles = new Tableau[TABLEAUS];
+            for (int i = 0; i < TABLEAUS; i++) {
+                tableauPiles[i] = new Tableau(cards(tableau[i], tableauSize[i]), downside[i]);
+            }
+            Foundation[] foundationPiles = new Foundation[FOUNDATIONS];
+            for (int i = 0; i < FOUNDATIONS; i++) {
+                List<Card> cards = new ArrayList<>();
+                if (foundation[i] >= 0) {
+                    int first = foundation[i] - Card.rankOf(foundation[i]);
+                    for (int code = first; code <= foundation[i]; code++) {
+                        cards.add(Card.valueOf(code));
+                    }
+                }
+                foundationPiles[i] = new Foundation(cards);
+            }
+            Game game = new Game();
+            game.restore(tableauPiles, foundationPiles, new Talon(cards(talon, talonSize), pointer, available));
+            return game;
+        }
+
+        /**
+         * Performs the move, returns false if the position did not change.
+         */
+        boolean apply(int move) throws OffenseException {
+            if (Move.isDraw(move)) {
+                int state = Talon.nextState(talonSize, pointer, available);
+                pointer = state >>> 2;
+                available = state & 0x3;
+                return true;
+            }
+            int fromIndex = Move.getFromIndex(move);
+            int toIndex = Move.getToIndex(move);
+            int code;
+            switch (Move.getFrom(move)) {
+                case TABLEAU: {
+                    int cardIndex = Move.getCardIndex(move);
+                    if (Move.getTo(move) == Move.PILE.TABLEAU && fromIndex == toIndex) {
+                        return false;
+                    }
+                    if (cardIndex >= tableauSize[fromIndex]) {
+                        throw new OffenseException("There is no card at the given index!");
+                    }
+                    if (cardIndex < downside[fromIndex]) {
+                        throw new OffenseException("Card state is downside!");
+                    }
+                    code = tableau[fromIndex][cardIndex];
+                    if (Move.getTo(move) == Move.PILE.TABLEAU) {
+                        checkTableau(toIndex, code);
+                        for (int i = cardIndex; i < tableauSize[fromIndex]; i++) {
+                            tableau[toIndex][tableauSize[toIndex]++] = tableau[fromIndex][i];
+                        }
+                    } else if (Move.getTo(move) == Move.PILE.FOUNDATION) {
+                        if (cardIndex != tableauSize[fromIndex] - 1) {
+                            throw new OffenseWhileAddingException("Only one card can be added!");
+                        }
+                        checkFoundation(toIndex, code);
+                        foundation[toIndex] = code;
+                    } else {
+                        throw new OffenseException("Cards can not be moved to the talon!");
+                    }
+                    tableauSize[fromIndex] = cardIndex;
+                    if (cardIndex > 0 && downside[fromIndex] == cardIndex) {
+                        downside[fromIndex]--;
+                    }
+                    return true;
+                }
+                case FOUNDATION: {
+                    if (Move.getTo(move) == Move.PILE.FOUNDATION && fromIndex == toIndex) {
+                        return false;
+                    }
+                    code = foundation[fromIndex];
+                    if (code < 0) {
+                        throw new OffenseException("The foundation is empty!");
+                    }
+                    drop(move, code);
+                    foundation[fromIndex] = Card.rankOf(code) == Card.RANK.ACE.ordinal() ? -1 : code - 1;
+                    return true;
+                }
+                default: {
+                    if (available == 0) {
+                        throw new OffenseException("There is no available card on the talon!");
+                    }
+                    int index = pointer + available - 1;
+                    code = talon[index];
+                    drop(move, code);
+                    System.arraycopy(talon, index + 1, talon, index, talonSize - index - 1);
+                    talonSize--;
+                    available--;
+                    return true;
+                }
+            }
+        }
+
+        private void drop(int move, int code) throws OffenseException {
+            int toIndex = Move.getToIndex(move);
+            switch (Move.getTo(move)) {
+                case TABLEAU:
+                    checkTableau(toIndex, code);
+                    tableau[toIndex][tableauSize[toIndex]++] = (byte) code;
+                    break;
+                case FOUNDATION:
+                    checkFoundation(toIndex, code);
+                    foundation[toIndex] = code;
+                    break;
+                default:
+                    throw new OffenseException("Cards can not be moved to the talon!");
+            }
+        }
+
+        private void checkTableau(int index, int code) throws OffenseWhileAddingException {
+            if (tableauSize[index] == 0) {
+                if (Card.rankOf(code) != Card.RANK.KING.ordinal()) {
+                    throw new OffenseWhileAddingException(Card.valueOf(code) + " is not a King!");
+                }
+            } else if (!Card.canStackOn(code, tableau[index][tableauSize[index] - 1])) {
+                throw new OffenseWhileAddingException("The given card has too low/high rank or same color!");
+            }
+        }
+
+        private void checkFoundation(int index, int code) throws OffenseWhileAddingException {
+            if (foundation[index] < 0) {
+                if (Card.rankOf(code) != Card.RANK.ACE.ordinal()) {
+                    throw new OffenseWhileAddingException("The first card of the foundation must be an Ace one!");
+                }
+            } else if (!Card.canBuildOn(code, foundation[index])) {
+                throw new OffenseWhileAddingException("The given card has too low/high rank or different color!");
+            }
+        }
+
+        private static List<Card> cards(byte[] codes, int size) {
+            List<Card> cards = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                cards.add(Card.valueOf(codes[i]));
+            }
+            return cards;
+        }
+
+    }
+
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2017 Faculty of Informatics, Debrecen University, Hungary.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.klondike.model;
+
+import java.util.Arrays;
+
+/**
+ * This class is the undo history of a {@code Game}: a growable stack of
+ * {@code int} entries, one for every recorded step. An entry is packed into
+ * bits from the lowest one:
+ * <ul>
+ * <li> the performed {@link hu.unideb.inf.klondike.model.Move move}, 15 bits,
+ *      the card index field of which holds the number of moved {@code Card}
+ *      objects;
+ * <li> whether a {@code Card} of the source {@code Tableau} pile has been
+ *      turned <i>UPSIDE</i>, 1 bit;
+ * <li> whether the step has been counted as a move, 1 bit;
+ * <li> the change of the score, offset by 16, 5 bits; and
+ * <li> for turning the {@code Talon}, its previous pointer and number of
+ *      available {@code Card} objects, 5 and 2 bits.
+ * </ul>
+ */
+final class Journal {
+
+    private static final int TURNED = 1 << 15;
+    private static final int COUNTED = 1 << 16;
+    private static final int SCORE_SHIFT = 17;
+    private static final int SCORE_OFFSET = 16;
+    private static final int POINTER_SHIFT = 22;
+    private static final int AVAILABLE_SHIFT = 27;
+
+    private int[] entries;
+    private int size;
+
+    /**
+     * Constructor for creating an empty {@code Journal}.
+     */
+    Journal() {
+        entries = new int[64];
+        size = 0;
+    }
+
+    /**
+     * This method packs an entry of a move.
+     *
+     * @param move the packed move, with the number of moved {@code Card}
+     * objects in the card index field
+     * @param turned true if a {@code Card} of the source pile has been turned
+     * <i>UPSIDE</i>
+     * @param counted true if the step has been counted as a move
+     * @param score the change of the score, between -16 and 15
+     * @return the packed entry
+     */
+    static int entry(int move, boolean turned, boolean counted, int score) {
+        return move | (turned ? TURNED : 0) | (counted ? COUNTED : 0) | (score + SCORE_OFFSET) << SCORE_SHIFT;
+    }
+
+    /**
+     * This method packs an entry of turning the {@code Talon}.
+     *
+     * @param pointer the previous pointer of the {@code Talon}
+     * @param available the previous number of available {@code Card} objects
+     * @param counted true if the step has been counted as a move
+     * @return the packed entry
+     */
+    static int draw(int pointer, int available, boolean counted) {
+        return entry(Move.DRAW, false, counted, 0) | pointer << POINTER_SHIFT | available << AVAILABLE_SHIFT;
+    }
+
+    static int getMove(int entry) {
+        return entry & (TURNED - 1);
+    }
+
+    static boolean isTurned(int entry) {
+        return (entry & TURNED) != 0;
+    }
+
+    static boolean isCounted(int entry) {
+        return (entry & COUNTED) != 0;
+    }
+
+    static int getScore(int entry) {
+        return (entry >>> SCORE_SHIFT & 0x1F) - SCORE_OFFSET;
+    }
+
+    static int getPointer(int entry) {
+        return entry >>> POINTER_SHIFT & 0x1F;
+    }
+
+    static int getAvailable(int entry) {
+        return entry >>> AVAILABLE_SHIFT & 0x3;
+    }
+
+    /**
+     * This method pushes the specified entry.
+     *
+     * @param entry the packed entry
+     */
+    void push(int entry) {
+        if (size == entries.length) {
+            entries = Arrays.copyOf(entries, size * 2);
+        }
+        entries[size++] = entry;
+    }
+
+    /**
+     * This method removes and returns the last entry.
+     *
+     * @return the last entry
+     */
+    int pop() {
+        return entries[--size];
+    }
+
+    /**
+     * This method returns the entry at the specified index, the first pushed
+     * entry has index 0.
+     *
+     * @param index index of the entry
+     * @return the entry at the specified index
+     */
+    int get(int index) {
+        return entries[index];
+    }
+
+    /**
+     * This method returns the number of entries.
+     *
+     * @return the number of entries
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * This method returns true if there is no entry.
+     *
+     * @return true if there is no entry
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * This method returns a copy of the journal.
+     *
+     * @return a copy of the journal
+     */
+    Journal copy() {
+        Journal copy = new Journal();
+        copy.entries = Arrays.copyOf(entries, Math.max(size, 16));
+        copy.size = size;
+        return copy;
+    }
+
+    /**
+     * This method removes all the entries.
+     */
+    void clear() {
+        size = 0;
+    }
+
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2017 Faculty of Informatics, Debrecen University, Hungary.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.klondike.model;
+
+/**
+ * The listener interface for receiving the changes of the history of a
+ * {@code Game}: every recorded step, every undone step, and the replacement
+ * of the whole game.
+ *
+ * @see hu.unideb.inf.klondike.model.Journal
+ */
+interface JournalListener {
+
+    /**
+     * Invoked when a step has been recorded.
+     *
+     * @param entry the packed entry of the step
+     */
+    void pushed(int entry);
+
+    /**
+     * Invoked when the last step has been undone.
+     */
+    void popped();
+
+    /**
+     * Invoked when the whole game has been replaced: a new game has been
+     * started or a game has been loaded.
+     */
+    void replaced();
+
+}
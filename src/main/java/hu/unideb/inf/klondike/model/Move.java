@@ -0,0 +1,182 @@
+/*
+ * Copyright 2017 Faculty of Informatics, Debrecen University, Hungary.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.klondike.model;
+
+/**
+ * This class provides the packed {@code int} representation of a move that is
+ * used by the {@link hu.unideb.inf.klondike.model.GameEngine GameEngine}.
+ * <p>
+ * A move consists of the following parts:
+ * <ul>
+ * <li> the {@link hu.unideb.inf.klondike.model.Move.PILE Pile} type and index
+ *      of the source pile;
+ * <li> the {@link hu.unideb.inf.klondike.model.Move.PILE Pile} type and index
+ *      of the target pile; and
+ * <li> the index of the grabbed card, which is only used when the source is a
+ *      {@code Tableau} pile.
+ * </ul>
+ * <p>
+ * Turning the {@code Talon} to its next state is represented by the
+ * {@link hu.unideb.inf.klondike.model.Move#DRAW DRAW} move, whose source and
+ * target are both the {@code Talon}.
+ * <p>
+ * The bit layout is the following (from the lowest bit): source pile type (2
+ * bits), source index (3 bits), target pile type (2 bits), target index (3
+ * bits) and card index (5 bits). The encoding is part of the public API and
+ * will not change.
+ */
+public final class Move {
+
+    /**
+     * Enum for representing the type of a pile.
+     */
+    public static enum PILE {
+        /**
+         * One of the seven {@code Tableau} piles.
+         */
+        TABLEAU,
+        /**
+         * One of the four {@code Foundation} piles.
+         */
+        FOUNDATION,
+        /**
+         * The {@code Talon}.
+         */
+        TALON
+    }
+
+    private static final PILE[] PILES = PILE.values();
+
+    /**
+     * The move that turns the {@code Talon} to its next state.
+     */
+    public static final int DRAW = of(PILE.TALON, 0, PILE.TALON, 0, 0);
+
+    private Move() {
+    }
+
+    /**
+     * This method returns the packed representation of the specified move.
+     *
+     * @param from the type of the source pile
+     * @param fromIndex index of the source pile
+     * @param to the type of the target pile
+     * @param toIndex index of the target pile
+     * @param cardIndex index of the grabbed card on the source pile
+     * @return the packed representation of the specified move
+     */
+    public static int of(PILE from, int fromIndex, PILE to, int toIndex, int cardIndex) {
+        return from.ordinal()
+                | (fromIndex & 0x7) << 2
+                | to.ordinal() << 5
+                | (toIndex & 0x7) << 7
+                | (cardIndex & 0x1F) << 10;
+    }
+
+    /**
+     * This method returns the type of the source pile of the specified move.
+     *
+     * @param move the packed move
+     * @return the type of the source pile
+     */
+    public static PILE getFrom(int move) {
+        return PILES[move & 0x3];
+    }
+
+    /**
+     * This method returns the index of the source pile of the specified move.
+     *
+     * @param move the packed move
+     * @return the index of the source pile
+     */
+    public static int getFromIndex(int move) {
+        return (move >>> 2) & 0x7;
+    }
+
+    /**
+     * This method returns the type of the target pile of the specified move.
+     *
+     * @param move the packed move
+     * @return the type of the target pile
+     */
+    public static PILE getTo(int move) {
+        return PILES[(move >>> 5) & 0x3];
+    }
+
+    /**
+     * This method returns the index of the target pile of the specified move.
+     *
+     * @param move the packed move
+     * @return the index of the target pile
+     */
+    public static int getToIndex(int move) {
+        return (move >>> 7) & 0x7;
+    }
+
+    /**
+     * This method returns the index of the grabbed card of the specified move.
+     *
+     * @param move the packed move
+     * @return the index of the grabbed card
+     */
+    public static int getCardIndex(int move) {
+        return (move >>> 10) & 0x1F;
+    }
+
+    /**
+     * This method returns {@code true} if the specified move turns the
+     * {@code Talon} to its next state.
+     *
+     * @param move the packed move
+     * @return {@code true} if the specified move is a
+     * {@link hu.unideb.inf.klondike.model.Move#DRAW DRAW}
+     */
+    public static boolean isDraw(int move) {
+        return move == DRAW;
+    }
+
+    /**
+     * This method returns {@code true} if both pile types of the specified
+     * packed move are valid. The two bits of a pile type can also hold a value
+     * without a {@code PILE}, which the other methods do not accept.
+     *
+     * @param move the packed move
+     * @return {@code true} if the source and the target pile types are valid
+     */
+    public static boolean isValid(int move) {
+        return (move & 0x3) < PILES.length && ((move >>> 5) & 0x3) < PILES.length;
+    }
+
+    /**
+     * Returns a {@code String} representation of the specified move.
+     * <br>
+     * For example: "TABLEAU[2]@5 -&gt; FOUNDATION[0]", "DRAW".
+     *
+     * @param move the packed move
+     * @return a {@code String} representation of the specified move
+     */
+    public static String toString(int move) {
+        if (isDraw(move)) {
+            return "DRAW";
+        }
+        StringBuilder sb = new StringBuilder().append(getFrom(move)).append('[').append(getFromIndex(move)).append(']');
+        if (getFrom(move) == PILE.TABLEAU) {
+            sb.append('@').append(getCardIndex(move));
+        }
+        return sb.append(" -> ").append(getTo(move)).append('[').append(getToIndex(move)).append(']').toString();
+    }
+
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2017 Faculty of Informatics, Debrecen University, Hungary.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.klondike.model;
+
+import java.util.Arrays;
+
+/**
+ * This class is a reusable buffer of packed moves. It is filled by the
+ * {@link hu.unideb.inf.klondike.model.Game#legalMoves(MoveBuffer)} method and
+ * can be reused for any number of calls without allocating new memory.
+ *
+ * @see hu.unideb.inf.klondike.model.Move
+ */
+public final class MoveBuffer {
+
+    private int[] moves;
+    private int size;
+
+    /**
+     * Constructor for creating an empty {@code MoveBuffer} which is large
+     * enough for the legal moves of any position that occurs in practice.
+     */
+    public MoveBuffer() {
+        this(128);
+    }
+
+    /**
+     * Constructor for creating an empty {@code MoveBuffer} with the specified
+     * initial capacity. The buffer grows if needed.
+     *
+     * @param capacity the initial capacity
+     */
+    public MoveBuffer(int capacity) {
+        moves = new int[Math.max(capacity, 1)];
+        size = 0;
+    }
+
+    /**
+     * This method removes all the moves from the buffer.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * This method appends the specified move to the buffer.
+     *
+     * @param move the packed move to append
+     */
+    public void add(int move) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+        }
+        moves[size++] = move;
+    }
+
+    /**
+     * This method returns the number of moves in the buffer.
+     *
+     * @return the number of moves in the buffer
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * This method returns {@code true} if the buffer contains no moves.
+     *
+     * @return {@code true} if the buffer contains no moves
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * This method returns the move at the specified position.
+     *
+     * @param index position of the move
+     * @return the packed move at the specified position
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public int get(int index) throws IndexOutOfBoundsException {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return moves[index];
+    }
+
+    /**
+     * This method returns {@code true} if the buffer contains the specified
+     * move.
+     *
+     * @param move the packed move
+     * @return {@code true} if the buffer contains the move
+     */
+    public boolean contains(int move) {
+        for (int i = 0; i < size; i++) {
+            if (moves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns a {@code String} representation of the moves in the buffer.
+     *
+     * @return a {@code String} representation of the moves in the buffer
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("MoveBuffer[");
+        for (int i = 0; i < size; i++) {
+            sb.append(i == 0 ? " " : ", ").append(Move.toString(moves[i]));
+        }
+        return sb.append(" ]").toString();
+    }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2017 Faculty of Informatics, Debrecen University, Hungary.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.klondike.model;
+
+/**
+ * The listener interface for receiving the changes of the piles of a
+ * {@code Game}.
+ * <p>
+ * After every operation which changes the position, the {@code Game} notifies
+ * its listeners with a bitmask of the changed piles: the bits 0-6 stand for
+ * the {@code Tableau} piles, the bits 7-10 for the {@code Foundation} piles
+ * and the bit 11 for the {@code Talon}.
+ *
+ * @see hu.unideb.inf.klondike.model.Game#addPileListener(PileListener)
+ */
+@FunctionalInterface
+public interface PileListener {
+
+    /**
+     * The bit of the {@code Talon}.
+     */
+    int TALON = 1 << 11;
+
+    /**
+     * The bits of all the {@code Foundation} piles.
+     */
+    int FOUNDATIONS = 0xF << 7;
+
+    /**
+     * The bits of all the piles.
+     */
+    int ALL = (1 << 12) - 1;
+
+    /**
+     * This method returns the bit of the specified {@code Tableau} pile.
+     *
+     * @param pileIndex index of the {@code Tableau} pile
+     * @return the bit of the {@code Tableau} pile
+     */
+    static int tableau(int pileIndex) {
+        return 1 << pileIndex;
+    }
+
+    /**
+     * This method returns the bit of the specified {@code Foundation} pile.
+     *
+     * @param pileIndex index of the {@code Foundation} pile
+     * @return the bit of the {@code Foundation} pile
+     */
+    static int foundation(int pileIndex) {
+        return 1 << 7 + pileIndex;
+    }
+
+    /**
+     * This method returns the bit of the specified pile.
+     *
+     * @param pile the type of the pile
+     * @param pileIndex index of the pile, ignored for the {@code Talon}
+     * @return the bit of the pile
+     */
+    static int of(Move.PILE pile, int pileIndex) {
+        switch (pile) {
+            case TABLEAU:
+                return tableau(pileIndex);
+            case FOUNDATION:
+                return foundation(pileIndex);
+            default:
+                return TALON;
+        }
+    }
+
+    /**
+     * Invoked when piles of the {@code Game} have changed.
+     *
+     * @param piles the bitmask of the changed piles
+     */
+    void pilesChanged(int piles);
+
+}
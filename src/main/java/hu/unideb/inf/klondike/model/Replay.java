@@ -0,0 +1,275 @@
+/*
+ * Copyright 2017 Faculty of Informatics, Debrecen University, Hungary.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.klondike.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+
+/**
+ * This class represents the replay of a played game: the seed of the deal
+ * and every step of the player, including the draws and the undos, together
+ * with the score, the number of moves and the result the game has been
+ * finished with.
+ * <p>
+ * A step is either {@code UNDO} or a packed
+ * {@link hu.unideb.inf.klondike.model.Move}, in which the card index of a
+ * move from a {@code Tableau} pile is replaced by the number of the moved
+ * cards, the same way as in the history of the {@code Game}.
+ * <p>
+ * The encoded replay is built from the following, big-endian:
+ * <ul>
+ * <li> the magic number {@code KLDR} and the version of the format, 1 byte;
+ * <li> the flags of the result, 1 byte: the lowest bit is set if the game
+ *      has been won;
+ * <li> the seed of the deal, 8 bytes;
+ * <li> the score, the number of moves and the number of steps, as unsigned
+ *      variable-length integers of 7 bits per byte;
+ * <li> every step plus one, as an unsigned variable-length integer; and
+ * <li> the CRC-32 checksum of everything before it, 4 bytes.
+ * </ul>
+ * A step takes one or two bytes, so the replay of a whole game is a few
+ * hundred bytes long. The encoded replays delimit themselves, so they can be
+ * concatenated into one file.
+ *
+ * @see hu.unideb.inf.klondike.model.ReplayEngine
+ * @see hu.unideb.inf.klondike.model.ReplayRecorder
+ */
+public final class Replay {
+
+    /**
+     * The step which undoes the last recorded step.
+     */
+    public static final int UNDO = -1;
+
+    /**
+     * The magic number at the beginning of the encoded replays.
+     */
+    static final int MAGIC = 0x4B4C4452;
+
+    /**
+     * The actual version of the format.
+     */
+    static final byte VERSION = 1;
+
+    private static final int WON = 1;
+
+    private final long seed;
+    private final int score;
+    private final int moves;
+    private final int[] steps;
+    private final boolean won;
+
+    /**
+     * Constructor for creating a {@code Replay} instance.
+     *
+     * @param seed the seed of the deal
+     * @param steps the steps of the player
+     * @param score the score the game has been finished with
+     * @param moves the number of moves the game has been finished with
+     * @param won true if the game has been won
+     * @throws IllegalArgumentException if the score or the number of moves is
+     * negative
+     */
+    public Replay(long seed, int[] steps, int score, int moves, boolean won) throws IllegalArgumentException {
+        if (score < 0 || moves < 0) {
+            throw new IllegalArgumentException("The score and the number of moves can not be negative!");
+        }
+        this.seed = seed;
+        this.steps = steps.clone();
+        this.score = score;
+        this.moves = moves;
+        this.won = won;
+    }
+
+    /**
+     * This method returns the seed of the deal.
+     *
+     * @return the seed of the deal
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * This method returns the score the game has been finished with.
+     *
+     * @return the recorded score
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * This method returns the number of moves the game has been finished
+     * with.
+     *
+     * @return the recorded number of moves
+     */
+    public int getMoves() {
+        return moves;
+    }
+
+    /**
+     * This method returns true if the game has been won.
+     *
+     * @return true if the game has been won
+     */
+    public boolean isWon() {
+        return won;
+    }
+
+    /**
+     * This method returns the number of steps.
+     *
+     * @return the number of steps
+     */
+    public int size() {
+        return steps.length;
+    }
+
+    /**
+     * This method returns the specified step.
+     *
+     * @param index index of the step
+     * @return the packed step
+     * @throws IndexOutOfBoundsException if there is no such step
+     */
+    public int getStep(int index) throws IndexOutOfBoundsException {
+        return steps[index];
+    }
+
+    /**
+     * This method returns a copy of the steps.
+     *
+     * @return the packed steps
+     */
+    public int[] getSteps() {
+        return steps.clone();
+    }
+
+    /**
+     * This method encodes the replay.
+     *
+     * @return the encoded replay
+     */
+    public byte[] encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(4 + 1 + 1 + 8 + 5 * 3 + 3 * steps.length + 4);
+        buffer.putInt(MAGIC);
+        buffer.put(VERSION);
+        buffer.put((byte) (won ? WON : 0));
+        buffer.putLong(seed);
+        putVarint(buffer, score);
+        putVarint(buffer, moves);
+        putVarint(buffer, steps.length);
+        for (int step : steps) {
+            putVarint(buffer, step + 1);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    /**
+     * This method decodes the specified replay.
+     *
+     * @param content the encoded replay
+     * @return the decoded replay
+     * @throws IOException if the content is not a valid replay
+     */
+    public static Replay decode(byte[] content) throws IOException {
+        ByteArrayInputStream in = new ByteArrayInputStream(content);
+        Replay replay = read(in);
+        if (replay == null || in.available() > 0) {
+            throw new IOException("The content is not one replay!");
+        }
+        return replay;
+    }
+
+    /**
+     * This method reads the next replay from the specified stream. The
+     * encoded replays delimit themselves, so a stream of concatenated replays
+     * can be read by calling this method until it returns null.
+     *
+     * @param in the stream to read from
+     * @return the next replay, or null at the end of the stream
+     * @throws IOException if the next replay is not valid, or an I/O error
+     * occurs
+     */
+    public static Replay read(InputStream in) throws IOException {
+        CheckedInputStream checked = new CheckedInputStream(in, new CRC32());
+        DataInputStream data = new DataInputStream(checked);
+        int first = data.read();
+        if (first == -1) {
+            return null;
+        }
+        if ((first << 24 | data.readUnsignedByte() << 16 | data.readUnsignedShort()) != MAGIC) {
+            throw new IOException("The content is not a replay!");
+        }
+        byte version = data.readByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported replay version: " + version);
+        }
+        byte flags = data.readByte();
+        long seed = data.readLong();
+        int score = readVarint(data);
+        int moves = readVarint(data);
+        int size = readVarint(data);
+        int[] steps = new int[Math.min(size, 1024)];
+        for (int i = 0; i < size; i++) {
+            if (i == steps.length) {
+                steps = Arrays.copyOf(steps, Math.min(size, i * 2));
+            }
+            steps[i] = readVarint(data) - 1;
+        }
+        int checksum = (int) checked.getChecksum().getValue();
+        if (data.readInt() != checksum) {
+            throw new IOException("The replay is corrupted: checksum mismatch!");
+        }
+        try {
+            return new Replay(seed, steps, score, moves, (flags & WON) != 0);
+        } catch (IllegalArgumentException ex) {
+            throw new IOException("The replay is corrupted!", ex);
+        }
+    }
+
+    private static void putVarint(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static int readVarint(DataInputStream data) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = data.readByte();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("The replay is corrupted: invalid number!");
+    }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2017 Faculty of Informatics, Debrecen University, Hungary.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.klondike.model;
+
+import hu.unideb.inf.klondike.OffenseException;
+
+/**
+ * This class plays replays headlessly: it deals the game of the seed and
+ * performs the recorded steps through the rules of the {@code Game}, without
+ * listeners, so a replay is played at the speed of the move generator.
+ *
+ * @see hu.unideb.inf.klondike.model.Replay
+ */
+public final class ReplayEngine {
+
+    private ReplayEngine() {
+    }
+
+    /**
+     * This method plays the specified replay on a new game.
+     *
+     * @param replay the replay to play
+     * @return the game in its state after the last step
+     * @throws OffenseException if a step can not be performed due to rule
+     * offense
+     */
+    public static Game play(Replay replay) throws OffenseException {
+        GameEngine engine = new GameEngine();
+        engine.newGame(replay.getSeed());
+        for (int i = 0; i < replay.size(); i++) {
+            int step = replay.getStep(i);
+            if (step == Replay.UNDO) {
+                engine.undo();
+            } else {
+                step(engine, step);
+            }
+        }
+        return engine.getGame();
+    }
+
+    /**
+     * This method returns true if the specified replay can be played and
+     * results in the recorded score, number of moves and result.
+     *
+     * @param replay the replay to verify
+     * @return true if the replay is valid
+     */
+    public static boolean verify(Replay replay) {
+        try {
+            Game game = play(replay);
+            return game.getScore() == replay.getScore() && game.getMoves() == replay.getMoves() && game.isWon() == replay.isWon();
+        } catch (OffenseException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Performs a recorded step, in which the card index of a move from a
+     * {@code Tableau} pile is the number of the moved cards.
+     */
+    static void step(GameEngine engine, int move) throws OffenseException {
+        if (Move.isDraw(move)) {
+            engine.draw();
+            return;
+        }
+        if (!Move.isValid(move)) {
+            throw new OffenseException("There is no pile of the given type!");
+        }
+        int cardIndex = 0;
+        if (Move.getFrom(move) == Move.PILE.TABLEAU) {
+            if (Move.getFromIndex(move) >= 7) {
+                throw new OffenseException("There is no tableau pile at the given index!");
+            }
+            cardIndex = engine.getTableauSize(Move.getFromIndex(move)) - Move.getCardIndex(move);
+        }
+        engine.move(Move.getFrom(move), Move.getFromIndex(move), Move.getTo(move), Move.getToIndex(move), cardIndex);
+    }
+
+}
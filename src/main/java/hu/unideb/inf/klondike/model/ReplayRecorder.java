@@ -0,0 +1,105 @@
+/*
+ * Copyright 2017 Faculty of Informatics, Debrecen University, Hungary.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.klondike.model;
+
+import java.util.Arrays;
+
+/**
+ * This class records the steps of a {@code Game}, so its
+ * {@link hu.unideb.inf.klondike.model.Replay} can be exported at any time.
+ * <p>
+ * Only the games dealt by a known seed can be replayed. When a recorder is
+ * attached to a game in progress, or the game is continued from a copy which
+ * knows its seed, the recording starts from the history of the game, which
+ * does not contain the undone steps.
+ */
+public class ReplayRecorder {
+
+    private Game game;
+    private int[] steps = new int[256];
+    private int size;
+
+    private final JournalListener listener = new JournalListener() {
+        @Override
+        public void pushed(int entry) {
+            add(Journal.getMove(entry));
+        }
+
+        @Override
+        public void popped() {
+            add(Replay.UNDO);
+        }
+
+        @Override
+        public void replaced() {
+            restart();
+        }
+    };
+
+    /**
+     * This method starts recording the steps of the specified game.
+     *
+     * @param game the game to record
+     */
+    public void attach(Game game) {
+        if (this.game != null) {
+            this.game.removeJournalListener(listener);
+        }
+        this.game = game;
+        game.addJournalListener(listener);
+        restart();
+    }
+
+    /**
+     * This method returns true if the recorded game can be replayed: it has
+     * been dealt by a known seed.
+     *
+     * @return true if the replay of the game is available
+     */
+    public boolean isAvailable() {
+        return game != null && game.isSeeded();
+    }
+
+    /**
+     * This method returns the replay of the recorded game so far.
+     *
+     * @return the replay of the recorded game
+     * @throws IllegalStateException if the replay of the game is not
+     * available
+     */
+    public Replay getReplay() throws IllegalStateException {
+        if (!isAvailable()) {
+            throw new IllegalStateException("The game has not been dealt by a known seed!");
+        }
+        return new Replay(game.getSeed(), Arrays.copyOf(steps, size), game.getScore(), game.getMoves(), game.isWon());
+    }
+
+    private void restart() {
+        size = 0;
+        Journal journal = game.getJournal();
+        for (int i = 0; i < journal.size(); i++) {
+            add(Journal.getMove(journal.get(i)));
+        }
+    }
+
+    private void add(int step) {
+        if (size == steps.length) {
+            steps = Arrays.copyOf(steps, size * 2);
+        }
+        steps[size++] = step;
+    }
+
+}
@@ -0,0 +1,362 @@
+/*
+ * Copyright 2017 Faculty of Informatics, Debrecen University, Hungary.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.klondike.model;
+
+import hu.unideb.inf.klondike.OffenseException;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class verifies replays in bulk: every replay is played by the
+ * {@link hu.unideb.inf.klondike.model.ReplayEngine}, so every step has to be
+ * legal, and the replayed score, number of moves and result have to match the
+ * recorded ones.
+ * <p>
+ * The replays are read from a file of concatenated replays, or from every
+ * {@code .kdr} file of a directory. The input is streamed: the reading thread
+ * hands batches of {@code BATCH} replays to a pool of workers, and when every
+ * worker is busy and the queue is full, it verifies the next batch itself, so
+ * only a bounded number of replays is held in memory, and every core is kept
+ * busy.
+ * <p>
+ * The class can be run from the command line as well, with the file or the
+ * directory as its argument; it prints the report and exits with 1 if any of
+ * the replays has failed.
+ */
+public class ReplayVerifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplayVerifier.class);
+
+    /**
+     * The number of replays verified by one task.
+     */
+    public static final int BATCH = 64;
+
+    /**
+     * The maximal number of failures listed in a report.
+     */
+    public static final int MAX_LISTED_FAILURES = 100;
+
+    private final int threads;
+
+    /**
+     * This class summarizes the results of a verification.
+     */
+    public static final class Report {
+
+        private int total, valid, won, illegal, mismatched, corrupted;
+        private final List<String> failures = new ArrayList<>();
+        private long elapsed;
+
+        private Report() {
+        }
+
+        /**
+         * This method returns the number of read replays, including the
+         * corrupted ones.
+         *
+         * @return the number of replays
+         */
+        public synchronized int getTotal() {
+            return total;
+        }
+
+        /**
+         * This method returns the number of valid replays.
+         *
+         * @return the number of valid replays
+         */
+        public synchronized int getValid() {
+            return valid;
+        }
+
+        /**
+         * This method returns the number of valid replays of won games.
+         *
+         * @return the number of valid won games
+         */
+        public synchronized int getWon() {
+            return won;
+        }
+
+        /**
+         * This method returns the number of replays containing an illegal
+         * step.
+         *
+         * @return the number of illegal replays
+         */
+        public synchronized int getIllegal() {
+            return illegal;
+        }
+
+        /**
+         * This method returns the number of replays whose score, number of
+         * moves or result differs from the recorded one.
+         *
+         * @return the number of mismatched replays
+         */
+        public synchronized int getMismatched() {
+            return mismatched;
+        }
+
+        /**
+         * This method returns the number of replays which could not be read.
+         * The rest of a file is skipped after a corrupted replay.
+         *
+         * @return the number of corrupted replays
+         */
+        public synchronized int getCorrupted() {
+            return corrupted;
+        }
+
+        /**
+         * This method returns the descriptions of the first
+         * {@code MAX_LISTED_FAILURES} failures.
+         *
+         * @return the descriptions of the failures
+         */
+        public synchronized List<String> getFailures() {
+            return Collections.unmodifiableList(new ArrayList<>(failures));
+        }
+
+        /**
+         * This method returns the time of the verification in milliseconds.
+         *
+         * @return the time of the verification
+         */
+        public long getElapsedMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(elapsed);
+        }
+
+        /**
+         * This method returns true if every replay is valid.
+         *
+         * @return true if every replay is valid
+         */
+        public synchronized boolean isPassed() {
+            return valid == total;
+        }
+
+        private synchronized void add(int valid, int won, int illegal, int mismatched, List<String> failures) {
+            this.total += valid + illegal + mismatched;
+            this.valid += valid;
+            this.won += won;
+            this.illegal += illegal;
+            this.mismatched += mismatched;
+            list(failures);
+        }
+
+        private synchronized void corrupted(String failure) {
+            total++;
+            corrupted++;
+            list(Collections.singletonList(failure));
+        }
+
+        private void list(List<String> failures) {
+            for (String failure : failures) {
+                if (this.failures.size() < MAX_LISTED_FAILURES) {
+                    this.failures.add(failure);
+                }
+            }
+        }
+
+        @Override
+        public synchronized String toString() {
+            StringBuilder sb = new StringBuilder()
+                    .append("Verified ").append(total).append(" replays in ").append(getElapsedMillis()).append(" ms: ")
+                    .append(valid).append(" valid (").append(won).append(" won), ")
+                    .append(illegal).append(" illegal, ")
+                    .append(mismatched).append(" mismatched, ")
+                    .append(corrupted).append(" corrupted");
+            for (String failure : failures) {
+                sb.append(System.lineSeparator()).append("  ").append(failure);
+            }
+            if (total - valid > failures.size()) {
+                sb.append(System.lineSeparator()).append("  ... and ").append(total - valid - failures.size()).append(" more");
+            }
+            return sb.toString();
+        }
+
+    }
+
+    /**
+     * Constructor for creating a {@code ReplayVerifier} which uses a worker
+     * for every available processor.
+     */
+    public ReplayVerifier() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor for creating a {@code ReplayVerifier} which uses the
+     * specified number of workers.
+     *
+     * @param threads the number of workers
+     * @throws IllegalArgumentException if the number of workers is not
+     * positive
+     */
+    public ReplayVerifier(int threads) throws IllegalArgumentException {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("The number of workers must be positive: " + threads);
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * This method verifies the replays of the specified file of concatenated
+     * replays, or of every {@code .kdr} file of the specified directory.
+     *
+     * @param path the file or the directory of the replays
+     * @return the report of the verification
+     * @throws IOException if the directory can not be listed
+     */
+    public Report verify(Path path) throws IOException {
+        Report report = new Report();
+        long start = System.nanoTime();
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 2),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "klondike-verifier-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        try {
+            if (Files.isDirectory(path)) {
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(path, "*.kdr")) {
+                    for (Path file : files) {
+                        read(file, executor, report);
+                    }
+                }
+            } else {
+                read(path, executor, report);
+            }
+            executor.shutdown();
+            while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                logger.info("Verified {} replays so far.", report.getTotal());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+        report.elapsed = System.nanoTime() - start;
+        logger.info("Verified {} replays of {} in {} ms.", report.getTotal(), path, report.getElapsedMillis());
+        return report;
+    }
+
+    /**
+     * Reads the replays of a file and hands them to the workers in batches.
+     */
+    private void read(Path file, ThreadPoolExecutor executor, Report report) {
+        String name = file.getFileName().toString();
+        int index = 0;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), 64 * 1024)) {
+            Replay[] batch = new Replay[BATCH];
+            int size = 0;
+            while (true) {
+                Replay replay;
+                try {
+                    replay = Replay.read(in);
+                } catch (IOException ex) {
+                    report.corrupted(name + " #" + (index + size) + ": " + ex.getMessage());
+                    break;
+                }
+                if (replay == null) {
+                    break;
+                }
+                batch[size++] = replay;
+                if (size == BATCH) {
+                    submit(executor, report, name, index, batch, size);
+                    index += size;
+                    batch = new Replay[BATCH];
+                    size = 0;
+                }
+            }
+            submit(executor, report, name, index, batch, size);
+        } catch (IOException ex) {
+            report.corrupted(name + ": " + ex.getMessage());
+        }
+    }
+
+    private static void submit(ThreadPoolExecutor executor, Report report, String name, int first, Replay[] batch, int size) {
+        if (size > 0) {
+            executor.execute(() -> verify(report, name, first, batch, size));
+        }
+    }
+
+    private static void verify(Report report, String name, int first, Replay[] batch, int size) {
+        int valid = 0;
+        int won = 0;
+        int illegal = 0;
+        int mismatched = 0;
+        List<String> failures = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Replay replay = batch[i];
+            try {
+                Game game = ReplayEngine.play(replay);
+                if (game.getScore() == replay.getScore() && game.getMoves() == replay.getMoves() && game.isWon() == replay.isWon()) {
+                    valid++;
+                    if (game.isWon()) {
+                        won++;
+                    }
+                } else {
+                    mismatched++;
+                    failures.add(String.format("%s #%d (seed %016x): claimed score %d, moves %d, won %b; replayed score %d, moves %d, won %b",
+                            name, first + i, replay.getSeed(), replay.getScore(), replay.getMoves(), replay.isWon(),
+                            game.getScore(), game.getMoves(), game.isWon()));
+                }
+            } catch (OffenseException | RuntimeException ex) {
+                illegal++;
+                failures.add(String.format("%s #%d (seed %016x): illegal step: %s", name, first + i, replay.getSeed(), ex.getMessage()));
+            }
+        }
+        report.add(valid, won, illegal, mismatched, failures);
+    }
+
+    /**
+     * This method verifies the replays of the file or directory given as the
+     * first argument and prints the report.
+     *
+     * @param args the file or the directory of the replays
+     * @throws IOException if the directory can not be listed
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: ReplayVerifier <replay file or directory>");
+            System.exit(2);
+        }
+        Report report = new ReplayVerifier().verify(Paths.get(args[0]));
+        System.out.println(report);
+        System.exit(report.isPassed() ? 0 : 1);
+    }
+
+}
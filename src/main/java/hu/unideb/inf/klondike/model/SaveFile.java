@@ -0,0 +1,158 @@
+/*
+ * Copyright 2017 Faculty of Informatics, Debrecen University, Hungary.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.klondike.model;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.DoubleConsumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class reads and writes the save files.
+ * <p>
+ * A save file is never overwritten in place: the new content is written to a
+ * temporary file in the same directory, forced to the disk and then renamed
+ * to the save file atomically, so a crash during the save leaves the former
+ * save intact. The content is transferred through a direct buffer of every
+ * thread, in chunks, so the time of the transfer is linear in the size of
+ * the file, and no direct buffer of the size of the file is allocated.
+ * <p>
+ * The location of the save file is given by the {@code klondike.save.file}
+ * system property, and it is {@code save.k} in the user's home directory by
+ * default.
+ */
+final class SaveFile {
+
+    private static final Logger logger = LoggerFactory.getLogger(SaveFile.class);
+
+    /**
+     * The name of the system property of the location of the save file.
+     */
+    static final String LOCATION_PROPERTY = "klondike.save.file";
+
+    private static final int CHUNK = 64 * 1024;
+
+    private static final ThreadLocal<ByteBuffer> BUFFERS = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(CHUNK));
+
+    private SaveFile() {
+    }
+
+    /**
+     * This method returns the location of the save file.
+     *
+     * @return the location of the save file
+     */
+    static Path location() {
+        String location = System.getProperty(LOCATION_PROPERTY);
+        if (location != null && !location.isEmpty()) {
+            return Paths.get(location);
+        }
+        return Paths.get(System.getProperty("user.home"), "save.k");
+    }
+
+    /**
+     * This method replaces the content of the specified file atomically with
+     * the remaining content of the specified buffer.
+     *
+     * @param file the file to write
+     * @param content the content to write
+     * @param progress the consumer of the written fraction, or null
+     * @throws IOException if an I/O error occurs
+     */
+    static void write(Path file, ByteBuffer content, DoubleConsumer progress) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = BUFFERS.get();
+                int length = content.remaining();
+                while (content.hasRemaining()) {
+                    buffer.clear();
+                    int limit = content.limit();
+                    content.limit(content.position() + Math.min(buffer.remaining(), content.remaining()));
+                    buffer.put(content);
+                    content.limit(limit);
+                    buffer.flip();
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                    if (progress != null) {
+                        progress.accept((double) (length - content.remaining()) / length);
+                    }
+                }
+                channel.force(true);
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException ex) {
+                logger.warn("The file system does not support atomic renaming, the save file is replaced.");
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * This method reads the whole content of the specified file.
+     *
+     * @param file the file to read
+     * @param progress the consumer of the read fraction, or null
+     * @return the content of the file
+     * @throws FileNotFoundException if the file does not exist
+     * @throws IOException if an I/O error occurs
+     */
+    static byte[] read(Path file, DoubleConsumer progress) throws FileNotFoundException, IOException {
+        if (!Files.isRegularFile(file)) {
+            throw new FileNotFoundException(file + " does not exist");
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE - 8) {
+                throw new IOException(file + " is too large!");
+            }
+            byte[] content = new byte[(int) size];
+            ByteBuffer buffer = BUFFERS.get();
+            int position = 0;
+            while (position < content.length) {
+                buffer.clear();
+                buffer.limit(Math.min(buffer.capacity(), content.length - position));
+                if (channel.read(buffer) == -1) {
+                    throw new IOException(file + " has been truncated while reading!");
+                }
+                buffer.flip();
+                int count = buffer.remaining();
+                buffer.get(content, position, count);
+                position += count;
+                if (progress != null) {
+                    progress.accept((double) position / content.length);
+                }
+            }
+            return content;
+        }
+    }
+
+}
@@ -0,0 +1,349 @@
+/*
+ * Copyright 2017 Faculty of Informatics, Debrecen University, Hungary.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.klondike.model;
+
+import hu.unideb.inf.klondike.component.*;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * This class encodes and decodes the save files of the {@code Game}.
+ * <p>
+ * A save file is built from {@code Card} codes, big-endian:
+ * <ul>
+ * <li> the magic number {@code KLDK} and the version of the format, 2 bytes;
+ * <li> the score and the number of moves, 4 bytes each;
+ * <li> the flags of the deal, 1 byte: the lowest bit is set if the game has
+ *      been dealt by a known seed, and the seed, 8 bytes;
+ * <li> every {@code Tableau} pile: its size, its number of <i>DOWNSIDE</i>
+ *      cards and the codes of its cards from bottom to top, 1 byte each;
+ * <li> the code of the top card of every {@code Foundation} pile, or -1 if it
+ *      is empty, 1 byte each;
+ * <li> the size, the pointer and the number of available cards of the
+ *      {@code Talon}, and the codes of its cards, 1 byte each;
+ * <li> the number of entries of the history, 4 bytes, and the packed
+ *      entries, 4 bytes each; and
+ * <li> the CRC-32 checksum of everything before it, 4 bytes.
+ * </ul>
+ * The former save files, which contain the JSON representation of the whole
+ * {@code Game} encrypted by XOR, are recognized by the lack of the magic
+ * number and can still be read.
+ *
+ * @see hu.unideb.inf.klondike.model.Journal
+ */
+final class SaveFormat {
+
+    /**
+     * The magic number at the beginning of the save files.
+     */
+    static final int MAGIC = 0x4B4C444B;
+
+    /**
+     * The actual version of the format.
+     */
+    static final short VERSION = 1;
+
+    private static final int SEEDED = 1;
+
+    private static final char[] LEGACY_KEY = {'K', 'L', 'O', 'N', 'D', 'I', 'K', 'E'};
+
+    private SaveFormat() {
+    }
+
+    /**
+     * This method encodes the specified game into a buffer, which is ready to
+     * be written.
+     *
+     * @param game the game to encode
+     * @return the buffer containing the save file
+     */
+    static ByteBuffer encode(Game game) {
+        Tableau[] tableauPiles = game.getTableauPiles();
+        Foundation[] foundationPiles = game.getFoundationPiles();
+        Talon talon = game.getTalon();
+        Journal journal = game.getJournal();
+        int length = 4 + 2 + 4 + 4 + 1 + 8 + 2 * tableauPiles.length + foundationPiles.length + 3 + 4 + 4 + Card.COUNT + 4 * journal.size();
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putInt(game.getScore());
+        buffer.putInt(game.getMoves());
+        buffer.put((byte) (game.isSeeded() ? SEEDED : 0));
+        buffer.putLong(game.getSeed());
+        for (Tableau pile : tableauPiles) {
+            buffer.put((byte) pile.size());
+            buffer.put((byte) pile.getDownsideCount());
+            for (int i = 0; i < pile.size(); i++) {
+                buffer.put((byte) pile.getCode(i));
+            }
+        }
+        for (Foundation pile : foundationPiles) {
+            buffer.put((byte) pile.getTopCode());
+        }
+        buffer.put((byte) talon.size());
+        buffer.put((byte) talon.getPointer());
+        buffer.put((byte) talon.getAvailable());
+        for (int i = 0; i < talon.size(); i++) {
+            buffer.put((byte) talon.getCode(i));
+        }
+        buffer.putInt(journal.size());
+        for (int i = 0; i < journal.size(); i++) {
+            buffer.putInt(journal.get(i));
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * This method decodes the game from the specified content of a save
+     * file, in the actual or in the former format.
+     *
+     * @param content the content of the save file
+     * @return the saved game
+     * @throws IOException if the content is not a valid save file
+     */
+    static Game decode(byte[] content) throws IOException {
+        if (content.length < 4 || ByteBuffer.wrap(content).getInt() != MAGIC) {
+            return decodeLegacy(content);
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(content);
+            buffer.getInt();
+            short version = buffer.getShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported save file version: " + version);
+            }
+            CRC32 crc = new CRC32();
+            crc.update(content, 0, content.length - 4);
+            if ((int) crc.getValue() != ByteBuffer.wrap(content, content.length - 4, 4).getInt()) {
+                throw new IOException("The save file is corrupted: checksum mismatch!");
+            }
+            int score = buffer.getInt();
+            int moves = buffer.getInt();
+            boolean seeded = (buffer.get() & SEEDED) != 0;
+            long seed = buffer.getLong();
+            boolean[] seen = new boolean[Card.COUNT];
+            Tableau[] tableauPiles = new Tableau[7];
+            for (int i = 0; i < tableauPiles.length; i++) {
+                int size = buffer.get();
+                int downside = buffer.get();
+                if (downside < 0 || downside > size) {
+                    throw new IOException("The save file is corrupted: invalid tableau pile!");
+                }
+                tableauPiles[i] = new Tableau(cards(buffer, size, seen), downside);
+            }
+            Foundation[] foundationPiles = new Foundation[4];
+            for (int i = 0; i < foundationPiles.length; i++) {
+                int top = buffer.get();
+                List<Card> cards = new ArrayList<>();
+                if (top >= 0) {
+                    check(top, seen);
+                    for (int code = top - Card.rankOf(top); code <= top; code++) {
+                        cards.add(Card.valueOf(code));
+                        seen[code] = true;
+                    }
+                }
+                foundationPiles[i] = new Foundation(cards);
+            }
+            int size = buffer.get();
+            int pointer = buffer.get();
+            int available = buffer.get();
+            if (pointer < 0 || available < 0 || available > 3 || pointer + available > size) {
+                throw new IOException("The save file is corrupted: invalid talon!");
+            }
+            Talon talon = new Talon(cards(buffer, size, seen), pointer, available);
+            for (boolean card : seen) {
+                if (!card) {
+                    throw new IOException("The save file is corrupted: missing cards!");
+                }
+            }
+            int entries = buffer.getInt();
+            if (entries < 0 || entries > buffer.remaining() / 4) {
+                throw new IOException("The save file is corrupted: invalid history!");
+            }
+            Journal journal = new Journal();
+            for (int i = 0; i < entries; i++) {
+                journal.push(buffer.getInt());
+            }
+            Game game = new Game();
+            game.restore(tableauPiles, foundationPiles, talon, score, moves, journal, seeded, seed);
+            return game;
+        } catch (BufferUnderflowException | IllegalArgumentException ex) {
+            throw new IOException("The save file is corrupted!", ex);
+        }
+    }
+
+    /**
+     * This method decodes the game from the content of a save file in the
+     * former format. The piles, the state of the {@code Talon}, the score and
+     * the number of moves are migrated; the history of the former format is
+     * dropped, so the migrated game can not be undone beyond the load.
+     *
+     * @param content the content of the save file
+     * @return the saved game
+     * @throws IOException if the content is not a valid save file
+     */
+    static Game decodeLegacy(byte[] content) throws IOException {
+        LegacyGame saved;
+        try {
+            saved = new Gson().fromJson(xor(new String(content, StandardCharsets.UTF_8).toCharArray()), LegacyGame.class);
+        } catch (JsonParseException ex) {
+            throw new IOException("The save file is corrupted!", ex);
+        }
+        if (saved == null || saved.tableauPiles == null || saved.tableauPiles.length != 7
+                || saved.foundationPiles == null || saved.foundationPiles.length != 4 || saved.talon == null) {
+            throw new IOException("The save file is corrupted!");
+        }
+        try {
+            boolean[] seen = new boolean[Card.COUNT];
+            Tableau[] tableauPiles = new Tableau[7];
+            for (int i = 0; i < tableauPiles.length; i++) {
+                List<LegacyCard> cards = cards(saved.tableauPiles[i]);
+                int downside = 0;
+                while (downside < cards.size() && cards.get(downside).state == Card.STATE.DOWNSIDE) {
+                    downside++;
+                }
+                for (int j = downside; j < cards.size(); j++) {
+                    if (cards.get(j).state != Card.STATE.UPSIDE) {
+                        throw new IOException("The save file is corrupted: invalid tableau pile!");
+                    }
+                }
+                tableauPiles[i] = new Tableau(migrate(cards, seen), downside);
+            }
+            Foundation[] foundationPiles = new Foundation[4];
+            for (int i = 0; i < foundationPiles.length; i++) {
+                foundationPiles[i] = new Foundation(migrate(cards(saved.foundationPiles[i]), seen));
+            }
+            List<LegacyCard> cards = cards(saved.talon);
+            int pointer = saved.talon.pointer;
+            int available = saved.talon.available;
+            if (pointer < 0 || available < 0 || available > 3 || pointer + available > cards.size()) {
+                throw new IOException("The save file is corrupted: invalid talon!");
+            }
+            Talon talon = new Talon(migrate(cards, seen), pointer, available);
+            for (boolean card : seen) {
+                if (!card) {
+                    throw new IOException("The save file is corrupted: missing cards!");
+                }
+            }
+            if (saved.score < 0 || saved.moves < 0) {
+                throw new IOException("The save file is corrupted: invalid score!");
+            }
+            Game game = new Game();
+            game.restore(tableauPiles, foundationPiles, talon, saved.score, saved.moves, new Journal(), false, 0);
+            return game;
+        } catch (IllegalArgumentException ex) {
+            throw new IOException("The save file is corrupted!", ex);
+        }
+    }
+
+    /**
+     * The {@code Game} of the former format, as it was serialized by Gson.
+     * The fields of the history and of the undo buffers of the piles are
+     * ignored.
+     */
+    private static final class LegacyGame {
+
+        private LegacyPile[] tableauPiles;
+        private LegacyPile[] foundationPiles;
+        private LegacyPile talon;
+        private int score;
+        private int moves;
+
+    }
+
+    /**
+     * A pile of the former format; the pointer and the number of available
+     * cards are only stored for the {@code Talon}.
+     */
+    private static final class LegacyPile {
+
+        private List<LegacyCard> storedCards;
+        private int pointer;
+        private int available;
+
+    }
+
+    /**
+     * A {@code Card} of the former format.
+     */
+    private static final class LegacyCard {
+
+        private Card.FOUNDATION foundation;
+        private Card.RANK rank;
+        private Card.STATE state;
+
+    }
+
+    private static List<LegacyCard> cards(LegacyPile pile) throws IOException {
+        if (pile == null || pile.storedCards == null) {
+            throw new IOException("The save file is corrupted: missing pile!");
+        }
+        return pile.storedCards;
+    }
+
+    private static List<Card> migrate(List<LegacyCard> saved, boolean[] seen) throws IOException {
+        List<Card> cards = new ArrayList<>(saved.size());
+        for (LegacyCard card : saved) {
+            if (card == null || card.foundation == null || card.rank == null) {
+                throw new IOException("The save file is corrupted: invalid card!");
+            }
+            int code = Card.codeOf(card.foundation, card.rank);
+            check(code, seen);
+            seen[code] = true;
+            cards.add(Card.valueOf(code));
+        }
+        return cards;
+    }
+
+    private static List<Card> cards(ByteBuffer buffer, int size, boolean[] seen) throws IOException {
+        if (size < 0) {
+            throw new IOException("The save file is corrupted: invalid pile size!");
+        }
+        List<Card> cards = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int code = buffer.get();
+            check(code, seen);
+            seen[code] = true;
+            cards.add(Card.valueOf(code));
+        }
+        return cards;
+    }
+
+    private static void check(int code, boolean[] seen) throws IOException {
+        if (code < 0 || code >= Card.COUNT || seen[code]) {
+            throw new IOException("The save file is corrupted: invalid card code " + code + "!");
+        }
+    }
+
+    private static String xor(char[] content) {
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (char) (content[i] ^ LEGACY_KEY[i % LEGACY_KEY.length]);
+        }
+        return String.valueOf(content);
+    }
+
+}
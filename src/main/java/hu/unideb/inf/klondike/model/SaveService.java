@@ -0,0 +1,205 @@
+/*
+ * Copyright 2017 Faculty of Informatics, Debrecen University, Hungary.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.klondike.model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleConsumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class saves and loads games on a dedicated background thread, so the
+ * thread of the user interface never waits for the disk.
+ * <p>
+ * A save takes a snapshot of the game on the calling thread, which is the
+ * only thread that changes the game, so the game can not change while the
+ * snapshot is taken, and it can be played on while the snapshot is written.
+ * A load reads and decodes the saved game in the background, the caller
+ * continues it with the {@link hu.unideb.inf.klondike.model.Game#loadGame(Game)}
+ * method.
+ * <p>
+ * The progress and the completion are reported on the callback executor,
+ * which is the application thread of the user interface: the returned futures
+ * are completed there, so the actions attached to them run there as well. A
+ * failed operation completes its future exceptionally with the
+ * {@code IOException} as the cause.
+ */
+public class SaveService implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SaveService.class);
+
+    private final ExecutorService executor;
+    private final Executor callbackExecutor;
+
+    /**
+     * Constructor for creating a {@code SaveService} instance.
+     *
+     * @param callbackExecutor the executor of the progress reports and the
+     * completion of the futures
+     */
+    public SaveService(Executor callbackExecutor) {
+        this.callbackExecutor = callbackExecutor;
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "klondike-io");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * This method saves the actual state of the specified game in the
+     * background.
+     *
+     * @param game the game to save
+     * @param progress the consumer of the saved fraction, or null
+     * @return the future of the save
+     * @throws IllegalStateException if the game has not been started yet
+     */
+    public CompletableFuture<Void> save(Game game, DoubleConsumer progress) throws IllegalStateException {
+        Game snapshot = game.snapshot();
+        return complete(CompletableFuture.runAsync(() -> {
+            try {
+                Game.writeSaveFile(snapshot, report(progress));
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }, executor));
+    }
+
+    /**
+     * This method reads the saved game in the background.
+     *
+     * @param progress the consumer of the read fraction, or null
+     * @return the future of the saved game
+     */
+    public CompletableFuture<Game> load(DoubleConsumer progress) {
+        return complete(CompletableFuture.supplyAsync(() -> {
+            try {
+                return Game.readSaveFile(report(progress));
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }, executor));
+    }
+
+    /**
+     * This method saves the actual state of the specified game into a slot of
+     * the specified store in the background.
+     *
+     * @param store the store to save into
+     * @param slot the number of the slot
+     * @param name the name of the slot
+     * @param game the game to save
+     * @return the future of the save
+     * @throws IllegalStateException if the game has not been started yet
+     */
+    public CompletableFuture<Void> save(SaveStore store, int slot, String name, Game game) throws IllegalStateException {
+        Game snapshot = game.snapshot();
+        return complete(CompletableFuture.runAsync(() -> {
+            try {
+                store.save(slot, name, snapshot);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }, executor));
+    }
+
+    /**
+     * This method reads the game saved in a slot of the specified store in
+     * the background.
+     *
+     * @param store the store to read from
+     * @param slot the number of the slot
+     * @return the future of the saved game
+     */
+    public CompletableFuture<Game> load(SaveStore store, int slot) {
+        return complete(CompletableFuture.supplyAsync(() -> {
+            try {
+                return store.load(slot);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }, executor));
+    }
+
+    /**
+     * This method writes the specified replay in the background, into the
+     * {@code replays} directory next to the save file.
+     *
+     * @param replay the replay to write
+     * @return the future of the written file
+     */
+    public CompletableFuture<Path> export(Replay replay) {
+        byte[] content = replay.encode();
+        Path file = SaveFile.location().toAbsolutePath().resolveSibling("replays")
+                .resolve(String.format("%016x-%d.kdr", replay.getSeed(), System.currentTimeMillis()));
+        return complete(CompletableFuture.supplyAsync(() -> {
+            try {
+                SaveFile.write(file, ByteBuffer.wrap(content), null);
+                return file;
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }, executor));
+    }
+
+    /**
+     * This method waits for the pending operations to finish and stops the
+     * background thread.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.warn("The pending save operations have not finished in time!");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private DoubleConsumer report(DoubleConsumer progress) {
+        return progress == null ? null : done -> callbackExecutor.execute(() -> progress.accept(done));
+    }
+
+    /**
+     * Returns a future which is completed on the callback executor, with the
+     * {@code IOException} as the cause if the operation failed.
+     */
+    private <T> CompletableFuture<T> complete(CompletableFuture<T> operation) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        operation.whenComplete((value, ex) -> callbackExecutor.execute(() -> {
+            if (ex == null) {
+                result.complete(value);
+            } else {
+                Throwable cause = ex instanceof CompletionException ? ex.getCause() : ex;
+                result.completeExceptionally(cause instanceof UncheckedIOException ? cause.getCause() : cause);
+            }
+        }));
+        return result;
+    }
+
+}
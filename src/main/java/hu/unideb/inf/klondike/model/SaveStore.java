@@ -0,0 +1,507 @@
+/*
+ * Copyright 2017 Faculty of Informatics, Debrecen University, Hungary.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.klondike.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class stores many saved games in numbered slots of one memory-mapped
+ * file.
+ * <p>
+ * The file starts with a header of fixed size: the magic number {@code KLDS},
+ * the version of the format, the number of slots, and an index entry of 64
+ * bytes for every slot: the offset, the capacity and the length of its
+ * extent, the time of the save, and the name of the slot. The extents of the
+ * slots follow the header, every one containing a save file in the format of
+ * {@link hu.unideb.inf.klondike.model.SaveFormat}.
+ * <p>
+ * A slot is found by its number in constant time, and listing the slots reads
+ * only the header. A saved game is overwritten in place if it fits into the
+ * extent of its slot. Otherwise the slot takes over the smallest large enough
+ * extent of an empty slot or of the free space, or a new extent at the end of
+ * the file, and its former extent is left to the empty slot or becomes free
+ * space, so the space of deleted and moved games is reused. The free space is
+ * not recorded: it is found between the extents of the slots when the store
+ * is opened.
+ * <p>
+ * The names of the used slots are unique, so a name identifies one slot.
+ * <p>
+ * The changes are written to the disk by the operating system, and forced to
+ * the disk when the store is closed. A game which was overwritten in place
+ * while the system crashed is detected by the checksum of the save file.
+ */
+public class SaveStore implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SaveStore.class);
+
+    /**
+     * The number of slots of a new store, if it is not specified.
+     */
+    public static final int DEFAULT_SLOTS = 1024;
+
+    /**
+     * The maximal length of the name of a slot in UTF-8 bytes.
+     */
+    public static final int MAX_NAME_LENGTH = 39;
+
+    private static final int MAGIC = 0x4B4C4453;
+    private static final short VERSION = 1;
+    private static final int HEADER = 16;
+    private static final int ENTRY = 64;
+    private static final int OFFSET = 0;
+    private static final int CAPACITY = 8;
+    private static final int LENGTH = 12;
+    private static final int SAVED = 16;
+    private static final int NAME = 24;
+    private static final int EMPTY = -1;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final int slots;
+    private final Map<String, Integer> names = new HashMap<>();
+    private final TreeMap<Long, Integer> free = new TreeMap<>();
+    private MappedByteBuffer map;
+    private long end;
+
+    /**
+     * This class describes a used slot of a {@code SaveStore}.
+     */
+    public static final class Slot {
+
+        private final int index;
+        private final String name;
+        private final long savedTime;
+        private final int size;
+
+        private Slot(int index, String name, long savedTime, int size) {
+            this.index = index;
+            this.name = name;
+            this.savedTime = savedTime;
+            this.size = size;
+        }
+
+        /**
+         * This method returns the number of the slot.
+         *
+         * @return the number of the slot
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * This method returns the name of the slot.
+         *
+         * @return the name of the slot
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * This method returns the time of the save, in milliseconds since
+         * the epoch.
+         *
+         * @return the time of the save
+         */
+        public long getSavedTime() {
+            return savedTime;
+        }
+
+        /**
+         * This method returns the size of the saved game in bytes.
+         *
+         * @return the size of the saved game
+         */
+        public int getSize() {
+            return size;
+        }
+
+    }
+
+    private SaveStore(Path file, FileChannel channel, int slots) throws IOException {
+        this.file = file;
+        this.channel = channel;
+        this.slots = slots;
+        end = HEADER + (long) slots * ENTRY;
+        map = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), end));
+    }
+
+    /**
+     * This method opens the specified store, or creates it with
+     * {@code DEFAULT_SLOTS} slots if it does not exist.
+     *
+     * @param file the file of the store
+     * @return the opened store
+     * @throws IOException if the file is not a valid store, or an I/O error
+     * occurs
+     */
+    public static SaveStore open(Path file) throws IOException {
+        return open(file, DEFAULT_SLOTS);
+    }
+
+    /**
+     * This method opens the specified store, or creates it with the specified
+     * number of slots if it does not exist. The number of slots of an
+     * existing store can not be changed.
+     *
+     * @param file the file of the store
+     * @param slots the number of slots of a new store
+     * @return the opened store
+     * @throws IOException if the file is not a valid store, or an I/O error
+     * occurs
+     * @throws IllegalArgumentException if the number of slots is not positive
+     */
+    public static SaveStore open(Path file, int slots) throws IOException, IllegalArgumentException {
+        if (slots <= 0) {
+            throw new IllegalArgumentException("The number of slots must be positive: " + slots);
+        }
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            SaveStore store;
+            if (channel.size() == 0) {
+                store = new SaveStore(file, channel, slots);
+                store.format();
+            } else {
+                store = new SaveStore(file, channel, readHeader(file, channel));
+                store.index();
+            }
+            logger.info("Save store {} opened with {} slots.", file, store.slots);
+            return store;
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * This method returns the number of slots of the store.
+     *
+     * @return the number of slots
+     */
+    public int getSlotCount() {
+        return slots;
+    }
+
+    /**
+     * This method returns true if a game is saved in the specified slot.
+     *
+     * @param slot the number of the slot
+     * @return true if the slot is used
+     * @throws IndexOutOfBoundsException if there is no such slot
+     */
+    public synchronized boolean isUsed(int slot) throws IndexOutOfBoundsException {
+        return map.getInt(entry(slot) + LENGTH) != EMPTY;
+    }
+
+    /**
+     * This method returns the number of the used slot with the specified
+     * name.
+     *
+     * @param name the name of the slot
+     * @return the number of the slot, or -1 if there is no such slot
+     */
+    public synchronized int find(String name) {
+        return names.getOrDefault(name, -1);
+    }
+
+    /**
+     * This method returns the used slots of the store, in the order of their
+     * numbers. Only the header of the store is read.
+     *
+     * @return the used slots
+     */
+    public synchronized List<Slot> list() {
+        List<Slot> list = new ArrayList<>();
+        for (int slot = 0; slot < slots; slot++) {
+            int entry = HEADER + slot * ENTRY;
+            int length = map.getInt(entry + LENGTH);
+            if (length != EMPTY) {
+                list.add(new Slot(slot, readName(entry), map.getLong(entry + SAVED), length));
+            }
+        }
+        return list;
+    }
+
+    /**
+     * This method saves the specified game into the specified slot, replacing
+     * the game saved there.
+     *
+     * @param slot the number of the slot
+     * @param name the name of the slot
+     * @param game the game to save
+     * @throws IOException if an I/O error occurs
+     * @throws IndexOutOfBoundsException if there is no such slot
+     * @throws IllegalArgumentException if the name is longer than
+     * {@code MAX_NAME_LENGTH} bytes, or another slot has the same name
+     */
+    public synchronized void save(int slot, String name, Game game) throws IOException, IndexOutOfBoundsException, IllegalArgumentException {
+        int entry = entry(slot);
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        if (nameBytes.length > MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("The name of the slot is too long: " + name);
+        }
+        int owner = names.getOrDefault(name, slot);
+        if (owner != slot) {
+            throw new IllegalArgumentException("The name " + name + " is already used by slot " + owner + "!");
+        }
+        ByteBuffer content = SaveFormat.encode(game);
+        int length = content.remaining();
+        if (length > map.getInt(entry + CAPACITY)) {
+            allocate(slot, length);
+        }
+        ByteBuffer extent = map.duplicate();
+        extent.position((int) map.getLong(entry + OFFSET));
+        extent.put(content);
+
+        if (map.getInt(entry + LENGTH) != EMPTY) {
+            names.remove(readName(entry), slot);
+        }
+        map.putInt(entry + LENGTH, length);
+        map.putLong(entry + SAVED, System.currentTimeMillis());
+        map.put(entry + NAME, (byte) nameBytes.length);
+        ByteBuffer header = map.duplicate();
+        header.position(entry + NAME + 1);
+        header.put(nameBytes);
+        names.put(name, slot);
+        logger.info("Game saved to slot {} of {}.", slot, file);
+    }
+
+    /**
+     * This method loads the game saved in the specified slot.
+     *
+     * @param slot the number of the slot
+     * @return the saved game
+     * @throws IOException if the slot is empty, or its content is not a valid
+     * save file
+     * @throws IndexOutOfBoundsException if there is no such slot
+     */
+    public Game load(int slot) throws IOException, IndexOutOfBoundsException {
+        byte[] content;
+        synchronized (this) {
+            int entry = entry(slot);
+            int length = map.getInt(entry + LENGTH);
+            if (length == EMPTY) {
+                throw new IOException("Slot " + slot + " of " + file + " is empty!");
+            }
+            content = new byte[length];
+            ByteBuffer extent = map.duplicate();
+            extent.position((int) map.getLong(entry + OFFSET));
+            extent.get(content);
+        }
+        return SaveFormat.decode(content);
+    }
+
+    /**
+     * This method deletes the game saved in the specified slot. The space of
+     * the game is reused by later saves.
+     *
+     * @param slot the number of the slot
+     * @throws IndexOutOfBoundsException if there is no such slot
+     */
+    public synchronized void delete(int slot) throws IndexOutOfBoundsException {
+        int entry = entry(slot);
+        if (map.getInt(entry + LENGTH) == EMPTY) {
+            return;
+        }
+        names.remove(readName(entry), slot);
+        map.putInt(entry + LENGTH, EMPTY);
+        map.put(entry + NAME, (byte) 0);
+    }
+
+    /**
+     * This method forces the changes to the disk and closes the store.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        map.force();
+        channel.close();
+    }
+
+    private static int readHeader(Path file, FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER);
+        while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+        }
+        header.flip();
+        if (header.remaining() < HEADER || header.getInt() != MAGIC) {
+            throw new IOException(file + " is not a save store!");
+        }
+        short version = header.getShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported save store version: " + version);
+        }
+        header.getShort();
+        int slots = header.getInt();
+        if (slots <= 0 || HEADER + (long) slots * ENTRY > channel.size()) {
+            throw new IOException("The save store is corrupted: invalid header!");
+        }
+        return slots;
+    }
+
+    private void format() {
+        map.putInt(0, MAGIC);
+        map.putShort(4, VERSION);
+        map.putInt(8, slots);
+        for (int slot = 0; slot < slots; slot++) {
+            map.putInt(HEADER + slot * ENTRY + LENGTH, EMPTY);
+        }
+    }
+
+    /**
+     * Builds the index of the names, and finds the free space between the
+     * extents and the end of the extents.
+     */
+    private void index() throws IOException {
+        TreeMap<Long, Integer> extents = new TreeMap<>();
+        for (int slot = 0; slot < slots; slot++) {
+            int entry = HEADER + slot * ENTRY;
+            long offset = map.getLong(entry + OFFSET);
+            int capacity = map.getInt(entry + CAPACITY);
+            int length = map.getInt(entry + LENGTH);
+            if (capacity < 0 || length < EMPTY || length > capacity
+                    || capacity > 0 && (offset < HEADER + (long) slots * ENTRY || offset + capacity > map.capacity())) {
+                throw new IOException("The save store is corrupted: invalid slot " + slot + "!");
+            }
+            if (capacity > 0 && extents.put(offset, capacity) != null) {
+                throw new IOException("The save store is corrupted: invalid slot " + slot + "!");
+            }
+            if (length != EMPTY) {
+                Integer other = names.put(readName(entry), slot);
+                if (other != null) {
+                    throw new IOException("The save store is corrupted: slots " + other + " and " + slot + " have the same name!");
+                }
+            }
+        }
+        for (Map.Entry<Long, Integer> extent : extents.entrySet()) {
+            if (extent.getKey() < end) {
+                throw new IOException("The save store is corrupted: overlapping extents at " + extent.getKey() + "!");
+            }
+            if (extent.getKey() > end) {
+                free.put(end, (int) (extent.getKey() - end));
+            }
+            end = extent.getKey() + extent.getValue();
+        }
+    }
+
+    private String readName(int entry) {
+        byte[] name = new byte[map.get(entry + NAME)];
+        ByteBuffer header = map.duplicate();
+        header.position(entry + NAME + 1);
+        header.get(name);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    private int entry(int slot) throws IndexOutOfBoundsException {
+        if (slot < 0 || slot >= slots) {
+            throw new IndexOutOfBoundsException("There is no slot " + slot + " in " + file);
+        }
+        return HEADER + slot * ENTRY;
+    }
+
+    /**
+     * Gives an extent of at least the specified length to the specified slot:
+     * the smallest large enough extent of an empty slot or of the free space,
+     * or a new one at the end of the file. The former extent of the slot is
+     * left to the empty slot, or becomes free space.
+     */
+    private void allocate(int slot, int length) throws IOException {
+        int empty = -1;
+        for (int other = 0; other < slots; other++) {
+            int entry = HEADER + other * ENTRY;
+            if (other == slot || map.getInt(entry + LENGTH) != EMPTY) {
+                continue;
+            }
+            int capacity = map.getInt(entry + CAPACITY);
+            if (capacity >= length && (empty == -1 || capacity < map.getInt(HEADER + empty * ENTRY + CAPACITY))) {
+                empty = other;
+            }
+        }
+        Map.Entry<Long, Integer> space = null;
+        for (Map.Entry<Long, Integer> extent : free.entrySet()) {
+            if (extent.getValue() >= length && (space == null || extent.getValue() < space.getValue())) {
+                space = extent;
+            }
+        }
+        int entry = HEADER + slot * ENTRY;
+        long offset = map.getLong(entry + OFFSET);
+        int capacity = map.getInt(entry + CAPACITY);
+        if (empty != -1 && (space == null || map.getInt(HEADER + empty * ENTRY + CAPACITY) <= space.getValue())) {
+            int emptyEntry = HEADER + empty * ENTRY;
+            map.putLong(entry + OFFSET, map.getLong(emptyEntry + OFFSET));
+            map.putInt(entry + CAPACITY, map.getInt(emptyEntry + CAPACITY));
+            map.putLong(emptyEntry + OFFSET, offset);
+            map.putInt(emptyEntry + CAPACITY, capacity);
+            return;
+        }
+        if (space != null) {
+            free.remove(space.getKey());
+            map.putLong(entry + OFFSET, space.getKey());
+            map.putInt(entry + CAPACITY, space.getValue());
+        } else {
+            int grown = (length + length / 4 + ENTRY - 1) / ENTRY * ENTRY;
+            if (end + grown > Integer.MAX_VALUE) {
+                throw new IOException(file + " is full!");
+            }
+            if (end + grown > map.capacity()) {
+                map.force();
+                map = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.min(Integer.MAX_VALUE, Math.max(end + grown, end + end / 2)));
+            }
+            map.putLong(entry + OFFSET, end);
+            map.putInt(entry + CAPACITY, grown);
+            end += grown;
+        }
+        if (capacity > 0) {
+            release(offset, capacity);
+        }
+    }
+
+    /**
+     * Adds the specified extent to the free space, merged with the free
+     * extents next to it.
+     */
+    private void release(long offset, int capacity) {
+        Map.Entry<Long, Integer> before = free.lowerEntry(offset);
+        if (before != null && before.getKey() + before.getValue() == offset) {
+            free.remove(before.getKey());
+            offset = before.getKey();
+            capacity += before.getValue();
+        }
+        Integer after = free.remove(offset + capacity);
+        if (after != null) {
+            capacity += after;
+        }
+        free.put(offset, capacity);
+    }
+
+}
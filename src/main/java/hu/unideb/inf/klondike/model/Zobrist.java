@@ -0,0 +1,110 @@
+/*
+ * Copyright 2017 Faculty of Informatics, Debrecen University, Hungary.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.klondike.model;
+
+import hu.unideb.inf.klondike.component.Card;
+import java.util.SplittableRandom;
+
+/**
+ * This class holds the random keys of the Zobrist hash of a {@code Game}
+ * position. The hash of a position is the exclusive or of the keys of its
+ * parts:
+ * <ul>
+ * <li> every {@code Card} of the {@code Tableau} piles, by pile, position and
+ *      face state;
+ * <li> the top {@code Card} of every {@code Foundation} pile;
+ * <li> every adjacent pair of {@code Card} objects on the {@code Talon}, so
+ *      removing a {@code Card} from the middle changes only three keys; and
+ * <li> the pointer and the number of available {@code Card} objects of the
+ *      {@code Talon}.
+ * </ul>
+ * The keys are generated from a fixed seed, so a position has the same hash in
+ * every run.
+ */
+final class Zobrist {
+
+    /**
+     * The maximum number of {@code Card} objects on a {@code Tableau} pile: six
+     * <i>DOWNSIDE</i> cards and a whole suit.
+     */
+    static final int TABLEAU_HEIGHT = 19;
+
+    private static final long[] TABLEAU = new long[7 * TABLEAU_HEIGHT * 2 * Card.COUNT];
+    private static final long[] FOUNDATION = new long[4 * (Card.COUNT + 1)];
+    private static final long[] TALON = new long[(Card.COUNT + 1) * (Card.COUNT + 1)];
+    private static final long[] TALON_STATE = new long[25 * 4];
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x4B4C4F4E44494B45L);
+        for (long[] keys : new long[][]{TABLEAU, FOUNDATION, TALON, TALON_STATE}) {
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = random.nextLong();
+            }
+        }
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * This method returns the key of a {@code Card} on a {@code Tableau} pile.
+     *
+     * @param pile index of the {@code Tableau} pile
+     * @param index index of the {@code Card} on the pile
+     * @param code code of the {@code Card}
+     * @param downside true if the {@code Card} is <i>DOWNSIDE</i>
+     * @return the key of the {@code Card}
+     */
+    static long tableau(int pile, int index, int code, boolean downside) {
+        return TABLEAU[((pile * TABLEAU_HEIGHT + index) * 2 + (downside ? 1 : 0)) * Card.COUNT + code];
+    }
+
+    /**
+     * This method returns the key of a {@code Foundation} pile.
+     *
+     * @param pile index of the {@code Foundation} pile
+     * @param top code of the top {@code Card}, or -1 if the pile is empty
+     * @return the key of the {@code Foundation} pile
+     */
+    static long foundation(int pile, int top) {
+        return FOUNDATION[pile * (Card.COUNT + 1) + top + 1];
+    }
+
+    /**
+     * This method returns the key of two adjacent {@code Card} objects on the
+     * {@code Talon}. The beginning and the end of the {@code Talon} are
+     * represented by -1.
+     *
+     * @param code code of the first {@code Card}, or -1
+     * @param next code of the {@code Card} after it, or -1
+     * @return the key of the adjacent {@code Card} objects
+     */
+    static long talon(int code, int next) {
+        return TALON[(code + 1) * (Card.COUNT + 1) + next + 1];
+    }
+
+    /**
+     * This method returns the key of the state of the {@code Talon}.
+     *
+     * @param pointer index of the first visible {@code Card}
+     * @param available the number of visible {@code Card} objects
+     * @return the key of the state of the {@code Talon}
+     */
+    static long talonState(int pointer, int available) {
+        return TALON_STATE[pointer * 4 + available];
+    }
+
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright 2017 Faculty of Informatics, Debrecen University, Hungary.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.klondike.solver;
+
+import hu.unideb.inf.klondike.model.Game;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class analyzes the solvability of a range of seeded deals on every core
+ * of the machine.
+ * <p>
+ * Every seed of the range is dealt by
+ * {@link hu.unideb.inf.klondike.model.Game#newGame(long)} and solved by a
+ * {@code Solver} with the per-deal budget. The work is split over a
+ * {@code ForkJoinPool}, and every worker thread has its own {@code Solver}.
+ * The results are appended to a CSV file as the chunks of seeds finish, one
+ * line per seed in the <i>seed,verdict,nodes,ms</i> format, so the lines are
+ * not ordered by seed.
+ * <p>
+ * The analysis is resumable: the seeds already in the output file are skipped,
+ * and a line left unfinished by an interrupted run is removed first.
+ * <p>
+ * Usage:
+ * {@code BatchSolver <first seed> <last seed> <output file> [node limit] [time limit in ms] [threads]}
+ *
+ * @see hu.unideb.inf.klondike.solver.Solver
+ */
+public class BatchSolver {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchSolver.class);
+
+    /**
+     * The header line of the output file.
+     */
+    public static final String HEADER = "seed,verdict,nodes,ms";
+
+    private static final long PROGRESS_INTERVAL = 10_000;
+
+    private final long nodeLimit;
+    private final long timeLimit;
+    private final int threads;
+    private final ThreadLocal<Solver> solvers;
+    private final ThreadLocal<Game> games;
+
+    /**
+     * Constructor for creating a {@code BatchSolver} with the specified
+     * per-deal budget.
+     *
+     * @param nodeLimit the maximum number of visited positions per deal
+     * @param timeLimit the maximum running time per deal in milliseconds, or
+     * 0 for no time limit
+     * @param threads the number of worker threads
+     * @throws IllegalArgumentException if the number of threads is not
+     * positive
+     */
+    public BatchSolver(long nodeLimit, long timeLimit, int threads) throws IllegalArgumentException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("The number of threads must be positive!");
+        }
+        this.nodeLimit = nodeLimit;
+        this.timeLimit = timeLimit;
+        this.threads = threads;
+        solvers = ThreadLocal.withInitial(() -> new Solver(this.nodeLimit, this.timeLimit));
+        games = ThreadLocal.withInitial(Game::new);
+    }
+
+    /**
+     * This method analyzes the deals of the specified seed range and appends
+     * the results to the specified file. The seeds already in the file are
+     * skipped.
+     *
+     * @param first the first seed of the range
+     * @param last the last seed of the range, inclusive
+     * @param output the output file
+     * @return the number of deals of the range by verdict, indexed by the
+     * ordinal of {@code SolverResult.STATUS}, including the ones of the
+     * previous runs
+     * @throws IOException if an I/O error occurs
+     * @throws IllegalArgumentException if the range is empty or too large
+     */
+    public long[] run(long first, long last, Path output) throws IOException, IllegalArgumentException {
+        int size = SeedRange.size(first, last);
+        AtomicLongArray verdicts = new AtomicLongArray(SolverResult.STATUS.values().length);
+        BitSet done = resume(first, last, output, verdicts);
+        long remaining = size - done.cardinality();
+        logger.info("Solving {} of the deals {}..{} on {} threads.", remaining, first, last, threads);
+
+        long start = System.currentTimeMillis();
+        AtomicLong finished = new AtomicLong();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try (Writer writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            if (Files.size(output) == 0) {
+                writer.write(HEADER);
+                writer.write('\n');
+                writer.flush();
+            }
+            pool.invoke(new SeedRange(first, size,
+                    (base, from, to) -> solveChunk(base, from, to, done, writer, verdicts, finished)));
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        } finally {
+            pool.shutdown();
+        }
+
+        long[] result = new long[verdicts.length()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = verdicts.get(i);
+        }
+        long millis = System.currentTimeMillis() - start;
+        logger.info("Solved {} deals in {} ms.", finished.get(), millis);
+        return result;
+    }
+
+    /**
+     * Reads the seeds already solved from the output file, and removes the
+     * unfinished last line of it.
+     */
+    private static BitSet resume(long first, long last, Path output, AtomicLongArray verdicts) throws IOException {
+        BitSet done = new BitSet();
+        if (!Files.exists(output)) {
+            return done;
+        }
+        try (FileChannel channel = FileChannel.open(output, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            ByteBuffer buffer = ByteBuffer.allocate(1);
+            long end = size;
+            while (end > 0) {
+                buffer.clear();
+                channel.read(buffer, end - 1);
+                if (buffer.get(0) == '\n') {
+                    break;
+                }
+                end--;
+            }
+            if (end < size) {
+                channel.truncate(end);
+                logger.warn("Removed the unfinished last line of {}.", output);
+            }
+        }
+        try (BufferedReader reader = Files.newBufferedReader(output, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.equals(HEADER)) {
+                    continue;
+                }
+                String[] fields = line.split(",");
+                long seed = Long.parseLong(fields[0]);
+                if (seed >= first && seed <= last && !done.get((int) (seed - first))) {
+                    done.set((int) (seed - first));
+                    verdicts.incrementAndGet(SolverResult.STATUS.valueOf(fields[1]).ordinal());
+                }
+            }
+        }
+        if (!done.isEmpty()) {
+            logger.info("Resuming: {} deals of the range are already solved.", done.cardinality());
+        }
+        return done;
+    }
+
+    /**
+     * Solves the deals of a part of the range which are not solved yet, and
+     * appends their lines to the output file at once.
+     */
+    private void solveChunk(long first, int from, int to, BitSet done, Writer writer,
+            AtomicLongArray verdicts, AtomicLong finished) {
+        Solver solver = solvers.get();
+        Game game = games.get();
+        StringBuilder sb = new StringBuilder();
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            if (done.get(i)) {
+                continue;
+            }
+            long seed = first + i;
+            game.newGame(seed);
+            SolverResult result = solver.solve(game);
+            verdicts.incrementAndGet(result.getStatus().ordinal());
+            sb.append(seed).append(',')
+                    .append(result.getStatus()).append(',')
+                    .append(result.getNodes()).append(',')
+                    .append(result.getMillis()).append('\n');
+            count++;
+        }
+        if (count == 0) {
+            return;
+        }
+        try {
+            synchronized (writer) {
+                writer.write(sb.toString());
+                writer.flush();
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        long total = finished.addAndGet(count);
+        if (total / PROGRESS_INTERVAL != (total - count) / PROGRESS_INTERVAL) {
+            logger.info("{} deals solved.", total);
+        }
+    }
+
+    /**
+     * Program entry point of the batch analysis.
+     *
+     * @param args command line args: the first and the last seed, the output
+     * file, and optionally the node limit, the time limit in milliseconds and
+     * the number of threads
+     * @throws IOException if an I/O error occurs
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: BatchSolver <first seed> <last seed> <output file> [node limit] [time limit in ms] [threads]");
+            System.exit(1);
+        }
+        long first = Long.parseLong(args[0]);
+        long last = Long.parseLong(args[1]);
+        Path output = Paths.get(args[2]);
+        long nodeLimit = args.length > 3 ? Long.parseLong(args[3]) : 100_000;
+        long timeLimit = args.length > 4 ? Long.parseLong(args[4]) : 0;
+        int threads = args.length > 5 ? Integer.parseInt(args[5]) : Runtime.getRuntime().availableProcessors();
+
+        long[] verdicts = new BatchSolver(nodeLimit, timeLimit, threads).run(first, last, output);
+        System.out.printf("%d solved, %d unsolvable, %d unknown%n",
+                verdicts[SolverResult.STATUS.SOLVED.ordinal()],
+                verdicts[SolverResult.STATUS.UNSOLVABLE.ordinal()],
+                verdicts[SolverResult.STATUS.UNKNOWN.ordinal()]);
+    }
+
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2017 Faculty of Informatics, Debrecen University, Hungary.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.klondike.solver;
+
+import java.util.Objects;
+
+/**
+ * This class represents the difficulty rating of a deal, derived from the
+ * {@code Solver} run on it: the verdict, the length of the found solution,
+ * the number of visited positions and the number of dead ends.
+ * <p>
+ * A rating is packed into one {@code long} to be stored in the
+ * {@link hu.unideb.inf.klondike.solver.DifficultyService}: the length of the
+ * solution is saturated at {@code MAX_LENGTH}, the numbers of the nodes and
+ * the dead ends at {@code MAX_COUNT}.
+ *
+ * @see hu.unideb.inf.klondike.solver.SolverResult
+ */
+public final class DealRating {
+
+    /**
+     * Enum for representing the difficulty level of a solved deal, by the
+     * number of positions the {@code Solver} has visited to win it.
+     */
+    public static enum LEVEL {
+        /**
+         * Less than 1 000 positions.
+         */
+        EASY,
+        /**
+         * Less than 10 000 positions.
+         */
+        MEDIUM,
+        /**
+         * Less than 100 000 positions.
+         */
+        HARD,
+        /**
+         * At least 100 000 positions.
+         */
+        EXPERT
+    }
+
+    /**
+     * The maximal stored length of a solution.
+     */
+    public static final int MAX_LENGTH = (1 << 12) - 1;
+
+    /**
+     * The maximal stored number of nodes and dead ends.
+     */
+    public static final long MAX_COUNT = (1L << 25) - 1;
+
+    private final SolverResult.STATUS status;
+    private final int length;
+    private final long nodes;
+    private final long deadEnds;
+
+    /**
+     * Constructor for creating a {@code DealRating} instance.
+     *
+     * @param status the verdict of the {@code Solver}
+     * @param length the number of moves of the found solution, 0 if the deal
+     * is not solved
+     * @param nodes the number of visited positions
+     * @param deadEnds the number of dead ends
+     * @throws NullPointerException if the status is null
+     * @throws IllegalArgumentException if a number is negative
+     */
+    public DealRating(SolverResult.STATUS status, int length, long nodes, long deadEnds) throws NullPointerException, IllegalArgumentException {
+        if (length < 0 || nodes < 0 || deadEnds < 0) {
+            throw new IllegalArgumentException("The numbers of a rating can not be negative!");
+        }
+        this.status = Objects.requireNonNull(status);
+        this.length = length;
+        this.nodes = nodes;
+        this.deadEnds = deadEnds;
+    }
+
+    /**
+     * This method returns the rating of the specified result of the
+     * {@code Solver}.
+     *
+     * @param result the result of the {@code Solver} run on the deal
+     * @return the rating of the deal
+     */
+    public static DealRating of(SolverResult result) {
+        return new DealRating(result.getStatus(), result.getMoves().length, result.getNodes(), result.getDeadEnds());
+    }
+
+    /**
+     * This method returns the verdict of the {@code Solver}.
+     *
+     * @return the verdict of the {@code Solver}
+     */
+    public SolverResult.STATUS getStatus() {
+        return status;
+    }
+
+    /**
+     * This method returns the number of moves of the solution found by the
+     * {@code Solver}, including the turns of the {@code Talon}. It is an
+     * upper bound of the shortest solution, and 0 unless the deal is solved.
+     *
+     * @return the length of the solution
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * This method returns the number of positions the {@code Solver} has
+     * visited.
+     *
+     * @return the number of visited positions
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * This method returns the number of positions the {@code Solver} has
+     * backtracked from.
+     *
+     * @return the number of dead ends
+     */
+    public long getDeadEnds() {
+        return deadEnds;
+    }
+
+    /**
+     * This method returns the difficulty level of a solved deal.
+     *
+     * @return the difficulty level, or null if the deal is not solved
+     */
+    public LEVEL getLevel() {
+        if (status != SolverResult.STATUS.SOLVED) {
+            return null;
+        }
+        if (nodes < 1_000) {
+            return LEVEL.EASY;
+        } else if (nodes < 10_000) {
+            return LEVEL.MEDIUM;
+        } else if (nodes < 100_000) {
+            return LEVEL.HARD;
+        } else {
+            return LEVEL.EXPERT;
+        }
+    }
+
+    /**
+     * Packs the rating into a nonzero {@code long}: the ordinal of the status
+     * plus one in the bits 0-1, the length in the bits 2-13, the nodes in the
+     * bits 14-38 and the dead ends in the bits 39-63.
+     */
+    long pack() {
+        return (status.ordinal() + 1)
+                | (long) Math.min(length, MAX_LENGTH) << 2
+                | Math.min(nodes, MAX_COUNT) << 14
+                | Math.min(deadEnds, MAX_COUNT) << 39;
+    }
+
+    /**
+     * Unpacks a rating packed by the {@code pack} method.
+     */
+    static DealRating unpack(long packed) {
+        return new DealRating(SolverResult.STATUS.values()[(int) (packed & 0x3) - 1],
+                (int) (packed >>> 2 & MAX_LENGTH),
+                packed >>> 14 & MAX_COUNT,
+                packed >>> 39 & MAX_COUNT);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof DealRating)) {
+            return false;
+        }
+        DealRating other = (DealRating) obj;
+        return status == other.status && length == other.length && nodes == other.nodes && deadEnds == other.deadEnds;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(status, length, nodes, deadEnds);
+    }
+
+    /**
+     * Returns a {@code String} representation of the rating.
+     *
+     * @return a {@code String} representation of the rating
+     */
+    @Override
+    public String toString() {
+        return "DealRating{"
+                + "status=" + status
+                + ", level=" + getLevel()
+                + ", length=" + length
+                + ", nodes=" + nodes
+                + ", deadEnds=" + deadEnds
+                + '}';
+    }
+
+}
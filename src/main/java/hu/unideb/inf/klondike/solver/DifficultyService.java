@@ -0,0 +1,276 @@
+/*
+ * Copyright 2017 Faculty of Informatics, Debrecen University, Hungary.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.klondike.solver;
+
+import hu.unideb.inf.klondike.model.Game;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class rates the difficulty of seeded deals, and answers the ratings
+ * from a persistent index.
+ * <p>
+ * A deal is dealt by {@link hu.unideb.inf.klondike.model.Game#newGame(long)}
+ * and solved by a {@code Solver} with the node budget of the service, and its
+ * {@link hu.unideb.inf.klondike.solver.DealRating} is stored in the index file
+ * by its seed. A stored rating is answered by one lookup in the memory-mapped
+ * hash table of the index, without solving the deal again, also after the
+ * service has been reopened.
+ * <p>
+ * Ranges of seeds can be precomputed on every core of the machine: the range
+ * is split over a {@code ForkJoinPool}, every worker thread has its own
+ * {@code Solver}, and the seeds already rated are skipped, so the index can be
+ * extended incrementally and an interrupted precomputation can be resumed.
+ * <p>
+ * Usage:
+ * {@code DifficultyService <index file> <first seed> <last seed> [node limit] [threads]}
+ *
+ * @see hu.unideb.inf.klondike.solver.Solver
+ */
+public class DifficultyService implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(DifficultyService.class);
+
+    /**
+     * The node budget of a deal, if it is not specified.
+     */
+    public static final long DEFAULT_NODE_LIMIT = 100_000;
+
+    private static final long PROGRESS_INTERVAL = 10_000;
+
+    private final RatingIndex index;
+    private final long nodeLimit;
+    private final ThreadLocal<Solver> solvers;
+    private final ThreadLocal<Game> games;
+
+    private DifficultyService(RatingIndex index, long nodeLimit) {
+        this.index = index;
+        this.nodeLimit = nodeLimit;
+        solvers = ThreadLocal.withInitial(() -> new Solver(this.nodeLimit, 0));
+        games = ThreadLocal.withInitial(Game::new);
+    }
+
+    /**
+     * This method opens the service on the specified index file, which is
+     * created if it does not exist, with the {@code DEFAULT_NODE_LIMIT}
+     * budget.
+     *
+     * @param file the index file
+     * @return the opened service
+     * @throws IOException if the file is not a valid index, or an I/O error
+     * occurs
+     */
+    public static DifficultyService open(Path file) throws IOException {
+        return open(file, DEFAULT_NODE_LIMIT);
+    }
+
+    /**
+     * This method opens the service on the specified index file, which is
+     * created if it does not exist, with the specified budget. The budget
+     * applies to the deals rated from now on; the stored ratings are kept.
+     *
+     * @param file the index file
+     * @param nodeLimit the maximum number of visited positions per deal
+     * @return the opened service
+     * @throws IOException if the file is not a valid index, or an I/O error
+     * occurs
+     * @throws IllegalArgumentException if the budget is not positive
+     */
+    public static DifficultyService open(Path file, long nodeLimit) throws IOException, IllegalArgumentException {
+        if (nodeLimit <= 0) {
+            throw new IllegalArgumentException("The node limit must be positive: " + nodeLimit);
+        }
+        return new DifficultyService(RatingIndex.open(file, RatingIndex.DEFAULT_SLOTS), nodeLimit);
+    }
+
+    /**
+     * This method returns the number of rated deals.
+     *
+     * @return the number of rated deals
+     */
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * This method returns the stored rating of the specified deal, without
+     * solving it.
+     *
+     * @param seed the seed of the deal
+     * @return the rating of the deal, or null if it has not been rated yet
+     */
+    public DealRating lookup(long seed) {
+        long packed = index.get(seed);
+        return packed != 0 ? DealRating.unpack(packed) : null;
+    }
+
+    /**
+     * This method returns the rating of the specified deal. A deal which has
+     * not been rated yet is solved on the calling thread, and its rating is
+     * stored.
+     *
+     * @param seed the seed of the deal
+     * @return the rating of the deal
+     * @throws IOException if the rating can not be stored
+     */
+    public DealRating rate(long seed) throws IOException {
+        DealRating rating = lookup(seed);
+        return rating != null ? rating : update(seed);
+    }
+
+    /**
+     * This method solves the specified deal on the calling thread, and stores
+     * its rating, replacing the previous one, e.g. to rate an <i>UNKNOWN</i>
+     * deal again with a larger budget.
+     *
+     * @param seed the seed of the deal
+     * @return the new rating of the deal
+     * @throws IOException if the rating can not be stored
+     */
+    public DealRating update(long seed) throws IOException {
+        DealRating rating = solve(seed);
+        index.put(seed, rating.pack());
+        return rating;
+    }
+
+    /**
+     * This method rates the deals of the specified seed range which have not
+     * been rated yet, on the specified number of threads.
+     *
+     * @param first the first seed of the range
+     * @param last the last seed of the range, inclusive
+     * @param threads the number of worker threads
+     * @return the number of newly rated deals
+     * @throws IOException if the ratings can not be stored
+     * @throws IllegalArgumentException if the range is empty or too large,
+     * or the number of threads is not positive
+     */
+    public long precompute(long first, long last, int threads) throws IOException, IllegalArgumentException {
+        int count = SeedRange.size(first, last);
+        if (threads < 1) {
+            throw new IllegalArgumentException("The number of threads must be positive!");
+        }
+        logger.info("Rating the deals {}..{} on {} threads.", first, last, threads);
+        long start = System.currentTimeMillis();
+        AtomicLong rated = new AtomicLong();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.invoke(new SeedRange(first, count, (base, from, to) -> rateChunk(base, from, to, rated)));
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        } finally {
+            pool.shutdown();
+        }
+        logger.info("Rated {} deals in {} ms, {} deals are rated in total.", rated.get(), System.currentTimeMillis() - start, size());
+        return rated.get();
+    }
+
+    /**
+     * This method forces the ratings to the disk and closes the index.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        index.close();
+    }
+
+    private DealRating solve(long seed) {
+        Game game = games.get();
+        game.newGame(seed);
+        return DealRating.of(solvers.get().solve(game));
+    }
+
+    /**
+     * Rates the deals of a part of the range which are not in the index yet,
+     * and stores their ratings at once.
+     */
+    private void rateChunk(long first, int from, int to, AtomicLong rated) {
+        long[] seeds = new long[to - from];
+        long[] ratings = new long[to - from];
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            long seed = first + i;
+            if (index.get(seed) == 0) {
+                seeds[count] = seed;
+                ratings[count] = solve(seed).pack();
+                count++;
+            }
+        }
+        if (count == 0) {
+            return;
+        }
+        try {
+            synchronized (index) {
+                for (int i = 0; i < count; i++) {
+                    index.put(seeds[i], ratings[i]);
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        long total = rated.addAndGet(count);
+        if (total / PROGRESS_INTERVAL != (total - count) / PROGRESS_INTERVAL) {
+            logger.info("{} deals rated.", total);
+        }
+    }
+
+    /**
+     * Program entry point of the precomputation.
+     *
+     * @param args command line args: the index file, the first and the last
+     * seed, and optionally the node limit and the number of threads
+     * @throws IOException if an I/O error occurs
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: DifficultyService <index file> <first seed> <last seed> [node limit] [threads]");
+            System.exit(1);
+        }
+        Path file = Paths.get(args[0]);
+        long first = Long.parseLong(args[1]);
+        long last = Long.parseLong(args[2]);
+        long nodeLimit = args.length > 3 ? Long.parseLong(args[3]) : DEFAULT_NODE_LIMIT;
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+
+        try (DifficultyService service = open(file, nodeLimit)) {
+            service.precompute(first, last, threads);
+            Map<DealRating.LEVEL, Long> levels = new EnumMap<>(DealRating.LEVEL.class);
+            long unsolvable = 0;
+            long unknown = 0;
+            for (long seed = first; seed <= last; seed++) {
+                DealRating rating = service.lookup(seed);
+                if (rating.getStatus() == SolverResult.STATUS.SOLVED) {
+                    levels.merge(rating.getLevel(), 1L, Long::sum);
+                } else if (rating.getStatus() == SolverResult.STATUS.UNSOLVABLE) {
+                    unsolvable++;
+                } else {
+                    unknown++;
+                }
+            }
+            System.out.printf("%s, %d unsolvable, %d unknown%n", levels, unsolvable, unknown);
+        }
+    }
+
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2017 Faculty of Informatics, Debrecen University, Hungary.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.klondike.solver;
+
+import hu.unideb.inf.klondike.model.Move;
+
+/**
+ * This class represents the result of a {@code HintEngine}: the best move it
+ * has found, the verdict of the search about the position, and the speed of
+ * the search.
+ *
+ * @see hu.unideb.inf.klondike.solver.HintEngine
+ */
+public class Hint {
+
+    private final int move;
+    private final SolverResult.STATUS status;
+    private final long nodes;
+    private final long nanos;
+
+    /**
+     * Constructor for creating a {@code Hint} instance.
+     *
+     * @param move the packed move, or -1 if there is no useful move
+     * @param status the verdict of the search about the position
+     * @param nodes the number of visited positions
+     * @param nanos the running time of the search in nanoseconds
+     */
+    public Hint(int move, SolverResult.STATUS status, long nodes, long nanos) {
+        this.move = move;
+        this.status = status;
+        this.nodes = nodes;
+        this.nanos = nanos;
+    }
+
+    /**
+     * This method returns the best move found.
+     *
+     * @see hu.unideb.inf.klondike.model.Move
+     * @return the packed move, or -1 if there is no useful move
+     */
+    public int getMove() {
+        return move;
+    }
+
+    /**
+     * This method returns the verdict of the search: <i>SOLVED</i> if the
+     * move leads to a won game.
+     *
+     * @return the verdict of the search
+     */
+    public SolverResult.STATUS getStatus() {
+        return status;
+    }
+
+    /**
+     * This method returns the number of visited positions.
+     *
+     * @return the number of visited positions
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * This method returns the running time of the search in milliseconds.
+     *
+     * @return the running time of the search
+     */
+    public long getMillis() {
+        return nanos / 1_000_000;
+    }
+
+    /**
+     * This method returns the number of positions visited per second.
+     *
+     * @return the speed of the search
+     */
+    public long getNodesPerSecond() {
+        return nanos == 0 ? 0 : nodes * 1_000_000_000 / nanos;
+    }
+
+    @Override
+    public String toString() {
+        return "Hint{"
+                + "move=" + (move < 0 ? "none" : Move.toString(move))
+                + ", status=" + status
+                + ", nodes=" + nodes
+                + ", millis=" + getMillis()
+                + ", nodesPerSecond=" + getNodesPerSecond()
+                + '}';
+    }
+
+}
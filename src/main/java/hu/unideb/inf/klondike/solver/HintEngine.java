@@ -0,0 +1,166 @@
+/*
+ * Copyright 2017 Faculty of Informatics, Debrecen University, Hungary.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.klondike.solver;
+
+import hu.unideb.inf.klondike.model.Game;
+import hu.unideb.inf.klondike.model.GameState;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class searches for the best move of a {@code Game} on a background
+ * thread, within a time budget.
+ * <p>
+ * The search runs a {@code Solver} on a {@code GameState} of the position,
+ * taken on the calling thread, so it never touches the game which is being
+ * played. If the solver finds a won game within the budget, its first move is
+ * the hint. Otherwise the most promising move in the order of the solver is
+ * given.
+ * <p>
+ * Only one search runs at a time: a new request, or a call of the
+ * {@code cancel} method, cancels the pending one, which should be done
+ * whenever the position changes. The returned futures are completed on the
+ * callback executor, which is the application thread of the user interface,
+ * and a cancelled one is never completed with a result. If the search fails,
+ * the future is completed exceptionally with the thrown exception.
+ *
+ * @see hu.unideb.inf.klondike.solver.Hint
+ */
+public class HintEngine implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(HintEngine.class);
+
+    /**
+     * The default time budget of a search in milliseconds.
+     */
+    public static final long DEFAULT_BUDGET = 50;
+
+    private final ExecutorService executor;
+    private final Executor callbackExecutor;
+    private final Solver solver = new Solver(Long.MAX_VALUE, DEFAULT_BUDGET);
+    private volatile long budget = DEFAULT_BUDGET;
+    private CompletableFuture<Hint> pending;
+
+    /**
+     * Constructor for creating a {@code HintEngine} instance.
+     *
+     * @param callbackExecutor the executor of the completion of the futures
+     */
+    public HintEngine(Executor callbackExecutor) {
+        this.callbackExecutor = callbackExecutor;
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "klondike-hint");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * This method returns the time budget of a search in milliseconds.
+     *
+     * @return the time budget of a search
+     */
+    public long getBudget() {
+        return budget;
+    }
+
+    /**
+     * This method sets the time budget of a search in milliseconds.
+     *
+     * @param budget the time budget of a search
+     * @throws IllegalArgumentException if the budget is not positive
+     */
+    public void setBudget(long budget) throws IllegalArgumentException {
+        if (budget <= 0) {
+            throw new IllegalArgumentException("The time budget must be positive: " + budget);
+        }
+        this.budget = budget;
+    }
+
+    /**
+     * This method starts searching for the best move of the actual position
+     * of the specified game, and cancels the pending search.
+     *
+     * @param game the game to search
+     * @return the future of the hint
+     * @throws IllegalStateException if the game has not been started yet
+     */
+    public CompletableFuture<Hint> hint(Game game) throws IllegalStateException {
+        cancel();
+        GameState state = GameState.of(game);
+        CompletableFuture<Hint> result = new CompletableFuture<>();
+        pending = result;
+        executor.execute(() -> {
+            if (result.isDone()) {
+                return;
+            }
+            Hint hint;
+            try {
+                hint = search(state);
+            } catch (RuntimeException ex) {
+                callbackExecutor.execute(() -> result.completeExceptionally(ex));
+                return;
+            }
+            callbackExecutor.execute(() -> result.complete(hint));
+        });
+        return result;
+    }
+
+    /**
+     * This method cancels the pending search, if there is one.
+     */
+    public void cancel() {
+        if (pending != null && pending.cancel(false)) {
+            solver.cancel();
+        }
+        pending = null;
+    }
+
+    /**
+     * This method cancels the pending search and stops the background
+     * thread.
+     */
+    @Override
+    public void close() {
+        cancel();
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                logger.warn("The hint search has not stopped in time!");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Hint search(GameState state) {
+        long start = System.nanoTime();
+        solver.setTimeLimit(budget);
+        SolverResult result = solver.solve(state);
+        int move = result.getStatus() == SolverResult.STATUS.SOLVED && result.getMoves().length > 0
+                ? result.getMoves()[0]
+                : solver.firstMove(state);
+        Hint hint = new Hint(move, result.getStatus(), result.getNodes(), System.nanoTime() - start);
+        logger.debug("Hint found: {}", hint);
+        return hint;
+    }
+
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2017 Faculty of Informatics, Debrecen University, Hungary.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.klondike.solver;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stores packed deal ratings by seed in an open-addressing hash table of one
+ * memory-mapped file.
+ * <p>
+ * The file starts with a header of 16 bytes: the magic number {@code KLDI},
+ * the version of the format and the number of slots, which is a power of two.
+ * Every slot of 16 bytes holds a seed and its packed rating, 0 meaning an
+ * empty slot. A seed is looked up by linear probing from the slot of its
+ * hash, so a lookup reads one or two slots of the mapped file. When the table
+ * gets half full, it is rehashed into a new file of twice as many slots,
+ * which replaces the old one atomically.
+ */
+final class RatingIndex implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(RatingIndex.class);
+
+    static final int DEFAULT_SLOTS = 1 << 16;
+
+    private static final int MAGIC = 0x4B4C4449;
+    private static final short VERSION = 1;
+    private static final int HEADER = 16;
+    private static final int SLOT = 16;
+    private static final int MAX_SLOTS = 1 << 26;
+
+    private final Path file;
+    private FileChannel channel;
+    private MappedByteBuffer map;
+    private int slots;
+    private int size;
+
+    private RatingIndex(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Opens the index, or creates it with the given number of slots, rounded
+     * up to a power of two. The rated seeds of an existing index are counted
+     * by scanning it, so a crash can not leave a wrong count behind.
+     */
+    static RatingIndex open(Path file, int slots) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        RatingIndex index = new RatingIndex(file);
+        if (Files.exists(file) && Files.size(file) > 0) {
+            index.map(readHeader(file));
+            for (int slot = 0; slot < index.slots; slot++) {
+                if (index.map.getLong(HEADER + slot * SLOT + 8) != 0) {
+                    index.size++;
+                }
+            }
+        } else {
+            index.slots = Math.min(Integer.highestOneBit(Math.max(slots, 2) - 1) << 1, MAX_SLOTS);
+            index.create(file);
+            index.map(index.slots);
+        }
+        logger.info("Rating index {} opened with {} of {} slots used.", file, index.size, index.slots);
+        return index;
+    }
+
+    /**
+     * Returns the number of rated seeds.
+     */
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Returns the packed rating of the seed, or 0 if it is not rated.
+     */
+    synchronized long get(long seed) {
+        int mask = slots - 1;
+        for (int slot = hash(seed) & mask;; slot = slot + 1 & mask) {
+            int position = HEADER + slot * SLOT;
+            long rating = map.getLong(position + 8);
+            if (rating == 0 || map.getLong(position) == seed) {
+                return rating;
+            }
+        }
+    }
+
+    /**
+     * Stores the packed rating of the seed, replacing the previous one.
+     */
+    synchronized void put(long seed, long rating) throws IOException {
+        if (rating == 0) {
+            throw new IllegalArgumentException("A packed rating can not be 0!");
+        }
+        if ((size + 1) * 2L > slots) {
+            grow();
+        }
+        if (insert(map, slots, seed, rating)) {
+            size++;
+        }
+    }
+
+    /**
+     * Forces the changes to the disk and closes the file.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        map.force();
+        channel.close();
+    }
+
+    /**
+     * Inserts or replaces a rating, and returns true if the seed is new. The
+     * seed is written before the rating, so a torn slot is empty.
+     */
+    private static boolean insert(MappedByteBuffer map, int slots, long seed, long rating) {
+        int mask = slots - 1;
+        for (int slot = hash(seed) & mask;; slot = slot + 1 & mask) {
+            int position = HEADER + slot * SLOT;
+            if (map.getLong(position + 8) == 0) {
+                map.putLong(position, seed);
+                map.putLong(position + 8, rating);
+                return true;
+            }
+            if (map.getLong(position) == seed) {
+                map.putLong(position + 8, rating);
+                return false;
+            }
+        }
+    }
+
+    private static int hash(long seed) {
+        long h = seed * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ h >>> 32);
+    }
+
+    /**
+     * Rehashes the table into a new file of twice as many slots, and moves it
+     * over the actual one.
+     */
+    private void grow() throws IOException {
+        if (slots >= MAX_SLOTS) {
+            throw new IOException("The rating index is full!");
+        }
+        int grown = slots * 2;
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        RatingIndex target = new RatingIndex(temporary);
+        target.slots = grown;
+        target.create(temporary);
+        target.map(grown);
+        for (int slot = 0; slot < slots; slot++) {
+            int position = HEADER + slot * SLOT;
+            long rating = map.getLong(position + 8);
+            if (rating != 0) {
+                insert(target.map, grown, map.getLong(position), rating);
+            }
+        }
+        target.close();
+        channel.close();
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        map(grown);
+        logger.debug("Rating index {} grown to {} slots.", file, grown);
+    }
+
+    private void create(Path path) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER);
+        header.putInt(MAGIC).putShort(VERSION).putShort((short) 0).putInt(slots).flip();
+        try (FileChannel created = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (header.hasRemaining()) {
+                created.write(header);
+            }
+        }
+    }
+
+    private void map(int slots) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            map = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER + (long) slots * SLOT);
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+        this.slots = slots;
+    }
+
+    private static int readHeader(Path file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (header.hasRemaining() && channel.read(header) > 0) {
+            }
+            header.flip();
+            if (header.remaining() < HEADER || header.getInt() != MAGIC) {
+                throw new IOException(file + " is not a rating index!");
+            }
+            short version = header.getShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported rating index version: " + version);
+            }
+            header.getShort();
+            int slots = header.getInt();
+            if (slots < 2 || slots > MAX_SLOTS || Integer.bitCount(slots) != 1 || HEADER + (long) slots * SLOT > channel.size()) {
+                throw new IOException("The rating index is corrupted: invalid header!");
+            }
+            return slots;
+        }
+    }
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2017 Faculty of Informatics, Debrecen University, Hungary.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.klondike.solver;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class splits a range of seeds over a {@code ForkJoinPool}. The range is
+ * halved until the parts are not longer than {@code CHUNK} seeds, and every
+ * part is processed by the specified {@code Chunk} on a worker thread.
+ * <p>
+ * The seeds are addressed by their offset from the first seed of the range,
+ * so the offsets of a range of at most {@code Integer.MAX_VALUE} seeds fit in
+ * an {@code int}.
+ */
+final class SeedRange extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int CHUNK = 64;
+
+    /**
+     * The processing of a part of the range, called on a worker thread.
+     */
+    @FunctionalInterface
+    interface Chunk {
+
+        /**
+         * This method processes the seeds of the specified part of the range.
+         *
+         * @param first the first seed of the whole range
+         * @param from offset of the first seed of the part
+         * @param to offset after the last seed of the part
+         */
+        void process(long first, int from, int to);
+
+    }
+
+    private final long first;
+    private final int from;
+    private final int to;
+    private final transient Chunk chunk;
+
+    /**
+     * Constructor for creating a {@code SeedRange} of the specified number of
+     * seeds from the specified first seed.
+     *
+     * @param first the first seed of the range
+     * @param size the number of seeds of the range
+     * @param chunk the processing of a part of the range
+     */
+    SeedRange(long first, int size, Chunk chunk) {
+        this(first, 0, size, chunk);
+    }
+
+    private SeedRange(long first, int from, int to, Chunk chunk) {
+        this.first = first;
+        this.from = from;
+        this.to = to;
+        this.chunk = chunk;
+    }
+
+    /**
+     * This method returns the number of seeds of the specified range.
+     *
+     * @param first the first seed of the range
+     * @param last the last seed of the range, inclusive
+     * @return the number of seeds of the range
+     * @throws IllegalArgumentException if the range is empty, or it has more
+     * than {@code Integer.MAX_VALUE} seeds
+     */
+    static int size(long first, long last) throws IllegalArgumentException {
+        // The difference overflows for ranges wider than Long.MAX_VALUE.
+        if (last < first || last - first < 0 || last - first >= Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid seed range: " + first + ".." + last);
+        }
+        return (int) (last - first + 1);
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from > CHUNK) {
+            int middle = (from + to) >>> 1;
+            invokeAll(new SeedRange(first, from, middle, chunk), new SeedRange(first, middle, to, chunk));
+            return;
+        }
+        chunk.process(first, from, to);
+    }
+
+}
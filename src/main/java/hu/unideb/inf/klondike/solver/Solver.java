@@ -0,0 +1,335 @@
+/*
+ * Copyright 2017 Faculty of Informatics, Debrecen University, Hungary.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.klondike.solver;
+
+import hu.unideb.inf.klondike.OffenseException;
+import hu.unideb.inf.klondike.component.Card;
+import hu.unideb.inf.klondike.model.Game;
+import hu.unideb.inf.klondike.model.GameEngine;
+import hu.unideb.inf.klondike.model.GameState;
+import hu.unideb.inf.klondike.model.Move;
+import hu.unideb.inf.klondike.model.MoveBuffer;
+import java.util.Arrays;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class decides whether a {@code Game} can be won from its actual
+ * position.
+ * <p>
+ * The {@code Solver} runs a depth-first search over the legal moves of the
+ * game, using the same rules as the {@code Game} itself, including the
+ * three-card cycling of the {@code Talon}. The moves are ordered so that the
+ * most promising ones (moving cards to the foundations and revealing
+ * <i>DOWNSIDE</i> cards) are tried first, and the top card of a
+ * {@code Tableau} pile is moved to its foundation without trying the
+ * alternatives when no card of the tableau could be put on it anymore. The
+ * Zobrist hash of every visited position is stored in a transposition table,
+ * so no position is searched twice and cycles of the {@code Talon} are cut.
+ * <p>
+ * The search is limited by a node budget and optionally by a time limit, and
+ * it can be cancelled from another thread. When the budget runs out or the
+ * search is cancelled, the verdict is <i>UNKNOWN</i>.
+ * <p>
+ * A {@code Solver} instance reuses its buffers between runs, so it should be
+ * reused for many games, but it must not be shared between threads.
+ *
+ * @see hu.unideb.inf.klondike.solver.SolverResult
+ */
+public class Solver {
+
+    private static final Logger logger = LoggerFactory.getLogger(Solver.class);
+
+    private static final int TIME_CHECK_INTERVAL = 4096;
+
+    private long nodeLimit;
+    private long timeLimit;
+    private final TranspositionTable table;
+    private final MoveBuffer buffer;
+    private int[][] frameMoves;
+    private int[] frameSize;
+    private int[] frameNext;
+    private volatile boolean cancelled;
+
+    /**
+     * Constructor for creating a {@code Solver} with a budget of one million
+     * nodes and no time limit.
+     */
+    public Solver() {
+        this(1_000_000, 0);
+    }
+
+    /**
+     * Constructor for creating a {@code Solver} with the specified budget.
+     *
+     * @param nodeLimit the maximum number of visited positions
+     * @param timeLimit the maximum running time in milliseconds, or 0 for no
+     * time limit
+     */
+    public Solver(long nodeLimit, long timeLimit) {
+        this.nodeLimit = nodeLimit;
+        this.timeLimit = timeLimit;
+        table = new TranspositionTable(1 << 16);
+        buffer = new MoveBuffer();
+        frameMoves = new int[256][];
+        frameSize = new int[256];
+        frameNext = new int[256];
+    }
+
+    /**
+     * This method returns the maximum number of visited positions.
+     *
+     * @return the maximum number of visited positions
+     */
+    public long getNodeLimit() {
+        return nodeLimit;
+    }
+
+    /**
+     * This method sets the maximum number of visited positions.
+     *
+     * @param nodeLimit the maximum number of visited positions
+     */
+    public void setNodeLimit(long nodeLimit) {
+        this.nodeLimit = nodeLimit;
+    }
+
+    /**
+     * This method returns the maximum running time in milliseconds, 0 means
+     * no time limit.
+     *
+     * @return the maximum running time in milliseconds
+     */
+    public long getTimeLimit() {
+        return timeLimit;
+    }
+
+    /**
+     * This method sets the maximum running time in milliseconds, 0 means no
+     * time limit.
+     *
+     * @param timeLimit the maximum running time in milliseconds
+     */
+    public void setTimeLimit(long timeLimit) {
+        this.timeLimit = timeLimit;
+    }
+
+    /**
+     * This method stops the running search, which returns before visiting the
+     * next position with an <i>UNKNOWN</i> verdict. This is the only
+     * method which can be called from another thread.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * This method decides whether the specified {@code Game} can be won from
+     * its actual position. The specified {@code Game} is not modified, the
+     * search runs on a copy of it.
+     *
+     * @param game the {@code Game} to solve
+     * @return the result of the search
+     * @throws IllegalStateException if the game has not been started yet
+     */
+    public SolverResult solve(Game game) throws IllegalStateException {
+        return solve(GameState.of(game));
+    }
+
+    /**
+     * This method decides whether the game can be won from the specified
+     * position.
+     *
+     * @param state the position to solve
+     * @return the result of the search
+     */
+    public SolverResult solve(GameState state) {
+        long start = System.currentTimeMillis();
+        long deadline = timeLimit > 0 ? start + timeLimit : Long.MAX_VALUE;
+        cancelled = false;
+        GameEngine engine = new GameEngine(state.toGame());
+        table.clear();
+        table.add(engine.positionHash());
+        long nodes = 1;
+        long deadEnds = 0;
+        SolverResult.STATUS status = SolverResult.STATUS.UNKNOWN;
+        int depth = 0;
+
+        if (engine.isWon()) {
+            return result(SolverResult.STATUS.SOLVED, 0, nodes, deadEnds, start);
+        }
+        expand(engine, depth);
+        while (true) {
+            if (frameNext[depth] == frameSize[depth]) {
+                if (depth == 0) {
+                    status = SolverResult.STATUS.UNSOLVABLE;
+                    break;
+                }
+                deadEnds++;
+                engine.undo();
+                depth--;
+                continue;
+            }
+            int move = frameMoves[depth][frameNext[depth]++];
+            try {
+                engine.move(move);
+            } catch (OffenseException ex) {
+                throw new IllegalStateException("Generated move " + Move.toString(move) + " was rejected!", ex);
+            }
+            if (!table.add(engine.positionHash())) {
+                engine.undo();
+                continue;
+            }
+            nodes++;
+            depth++;
+            if (engine.isWon()) {
+                status = SolverResult.STATUS.SOLVED;
+                break;
+            }
+            if (cancelled || nodes >= nodeLimit
+                    || (nodes % TIME_CHECK_INTERVAL == 0 && System.currentTimeMillis() >= deadline)) {
+                break;
+            }
+            expand(engine, depth);
+        }
+        return result(status, depth, nodes, deadEnds, start);
+    }
+
+    /**
+     * Returns the first move the search would try in the position, or -1 if
+     * there is no useful move.
+     */
+    int firstMove(GameState state) {
+        expand(new GameEngine(state.toGame()), 0);
+        return frameSize[0] > 0 ? frameMoves[0][0] : -1;
+    }
+
+    private SolverResult result(SolverResult.STATUS status, int depth, long nodes, long deadEnds, long start) {
+        int[] moves = new int[status == SolverResult.STATUS.SOLVED ? depth : 0];
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = frameMoves[i][frameNext[i] - 1];
+        }
+        SolverResult result = new SolverResult(status, moves, nodes, System.currentTimeMillis() - start, deadEnds);
+        logger.debug("Solver finished: {}", result);
+        return result;
+    }
+
+    /**
+     * Generates the ordered moves of the given depth.
+     */
+    private void expand(GameEngine engine, int depth) {
+        if (depth == frameSize.length) {
+            frameMoves = Arrays.copyOf(frameMoves, depth * 2);
+            frameSize = Arrays.copyOf(frameSize, depth * 2);
+            frameNext = Arrays.copyOf(frameNext, depth * 2);
+        }
+        engine.legalMoves(buffer);
+        if (frameMoves[depth] == null || frameMoves[depth].length < buffer.size()) {
+            frameMoves[depth] = new int[Math.max(buffer.size(), 64)];
+        }
+        int[] moves = frameMoves[depth];
+        int size = 0;
+        for (int i = 0; i < buffer.size(); i++) {
+            int move = buffer.get(i);
+            if (isSafe(engine, move)) {
+                moves[0] = move;
+                frameSize[depth] = 1;
+                frameNext[depth] = 0;
+                return;
+            }
+        }
+        for (int i = 0; i < buffer.size(); i++) {
+            int move = buffer.get(i);
+            int priority = priority(engine, move);
+            if (priority < 0) {
+                continue;
+            }
+            int key = priority << 16 | move;
+            int j = size++;
+            while (j > 0 && moves[j - 1] < key) {
+                moves[j] = moves[j - 1];
+                j--;
+            }
+            moves[j] = key;
+        }
+        for (int i = 0; i < size; i++) {
+            moves[i] &= 0xFFFF;
+        }
+        frameSize[depth] = size;
+        frameNext[depth] = 0;
+    }
+
+    /**
+     * Returns true if the move puts the top card of a tableau pile to a
+     * foundation which is never needed on the tableau again: both cards of
+     * the other color with one lower rank are already on the foundations.
+     * Such a move can be played without trying the alternatives. A card of
+     * the talon is never forced: taking it regroups the later triples of the
+     * talon, so delaying it can be the only way to reach another card.
+     */
+    private static boolean isSafe(GameEngine engine, int move) {
+        if (Move.isDraw(move) || Move.getTo(move) != Move.PILE.FOUNDATION || Move.getFrom(move) != Move.PILE.TABLEAU) {
+            return false;
+        }
+        int code = engine.getTableauCode(Move.getFromIndex(move), Move.getCardIndex(move));
+        int rank = Card.rankOf(code);
+        if (rank <= Card.RANK.TWO.ordinal()) {
+            return true;
+        }
+        int covered = 0;
+        for (int i = 0; i < 4; i++) {
+            int top = engine.getFoundationCode(i);
+            if (top >= 0 && Card.colorOf(top) != Card.colorOf(code) && Card.rankOf(top) >= rank - 1) {
+                covered++;
+            }
+        }
+        return covered == 2;
+    }
+
+    /**
+     * Returns the priority of the move, higher is tried first, negative
+     * priority means the move is useless.
+     */
+    private static int priority(GameEngine engine, int move) {
+        if (Move.isDraw(move)) {
+            return 10;
+        }
+        switch (Move.getFrom(move)) {
+            case TALON:
+                return Move.getTo(move) == Move.PILE.FOUNDATION ? 100 : 60;
+            case FOUNDATION:
+                // Moving an Ace between two empty foundations never helps.
+                return Move.getTo(move) == Move.PILE.FOUNDATION ? -1 : 5;
+            default:
+                int from = Move.getFromIndex(move);
+                int cardIndex = Move.getCardIndex(move);
+                int downside = engine.getDownsideCount(from);
+                boolean reveals = cardIndex == downside && downside > 0;
+                if (Move.getTo(move) == Move.PILE.FOUNDATION) {
+                    return reveals ? 110 : 100;
+                }
+                if (reveals) {
+                    return 80 + downside;
+                }
+                if (cardIndex == 0) {
+                    // Moving a whole pile to an empty one only swaps the piles.
+                    return engine.getTableauSize(Move.getToIndex(move)) == 0 ? -1 : 50;
+                }
+                return 20;
+        }
+    }
+
+}
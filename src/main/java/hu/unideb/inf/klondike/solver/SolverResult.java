@@ -0,0 +1,143 @@
+/*
+ * Copyright 2017 Faculty of Informatics, Debrecen University, Hungary.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.klondike.solver;
+
+/**
+ * This class represents the result of a {@code Solver} run.
+ *
+ * @see hu.unideb.inf.klondike.solver.Solver
+ */
+public class SolverResult {
+
+    /**
+     * Enum for representing the verdict of the {@code Solver}.
+     */
+    public static enum STATUS {
+        /**
+         * The game can be won, the winning moves are available.
+         */
+        SOLVED,
+        /**
+         * The game can not be won.
+         */
+        UNSOLVABLE,
+        /**
+         * The budget ran out before the {@code Solver} could decide.
+         */
+        UNKNOWN
+    }
+
+    private final STATUS status;
+    private final int[] moves;
+    private final long nodes;
+    private final long millis;
+    private final long deadEnds;
+
+    /**
+     * Constructor for creating a {@code SolverResult} instance.
+     *
+     * @param status the verdict of the {@code Solver}
+     * @param moves the packed winning moves, empty if the game is not solved
+     * @param nodes the number of visited positions
+     * @param millis the elapsed time in milliseconds
+     */
+    public SolverResult(STATUS status, int[] moves, long nodes, long millis) {
+        this(status, moves, nodes, millis, 0);
+    }
+
+    /**
+     * Constructor for creating a {@code SolverResult} instance with the
+     * number of dead ends.
+     *
+     * @param status the verdict of the {@code Solver}
+     * @param moves the packed winning moves, empty if the game is not solved
+     * @param nodes the number of visited positions
+     * @param millis the elapsed time in milliseconds
+     * @param deadEnds the number of positions the search backtracked from
+     */
+    public SolverResult(STATUS status, int[] moves, long nodes, long millis, long deadEnds) {
+        this.status = status;
+        this.moves = moves;
+        this.nodes = nodes;
+        this.millis = millis;
+        this.deadEnds = deadEnds;
+    }
+
+    /**
+     * This method returns the verdict of the {@code Solver}.
+     *
+     * @return the verdict of the {@code Solver}
+     */
+    public STATUS getStatus() {
+        return status;
+    }
+
+    /**
+     * This method returns the packed winning moves in the order they have to
+     * be performed. It is empty unless the status is <i>SOLVED</i>.
+     *
+     * @see hu.unideb.inf.klondike.model.Move
+     * @return the packed winning moves
+     */
+    public int[] getMoves() {
+        return moves.clone();
+    }
+
+    /**
+     * This method returns the number of visited positions.
+     *
+     * @return the number of visited positions
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * This method returns the elapsed time in milliseconds.
+     *
+     * @return the elapsed time in milliseconds
+     */
+    public long getMillis() {
+        return millis;
+    }
+
+    /**
+     * This method returns the number of dead ends: the visited positions
+     * whose every move has been tried without winning the game.
+     *
+     * @return the number of dead ends
+     */
+    public long getDeadEnds() {
+        return deadEnds;
+    }
+
+    /**
+     * Returns a {@code String} representation of the result.
+     *
+     * @return a {@code String} representation of the result
+     */
+    @Override
+    public String toString() {
+        return "SolverResult{"
+                + "status=" + status
+                + ", moves=" + moves.length
+                + ", nodes=" + nodes
+                + ", deadEnds=" + deadEnds
+                + ", millis=" + millis
+                + '}';
+    }
+
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2017 Faculty of Informatics, Debrecen University, Hungary.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.klondike.solver;
+
+import java.util.Arrays;
+
+/**
+ * This class is a set of 64-bit position hashes with open addressing, used by
+ * the {@code Solver} to recognize the positions that have already been
+ * visited. The table doubles its capacity when it gets half full.
+ */
+class TranspositionTable {
+
+    private long[] keys;
+    private int size;
+    private int mask;
+
+    /**
+     * Constructor for creating an empty {@code TranspositionTable}.
+     *
+     * @param capacity the initial capacity, rounded up to a power of two
+     */
+    TranspositionTable(int capacity) {
+        int tableSize = Integer.highestOneBit(Math.max(capacity, 16) - 1) << 1;
+        keys = new long[tableSize];
+        mask = tableSize - 1;
+        size = 0;
+    }
+
+    /**
+     * This method adds the specified hash to the table. Returns {@code true}
+     * if the hash has not been in the table yet.
+     *
+     * @param hash the position hash to add
+     * @return {@code true} if the hash has not been in the table yet
+     */
+    boolean add(long hash) {
+        long key = hash == 0 ? 1 : hash;
+        int index = mix(key) & mask;
+        while (keys[index] != 0) {
+            if (keys[index] == key) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        if (++size > keys.length >>> 1) {
+            grow();
+        }
+        return true;
+    }
+
+    /**
+     * This method returns the number of hashes in the table.
+     *
+     * @return the number of hashes in the table
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * This method removes all the hashes from the table.
+     */
+    void clear() {
+        Arrays.fill(keys, 0L);
+        size = 0;
+    }
+
+    private void grow() {
+        long[] old = keys;
+        keys = new long[old.length << 1];
+        mask = keys.length - 1;
+        for (long key : old) {
+            if (key != 0) {
+                int index = mix(key) & mask;
+                while (keys[index] != 0) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = key;
+            }
+        }
+    }
+
+    private static int mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xFF51AFD7ED558CCDL;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+}
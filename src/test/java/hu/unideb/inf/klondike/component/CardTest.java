@@ -0,0 +1,62 @@
+/*
+ * Copyright 2017 Faculty of Informatics, Debrecen University, Hungary.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.klondike.component;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author sanyi
+ */
+public class CardTest {
+
+    public CardTest() {
+    }
+
+    /**
+     * Test of valueOf and getCode methods, of class Card.
+     */
+    @Test
+    public void testValueOf() {
+        for (int code = 0; code < Card.COUNT; code++) {
+            Card card = Card.valueOf(code);
+            assertEquals(code, card.getCode());
+            assertSame(card, Card.valueOf(card.getFoundation(), card.getRank()));
+            assertEquals(card.getRank().ordinal(), Card.rankOf(code));
+            assertEquals(card.getFoundation().ordinal(), Card.foundationOf(code));
+            assertEquals(card.getColor().ordinal(), Card.colorOf(code));
+        }
+    }
+
+    /**
+     * Test of canStackOn and canBuildOn methods, of class Card.
+     */
+    @Test
+    public void testStackingRules() {
+        for (int code = 0; code < Card.COUNT; code++) {
+            Card card = Card.valueOf(code);
+            for (int onto = 0; onto < Card.COUNT; onto++) {
+                Card other = Card.valueOf(onto);
+                assertEquals(card.compareTo(other) == -1 && card.getColor() != other.getColor(),
+                        Card.canStackOn(code, onto));
+                assertEquals(card.compareTo(other) == 1 && card.getFoundation() == other.getFoundation(),
+                        Card.canBuildOn(code, onto));
+            }
+        }
+    }
+
+}
@@ -16,6 +16,7 @@
 package hu.unideb.inf.klondike.component;
 
 import hu.unideb.inf.klondike.OffenseWhileAddingException;
+import java.util.Arrays;
 import org.hamcrest.core.Is;
 import org.junit.After;
 import org.junit.AfterClass;
@@ -69,7 +70,7 @@ public class FoundationTest {
                     if (rank == Card.RANK.ACE) {
                         continue;
                     }
-                    instance.add(new Card(foundation, rank));
+                    instance.add(Card.valueOf(foundation, rank));
                     fail("Expected an OffenseWhileAddingException to be thrown!");
                 } catch (OffenseWhileAddingException ex) {
                     assertThat(ex.getMessage(), Is.is("The first card of the foundation must be an Ace one!"));
@@ -77,7 +78,7 @@ public class FoundationTest {
             }
         }
         try {
-            instance.add(new Card(Card.FOUNDATION.CLUB, Card.RANK.ACE));
+            instance.add(Card.valueOf(Card.FOUNDATION.CLUB, Card.RANK.ACE));
         } catch (OffenseWhileAddingException | NullPointerException ex) {
             fail("Unexpected " + ex.getClass().getSimpleName() + "!");
         }
@@ -90,7 +91,7 @@ public class FoundationTest {
     public void testGet() {
         for (Card.RANK rank : Card.RANK.values()) {
             try {
-                Card card = new Card(Card.FOUNDATION.CLUB, rank);
+                Card card = Card.valueOf(Card.FOUNDATION.CLUB, rank);
                 instance.add(card);
                 if (!instance.get().equals(card)) {
                     fail("The received card is not equal to the expected one!");
@@ -108,7 +109,7 @@ public class FoundationTest {
     public void testApply() {
         for (Card.RANK rank : Card.RANK.values()) {
             try {
-                Card card = new Card(Card.FOUNDATION.CLUB, rank);
+                Card card = Card.valueOf(Card.FOUNDATION.CLUB, rank);
                 instance.add(card);
             } catch (OffenseWhileAddingException ex) {
                 fail(String.format("Unexpected OffenseWhileAddingException! Message: %s", ex.getMessage()));
@@ -116,7 +117,7 @@ public class FoundationTest {
         }
         Card.RANK ranks[] = Card.RANK.values();
         for (int i = ranks.length - 1; i >= 0; i--) {
-            if (!instance.get().equals(new Card(Card.FOUNDATION.CLUB, ranks[i]))) {
+            if (!instance.get().equals(Card.valueOf(Card.FOUNDATION.CLUB, ranks[i]))) {
                 fail("The received card is not equal to the expected one!");
             }
             instance.apply();
@@ -124,19 +125,21 @@ public class FoundationTest {
     }
 
     /**
-     * Test of undo method, of class Foundation.
+     * Test of pop and push methods, of class Foundation.
      */
     @Test
-    public void testUndo() {
+    public void testPopAndPush() {
         try {
-            Card ace = new Card(Card.FOUNDATION.CLUB, Card.RANK.ACE);
-            Card two = new Card(Card.FOUNDATION.CLUB, Card.RANK.TWO);
+            Card ace = Card.valueOf(Card.FOUNDATION.CLUB, Card.RANK.ACE);
+            Card two = Card.valueOf(Card.FOUNDATION.CLUB, Card.RANK.TWO);
             instance.add(ace);
-            instance.add(two);
-            assertTrue(instance.undo());
-            if (!instance.getStoredCards().get(0).equals(ace)) {
+            instance.add(two.getCode());
+            assertEquals(two.getCode(), instance.pop());
+            if (!instance.getStoredCards().equals(Arrays.asList(ace))) {
                 fail("The received card is not equal to the expected one!");
             }
+            instance.push(two.getCode());
+            assertEquals(two.getCode(), instance.getTopCode());
         } catch (OffenseWhileAddingException ex) {
             fail(String.format("Unexpected OffenseWhileAddingException! Message: %s", ex.getMessage()));
         }
@@ -149,7 +152,7 @@ public class FoundationTest {
     public void testIsKing() {
         for (Card.RANK rank : Card.RANK.values()) {
             try {
-                Card card = new Card(Card.FOUNDATION.CLUB, rank);
+                Card card = Card.valueOf(Card.FOUNDATION.CLUB, rank);
                 instance.add(card);
             } catch (OffenseWhileAddingException ex) {
                 fail(String.format("Unexpected OffenseWhileAddingException! Message: %s", ex.getMessage()));
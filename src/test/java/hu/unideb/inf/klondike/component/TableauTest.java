@@ -71,7 +71,7 @@ public class TableauTest {
             if (ranks[i] == Card.RANK.KING) {
                 continue;
             }
-            Card card = new Card(Card.FOUNDATION.CLUB, ranks[i]);
+            Card card = Card.valueOf(Card.FOUNDATION.CLUB, ranks[i]);
             try {
                 instance.add(Arrays.asList(card));
                 fail("Expected an OffenseWhileAddingException to be thrown!");
@@ -81,7 +81,7 @@ public class TableauTest {
         }
         for (int i = ranks.length - 1; i >= 0; i--) {
             try {
-                instance.add(new ArrayList<>(Arrays.asList(new Card(i % 2 == 0 ? Card.FOUNDATION.CLUB : Card.FOUNDATION.HEART, ranks[i]))));
+                instance.add(new ArrayList<>(Arrays.asList(Card.valueOf(i % 2 == 0 ? Card.FOUNDATION.CLUB : Card.FOUNDATION.HEART, ranks[i]))));
             } catch (OffenseWhileAddingException ex) {
                 fail(String.format("Unexpected OffenseWhileAddingException! Message: %s", ex.getMessage()));
             }
@@ -98,7 +98,7 @@ public class TableauTest {
         Card.RANK ranks[] = Card.RANK.values();
         for (int i = ranks.length - 1; i >= 0; i--) {
             try {
-                Card card = new Card(i % 2 == 0 ? Card.FOUNDATION.CLUB : Card.FOUNDATION.HEART, ranks[i]);
+                Card card = Card.valueOf(i % 2 == 0 ? Card.FOUNDATION.CLUB : Card.FOUNDATION.HEART, ranks[i]);
                 cardList.add(card);
                 instance.add(new ArrayList<>(Arrays.asList(card)));
                 if (!instance.get(0).equals(cardList)) {
@@ -128,7 +128,7 @@ public class TableauTest {
         Card.RANK ranks[] = Card.RANK.values();
         for (int i = ranks.length - 1; i >= 0; i--) {
             try {
-                Card card = new Card(i % 2 == 0 ? Card.FOUNDATION.CLUB : Card.FOUNDATION.HEART, ranks[i]);
+                Card card = Card.valueOf(i % 2 == 0 ? Card.FOUNDATION.CLUB : Card.FOUNDATION.HEART, ranks[i]);
                 cardList.add(card);
                 instance.add(new ArrayList<>(Arrays.asList(card)));
             } catch (OffenseException | IndexOutOfBoundsException ex) {
@@ -147,21 +147,32 @@ public class TableauTest {
     }
 
     /**
-     * Test of undo method, of class Tableau.
+     * Test of moveTo, transfer and turnDown methods, of class Tableau.
      */
     @Test
-    public void testUndo() {
+    public void testMoveToAndTransfer() {
         try {
-            List<Card> listKing = Arrays.asList(new Card(Card.FOUNDATION.CLUB, Card.RANK.KING));
-            List<Card> listQueenJack = Arrays.asList(new Card(Card.FOUNDATION.HEART, Card.RANK.QUEEN), new Card(Card.FOUNDATION.CLUB, Card.RANK.JACK));
-            instance.add(listKing);
-            instance.add(listQueenJack);
-            assertTrue(instance.undo());
-            if (!instance.getStoredCards().equals(listKing)) {
-                fail("The received list of cards is not equal to the expected one!");
+            List<Card> cards = Arrays.asList(Card.valueOf(Card.FOUNDATION.SPADE, Card.RANK.TWO),
+                    Card.valueOf(Card.FOUNDATION.HEART, Card.RANK.KING), Card.valueOf(Card.FOUNDATION.HEART, Card.RANK.QUEEN),
+                    Card.valueOf(Card.FOUNDATION.CLUB, Card.RANK.JACK));
+            instance = new Tableau(cards, 1);
+            Tableau target = new Tableau(new ArrayList<>());
+            try {
+                instance.moveTo(target, 2);
+                fail("Expected an OffenseWhileAddingException to be thrown!");
+            } catch (OffenseWhileAddingException ex) {
             }
-        } catch (OffenseWhileAddingException ex) {
-            fail(String.format("Unexpected OffenseWhileAddingException! Message: %s", ex.getMessage()));
+            assertTrue(instance.moveTo(target, 1));
+            assertEquals(cards.subList(0, 1), instance.getStoredCards());
+            assertEquals(0, instance.getDownsideCount());
+            assertEquals(cards.subList(1, 4), target.getStoredCards());
+            instance.turnDown();
+            target.transfer(instance, 3);
+            assertEquals(cards, instance.getStoredCards());
+            assertEquals(1, instance.getDownsideCount());
+            assertEquals(0, target.size());
+        } catch (OffenseException ex) {
+            fail(String.format("Unexpected OffenseException! Message: %s", ex.getMessage()));
         }
     }
 
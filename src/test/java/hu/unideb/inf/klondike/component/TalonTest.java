@@ -53,7 +53,7 @@ public class TalonTest {
     public void setUp() {
         cards = new ArrayList<>();
         for (Card.RANK rank : Card.RANK.values()) {
-            cards.add(new Card(Card.FOUNDATION.CLUB, rank));
+            cards.add(Card.valueOf(Card.FOUNDATION.CLUB, rank));
         }
         instance = new Talon(cards);
     }
@@ -113,18 +113,19 @@ public class TalonTest {
     }
 
     /**
-     * Test of undo method, of class Talon.
+     * Test of remove, insert and setState methods, of class Talon.
      */
     @Test
-    public void testUndo() {
+    public void testRemoveAndInsert() {
         instance.next();
         instance.next();
-        instance.undo();
+        instance.setState(0, 3);
         assertEquals(instance.getVisibleCards(), cards.subList(0, 3));
-        instance.get();
-        instance.apply();
-        instance.undo();
+        assertEquals(cards.get(2).getCode(), instance.remove());
+        assertEquals(instance.getVisibleCards(), cards.subList(0, 2));
+        instance.insert(cards.get(2).getCode());
         assertEquals(instance.getVisibleCards(), cards.subList(0, 3));
+        assertEquals(cards.size(), instance.size());
     }
 
 }
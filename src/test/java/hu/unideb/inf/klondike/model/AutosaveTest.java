@@ -0,0 +1,91 @@
+/*
+ * Copyright 2017 Faculty of Informatics, Debrecen University, Hungary.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.klondike.model;
+
+import hu.unideb.inf.klondike.OffenseException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static hu.unideb.inf.klondike.model.GameAssert.*;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author sanyi
+ */
+public class AutosaveTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path snapshotFile;
+    private Path logFile;
+
+    public AutosaveTest() {
+    }
+
+    @Before
+    public void setUp() {
+        snapshotFile = folder.getRoot().toPath().resolve("autosave.k");
+        logFile = folder.getRoot().toPath().resolve("autosave.log");
+    }
+
+    /**
+     * Test of recover method, of class Autosave.
+     */
+    @Test
+    public void testRecover() throws IOException, OffenseException {
+        assertNull(new Autosave(snapshotFile, logFile).recover());
+        for (int steps : new int[]{40, Autosave.COMPACT_INTERVAL + 40}) {
+            GameEngine engine = new GameEngine();
+            Autosave autosave = new Autosave(snapshotFile, logFile);
+            autosave.attach(engine.getGame());
+            engine.newGame(steps);
+            playWithUndos(engine, new Random(steps), steps);
+            autosave.close();
+            assertSameGame(engine.getGame(), new Autosave(snapshotFile, logFile).recover());
+        }
+    }
+
+    /**
+     * Test of recover method, of class Autosave, with a log which belongs to
+     * an earlier snapshot.
+     */
+    @Test
+    public void testRecoverStaleLog() throws IOException, OffenseException {
+        GameEngine engine = new GameEngine();
+        Autosave autosave = new Autosave(snapshotFile, logFile);
+        autosave.attach(engine.getGame());
+        engine.newGame(5);
+        autosave.close();
+        Game started = engine.getGame().snapshot();
+
+        byte[] snapshot = Files.readAllBytes(snapshotFile);
+        autosave = new Autosave(snapshotFile, logFile);
+        autosave.attach(engine.getGame());
+        playWithUndos(engine, new Random(5), 30);
+        autosave.close();
+        Files.write(snapshotFile, snapshot);
+        Files.write(logFile, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+        assertSameGame(started, new Autosave(snapshotFile, logFile).recover());
+    }
+
+}
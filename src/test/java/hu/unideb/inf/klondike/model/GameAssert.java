@@ -0,0 +1,103 @@
+/*
+ * Copyright 2017 Faculty of Informatics, Debrecen University, Hungary.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.klondike.model;
+
+import hu.unideb.inf.klondike.OffenseException;
+import java.util.Random;
+import static org.junit.Assert.*;
+
+/**
+ * Plays random games and compares games for the tests of saving and
+ * restoring them.
+ *
+ * @author sanyi
+ */
+final class GameAssert {
+
+    private GameAssert() {
+    }
+
+    /**
+     * Returns the game of the seed after the given number of random legal
+     * moves, chosen by a random generator of the same seed.
+     */
+    static Game play(long seed, int moves) throws OffenseException {
+        GameEngine engine = new GameEngine();
+        engine.newGame(seed);
+        Random random = new Random(seed);
+        MoveBuffer buffer = new MoveBuffer();
+        for (int m = 0; m < moves && engine.legalMoves(buffer) > 0; m++) {
+            engine.move(buffer.get(random.nextInt(buffer.size())));
+        }
+        return engine.getGame();
+    }
+
+    /**
+     * Performs the given number of random steps on the game of the engine,
+     * mixing legal moves with draws and undos.
+     */
+    static void playWithUndos(GameEngine engine, Random random, int steps) throws OffenseException {
+        MoveBuffer buffer = new MoveBuffer();
+        for (int s = 0; s < steps; s++) {
+            if (s % 7 == 3 && !engine.getGame().getJournal().isEmpty()) {
+                engine.undo();
+            } else if (s % 5 == 1 || engine.legalMoves(buffer) == 0) {
+                engine.draw();
+            } else {
+                engine.move(buffer.get(random.nextInt(buffer.size())));
+            }
+        }
+    }
+
+    /**
+     * Returns the replay of the given number of random steps on the game of
+     * the seed, dealt and played by the engine, with a random generator of the
+     * same seed.
+     */
+    static Replay record(GameEngine engine, long seed, int steps) throws OffenseException {
+        ReplayRecorder recorder = new ReplayRecorder();
+        recorder.attach(engine.getGame());
+        engine.newGame(seed);
+        playWithUndos(engine, new Random(seed), steps);
+        return recorder.getReplay();
+    }
+
+    /**
+     * Asserts that the games are in the same position with the same score,
+     * number of moves and history, and that undoing every step of the history
+     * leads them through the same positions.
+     */
+    static void assertSameGame(Game expected, Game actual) {
+        assertNotNull(actual);
+        assertEquals(GameState.of(expected), GameState.of(actual));
+        assertEquals(expected.getScore(), actual.getScore());
+        assertEquals(expected.getMoves(), actual.getMoves());
+        Journal journal = expected.getJournal();
+        assertEquals(journal.size(), actual.getJournal().size());
+        for (int i = 0; i < journal.size(); i++) {
+            assertEquals("Journal entry " + i, journal.get(i), actual.getJournal().get(i));
+        }
+        Game original = expected.snapshot();
+        Game copy = actual.snapshot();
+        while (!original.getJournal().isEmpty()) {
+            original.undo();
+            copy.undo();
+            assertEquals(GameState.of(original), GameState.of(copy));
+            assertEquals(original.getScore(), copy.getScore());
+        }
+    }
+
+}
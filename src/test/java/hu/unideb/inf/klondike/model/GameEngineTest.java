@@ -0,0 +1,154 @@
+/*
+ * Copyright 2017 Faculty of Informatics, Debrecen University, Hungary.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.klondike.model;
+
+import hu.unideb.inf.klondike.OffenseException;
+import java.util.List;
+import java.util.Random;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author sanyi
+ */
+public class GameEngineTest {
+
+    private GameEngine instance;
+
+    public GameEngineTest() {
+    }
+
+    @Before
+    public void setUp() {
+        instance = new GameEngine();
+        instance.newGame();
+    }
+
+    @After
+    public void tearDown() {
+        instance = null;
+    }
+
+    /**
+     * Test of the packed representation, of class Move.
+     */
+    @Test
+    public void testMoveEncoding() {
+        int move = Move.of(Move.PILE.TABLEAU, 6, Move.PILE.FOUNDATION, 3, 18);
+        assertEquals(Move.PILE.TABLEAU, Move.getFrom(move));
+        assertEquals(6, Move.getFromIndex(move));
+        assertEquals(Move.PILE.FOUNDATION, Move.getTo(move));
+        assertEquals(3, Move.getToIndex(move));
+        assertEquals(18, Move.getCardIndex(move));
+        assertFalse(Move.isDraw(move));
+        assertTrue(Move.isDraw(Move.of(Move.PILE.TALON, 0, Move.PILE.TALON, 0, 0)));
+    }
+
+    /**
+     * Test of draw and undo methods, of class GameEngine.
+     */
+    @Test
+    public void testDrawAndUndo() {
+        for (int i = 0; i < 7; i++) {
+            assertEquals(i + 1, instance.getTableauSize(i));
+        }
+        instance.draw();
+        List<String> visible = instance.getGame().getTalonCards();
+        assertEquals(3, visible.size());
+        assertEquals(1, instance.getMoves());
+        instance.draw();
+        instance.undo();
+        assertEquals(visible, instance.getGame().getTalonCards());
+        instance.undo();
+        assertTrue(instance.getGame().getTalonCards().isEmpty());
+        assertEquals(0, instance.getMoves());
+    }
+
+    /**
+     * Test of move method with illegal moves, of class GameEngine.
+     */
+    @Test
+    public void testIllegalMoves() {
+        int[] moves = {
+            Move.of(Move.PILE.TALON, 0, Move.PILE.TABLEAU, 0, 0),
+            Move.of(Move.PILE.FOUNDATION, 0, Move.PILE.TABLEAU, 0, 0),
+            Move.of(Move.PILE.TABLEAU, 0, Move.PILE.TALON, 0, 0),
+            Move.of(Move.PILE.TABLEAU, 0, Move.PILE.TABLEAU, 1, 5)
+        };
+        for (int move : moves) {
+            try {
+                instance.move(move);
+                fail("Expected an OffenseException to be thrown for " + Move.toString(move) + "!");
+            } catch (OffenseException ex) {
+            }
+        }
+        assertEquals(0, instance.getMoves());
+    }
+
+    /**
+     * Test of legalMoves method, of class GameEngine, compared to every
+     * possible move.
+     */
+    @Test
+    public void testLegalMoves() throws OffenseException {
+        Random random = new Random(3);
+        MoveBuffer buffer = new MoveBuffer();
+        for (int m = 0; m < 100; m++) {
+            instance.legalMoves(buffer);
+            GameState state = GameState.of(instance.getGame());
+            int legal = 0;
+            for (Move.PILE from : Move.PILE.values()) {
+                for (Move.PILE to : Move.PILE.values()) {
+                    for (int fromIndex = 0; fromIndex < 7; fromIndex++) {
+                        for (int toIndex = 0; toIndex < 7; toIndex++) {
+                            for (int cardIndex = 0; cardIndex < 20; cardIndex++) {
+                                int move = Move.of(from, fromIndex, to, toIndex, cardIndex);
+                                if (!isCanonical(move)) {
+                                    continue;
+                                }
+                                boolean accepted;
+                                try {
+                                    accepted = !state.apply(move).equals(state);
+                                } catch (OffenseException | IndexOutOfBoundsException ex) {
+                                    accepted = false;
+                                }
+                                assertEquals(Move.toString(move), accepted, buffer.contains(move));
+                                if (accepted) {
+                                    legal++;
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+            assertEquals(legal, buffer.size());
+            instance.move(buffer.get(random.nextInt(buffer.size())));
+        }
+    }
+
+    private static boolean isCanonical(int move) {
+        int fromIndex = Move.getFromIndex(move);
+        int toIndex = Move.getToIndex(move);
+        int fromLimit = Move.getFrom(move) == Move.PILE.TABLEAU ? 7 : Move.getFrom(move) == Move.PILE.FOUNDATION ? 4 : 1;
+        int toLimit = Move.getTo(move) == Move.PILE.TABLEAU ? 7 : Move.getTo(move) == Move.PILE.FOUNDATION ? 4 : 1;
+        boolean cardIndexUsed = Move.getFrom(move) == Move.PILE.TABLEAU;
+        return fromIndex < fromLimit && toIndex < toLimit && (cardIndexUsed || Move.getCardIndex(move) == 0);
+    }
+
+}
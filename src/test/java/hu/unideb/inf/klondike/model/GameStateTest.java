@@ -0,0 +1,99 @@
+/*
+ * Copyright 2017 Faculty of Informatics, Debrecen University, Hungary.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.klondike.model;
+
+import hu.unideb.inf.klondike.OffenseException;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author sanyi
+ */
+public class GameStateTest {
+
+    public GameStateTest() {
+    }
+
+    private static int randomMove(Random random) {
+        switch (random.nextInt(5)) {
+            case 0:
+                return Move.DRAW;
+            case 1:
+                return Move.of(Move.PILE.TALON, 0, random.nextBoolean() ? Move.PILE.TABLEAU : Move.PILE.FOUNDATION, random.nextInt(4), 0);
+            case 2:
+                return Move.of(Move.PILE.FOUNDATION, random.nextInt(4), Move.PILE.TABLEAU, random.nextInt(7), 0);
+            default:
+                return Move.of(Move.PILE.TABLEAU, random.nextInt(7), random.nextBoolean() ? Move.PILE.TABLEAU : Move.PILE.FOUNDATION,
+                        random.nextInt(4), random.nextInt(20));
+        }
+    }
+
+    /**
+     * Test of of, toGame and valueOf methods, of class GameState.
+     */
+    @Test
+    public void testConversion() {
+        Game game = new Game();
+        game.newGame();
+        GameState state = GameState.of(game);
+        assertEquals(state, GameState.of(state.toGame()));
+        assertEquals(state, GameState.valueOf(state.toLongArray()));
+        assertEquals(state.hashCode(), GameState.of(state.toGame()).hashCode());
+        assertEquals(game.getTalonCards(), state.toGame().getTalonCards());
+        for (int i = 0; i < 7; i++) {
+            assertEquals(game.getTableauCards(i), state.toGame().getTableauCards(i));
+        }
+        game.nextTalon();
+        assertNotEquals(state, GameState.of(game));
+        assertFalse(state.isWon());
+    }
+
+    /**
+     * Test of apply method, of class GameState, compared to the moves of the
+     * Game.
+     */
+    @Test
+    public void testApply() {
+        Random random = new Random(7);
+        GameEngine engine = new GameEngine();
+        for (int g = 0; g < 50; g++) {
+            engine.newGame();
+            GameState state = GameState.of(engine.getGame());
+            for (int m = 0; m < 500; m++) {
+                int move = randomMove(random);
+                GameState next;
+                try {
+                    next = state.apply(move);
+                } catch (OffenseException ex) {
+                    next = null;
+                }
+                try {
+                    engine.move(move);
+                    assertNotNull("Rejected legal move " + Move.toString(move), next);
+                } catch (OffenseException ex) {
+                    assertNull("Accepted illegal move " + Move.toString(move), next);
+                    continue;
+                }
+                state = GameState.of(engine.getGame());
+                assertEquals(state, next);
+                assertEquals(engine.isWon(), state.isWon());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright 2017 Faculty of Informatics, Debrecen University, Hungary.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.klondike.model;
+
+import hu.unideb.inf.klondike.OffenseException;
+import hu.unideb.inf.klondike.component.Card;
+import hu.unideb.inf.klondike.component.Foundation;
+import hu.unideb.inf.klondike.component.Tableau;
+import hu.unideb.inf.klondike.component.Talon;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author sanyi
+ */
+public class GameTest {
+
+    public GameTest() {
+    }
+
+    /**
+     * Test of newGame method, of class Game, with seeds.
+     */
+    @Test
+    public void testNewGameSeed() {
+        Game game = new Game();
+        Game other = new Game();
+        Set<GameState> deals = new HashSet<>();
+        for (long seed = 0; seed < 100; seed++) {
+            game.newGame(seed);
+            other.newGame();
+            other.newGame(seed);
+            assertEquals(GameState.of(game), GameState.of(other));
+            assertTrue(deals.add(GameState.of(game)));
+            Set<Integer> codes = new HashSet<>();
+            for (Tableau tableau : game.getTableauPiles()) {
+                for (int i = 0; i < tableau.size(); i++) {
+                    codes.add(tableau.getCode(i));
+                }
+            }
+            for (int i = 0; i < game.getTalon().size(); i++) {
+                codes.add(game.getTalon().getCode(i));
+            }
+            assertEquals(Card.COUNT, codes.size());
+        }
+    }
+
+    /**
+     * Test of positionHash method, of class Game, compared to the hash
+     * computed from scratch over random moves, illegal moves and undos.
+     */
+    @Test
+    public void testPositionHash() {
+        Random random = new Random(11);
+        GameEngine engine = new GameEngine();
+        MoveBuffer buffer = new MoveBuffer();
+        Deque<Long> hashes = new ArrayDeque<>();
+        for (int g = 0; g < 30; g++) {
+            engine.newGame();
+            Game game = engine.getGame();
+            hashes.clear();
+            for (int m = 0; m < 400; m++) {
+                int choice = random.nextInt(10);
+                if (choice < 2 && !hashes.isEmpty()) {
+                    engine.undo();
+                    assertEquals(hashes.pop().longValue(), game.positionHash());
+                } else if (choice < 3) {
+                    int move = Move.of(Move.PILE.values()[random.nextInt(3)], random.nextInt(7),
+                            Move.PILE.values()[random.nextInt(2)], random.nextInt(4), random.nextInt(20));
+                    long hash = game.positionHash();
+                    try {
+                        engine.move(move);
+                        if (game.positionHash() != hash || Move.isDraw(move)) {
+                            hashes.push(hash);
+                        }
+                    } catch (OffenseException ex) {
+                        assertEquals(hash, game.positionHash());
+                    }
+                } else if (engine.legalMoves(buffer) > 0) {
+                    hashes.push(game.positionHash());
+                    try {
+                        engine.move(buffer.get(random.nextInt(buffer.size())));
+                    } catch (OffenseException ex) {
+                        fail(ex.getMessage());
+                    }
+                }
+                assertEquals(game.computePositionHash(), game.positionHash());
+                assertEquals(game.positionHash(), GameState.of(game).toGame().positionHash());
+            }
+        }
+    }
+
+    /**
+     * Test of undo method, of class Game: undoing every step restores the
+     * position, the score and the number of steps of every earlier state.
+     */
+    @Test
+    public void testUndo() throws OffenseException {
+        Random random = new Random(13);
+        GameEngine engine = new GameEngine();
+        MoveBuffer buffer = new MoveBuffer();
+        Deque<GameState> states = new ArrayDeque<>();
+        Deque<Integer> scores = new ArrayDeque<>();
+        Deque<Integer> moves = new ArrayDeque<>();
+        for (int g = 0; g < 20; g++) {
+            engine.newGame(g);
+            for (int m = 0; m < 300 && engine.legalMoves(buffer) > 0; m++) {
+                states.push(GameState.of(engine.getGame()));
+                scores.push(engine.getScore());
+                moves.push(engine.getMoves());
+                engine.move(buffer.get(random.nextInt(buffer.size())));
+            }
+            while (!states.isEmpty()) {
+                engine.undo();
+                assertEquals(states.pop(), GameState.of(engine.getGame()));
+                assertEquals(scores.pop().intValue(), engine.getScore());
+                assertEquals(moves.pop().intValue(), engine.getMoves());
+            }
+            engine.undo();
+            assertEquals(0, engine.getMoves());
+        }
+    }
+
+    /**
+     * Test of addPileListener method, of class Game.
+     */
+    @Test
+    public void testAddPileListener() throws OffenseException {
+        Random random = new Random(17);
+        GameEngine engine = new GameEngine();
+        MoveBuffer buffer = new MoveBuffer();
+        int[] fired = new int[1];
+        engine.getGame().addPileListener(piles -> fired[0] |= piles);
+        engine.newGame(5);
+        assertEquals(PileListener.ALL, fired[0]);
+        for (int m = 0; m < 200 && engine.legalMoves(buffer) > 0; m++) {
+            int move = buffer.get(random.nextInt(buffer.size()));
+            int expected = PileListener.of(Move.getFrom(move), Move.getFromIndex(move))
+                    | PileListener.of(Move.getTo(move), Move.getToIndex(move));
+            fired[0] = 0;
+            engine.move(move);
+            assertEquals(Move.toString(move), expected, fired[0]);
+            fired[0] = 0;
+            engine.undo();
+            assertEquals(Move.toString(move), expected, fired[0]);
+            engine.move(move);
+        }
+    }
+
+    /**
+     * Test of autoComplete method, of class Game.
+     */
+    @Test
+    public void testAutoComplete() {
+        Game game = new Game();
+        game.newGame(3);
+        assertNull(game.autoCompletion());
+        assertEquals(0, game.autoComplete());
+
+        Foundation[] foundations = new Foundation[4];
+        for (Card.FOUNDATION suit : Card.FOUNDATION.values()) {
+            List<Card> cards = new ArrayList<>();
+            for (int rank = 0; rank <= Card.RANK.NINE.ordinal(); rank++) {
+                cards.add(Card.valueOf(suit, Card.RANK.values()[rank]));
+            }
+            foundations[suit.ordinal()] = new Foundation(cards);
+        }
+        Tableau[] tableaus = new Tableau[7];
+        tableaus[0] = tableau(Card.FOUNDATION.SPADE, Card.FOUNDATION.HEART, Card.RANK.TEN);
+        tableaus[1] = tableau(Card.FOUNDATION.HEART, Card.FOUNDATION.SPADE, Card.RANK.TEN);
+        tableaus[2] = tableau(Card.FOUNDATION.CLUB, Card.FOUNDATION.DIAMOND, Card.RANK.TEN);
+        tableaus[3] = tableau(Card.FOUNDATION.DIAMOND, Card.FOUNDATION.CLUB, Card.RANK.QUEEN);
+        for (int i = 4; i < tableaus.length; i++) {
+            tableaus[i] = new Tableau(new ArrayList<>(), 0);
+        }
+        Talon talon = new Talon(Arrays.asList(
+                Card.valueOf(Card.FOUNDATION.DIAMOND, Card.RANK.JACK),
+                Card.valueOf(Card.FOUNDATION.CLUB, Card.RANK.TEN)));
+        game.restore(tableaus, foundations, talon);
+        int[] fired = new int[2];
+        game.addPileListener(piles -> {
+            fired[0]++;
+            fired[1] |= piles;
+        });
+        int[] sequence = game.autoCompletion();
+        assertNotNull(sequence);
+        assertEquals(0, fired[0]);
+
+        assertEquals(sequence.length, game.autoComplete());
+        assertTrue(game.isWon());
+        assertEquals(sequence.length, game.getJournal().size());
+        assertEquals(1, fired[0]);
+        assertEquals(PileListener.TALON | PileListener.FOUNDATIONS | 0xF, fired[1]);
+        assertNull(game.autoCompletion());
+        game.undo();
+        assertFalse(game.isWon());
+        assertEquals(2, fired[0]);
+    }
+
+    /**
+     * Returns an UPSIDE run from the King of the first suit down to the
+     * specified rank, alternating the two suits.
+     */
+    private static Tableau tableau(Card.FOUNDATION first, Card.FOUNDATION second, Card.RANK lowest) {
+        List<Card> cards = new ArrayList<>();
+        for (int rank = Card.RANK.KING.ordinal(); rank >= lowest.ordinal(); rank--) {
+            cards.add(Card.valueOf(cards.size() % 2 == 0 ? first : second, Card.RANK.values()[rank]));
+        }
+        return new Tableau(cards, 0);
+    }
+
+}
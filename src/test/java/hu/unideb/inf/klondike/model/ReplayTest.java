@@ -0,0 +1,96 @@
+/*
+ * Copyright 2017 Faculty of Informatics, Debrecen University, Hungary.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.klondike.model;
+
+import hu.unideb.inf.klondike.OffenseException;
+import java.io.IOException;
+import java.util.Arrays;
+import org.junit.Before;
+import org.junit.Test;
+import static hu.unideb.inf.klondike.model.GameAssert.*;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author sanyi
+ */
+public class ReplayTest {
+
+    private GameEngine engine;
+    private Replay replay;
+
+    public ReplayTest() {
+    }
+
+    @Before
+    public void setUp() throws OffenseException {
+        engine = new GameEngine();
+        ReplayRecorder recorder = new ReplayRecorder();
+        recorder.attach(engine.getGame());
+        assertFalse(recorder.isAvailable());
+        replay = record(engine, -42, 300);
+    }
+
+    /**
+     * Test of play method, of class ReplayEngine.
+     */
+    @Test
+    public void testPlay() throws OffenseException {
+        assertEquals(-42, replay.getSeed());
+        assertTrue(Arrays.stream(replay.getSteps()).anyMatch(step -> step == Replay.UNDO));
+        Game played = ReplayEngine.play(replay);
+        assertEquals(GameState.of(engine.getGame()), GameState.of(played));
+        assertEquals(engine.getGame().getScore(), played.getScore());
+        assertEquals(engine.getGame().getMoves(), played.getMoves());
+        assertTrue(ReplayEngine.verify(replay));
+        assertFalse(ReplayEngine.verify(new Replay(replay.getSeed(), replay.getSteps(), replay.getScore() + 5, replay.getMoves(), replay.isWon())));
+    }
+
+    /**
+     * Test of verify method, of class ReplayEngine, with a step of an invalid
+     * pile type.
+     */
+    @Test
+    public void testVerifyInvalidStep() {
+        int[] steps = Arrays.copyOf(replay.getSteps(), replay.size() + 1);
+        steps[steps.length - 1] = 0x3 | Move.of(Move.PILE.TABLEAU, 0, Move.PILE.TABLEAU, 1, 1);
+        assertFalse(ReplayEngine.verify(new Replay(replay.getSeed(), steps, replay.getScore(), replay.getMoves(), replay.isWon())));
+        steps[steps.length - 1] = 0x3 << 5 | Move.of(Move.PILE.TABLEAU, 0, Move.PILE.TABLEAU, 1, 1);
+        assertFalse(ReplayEngine.verify(new Replay(replay.getSeed(), steps, replay.getScore(), replay.getMoves(), replay.isWon())));
+    }
+
+    /**
+     * Test of encode and decode methods, of class Replay.
+     */
+    @Test
+    public void testEncodeAndDecode() throws IOException {
+        byte[] content = replay.encode();
+        assertTrue(content.length < 2 * replay.size() + 32);
+        Replay decoded = Replay.decode(content);
+        assertEquals(replay.getSeed(), decoded.getSeed());
+        assertEquals(replay.getScore(), decoded.getScore());
+        assertEquals(replay.getMoves(), decoded.getMoves());
+        assertArrayEquals(replay.getSteps(), decoded.getSteps());
+
+        content[content.length / 2] ^= 1;
+        try {
+            Replay.decode(content);
+            fail("Expected an IOException to be thrown!");
+        } catch (IOException ex) {
+        }
+    }
+
+}
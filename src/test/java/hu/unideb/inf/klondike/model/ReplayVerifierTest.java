@@ -0,0 +1,76 @@
+/*
+ * Copyright 2017 Faculty of Informatics, Debrecen University, Hungary.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.klondike.model;
+
+import hu.unideb.inf.klondike.OffenseException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static hu.unideb.inf.klondike.model.GameAssert.*;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author sanyi
+ */
+public class ReplayVerifierTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    public ReplayVerifierTest() {
+    }
+
+    /**
+     * Test of verify method, of class ReplayVerifier.
+     */
+    @Test
+    public void testVerify() throws IOException, OffenseException {
+        Path directory = folder.newFolder("replays").toPath();
+        try (OutputStream out = Files.newOutputStream(directory.resolve("all.kdr"))) {
+            for (int seed = 0; seed < 200; seed++) {
+                out.write(record(new GameEngine(), seed, 150).encode());
+            }
+        }
+        Replay replay = record(new GameEngine(), 200, 150);
+        Files.write(directory.resolve("mismatched.kdr"),
+                new Replay(replay.getSeed(), replay.getSteps(), replay.getScore() + 10, replay.getMoves(), replay.isWon()).encode());
+        int[] steps = replay.getSteps();
+        steps[steps.length - 1] = Move.of(Move.PILE.TALON, 0, Move.PILE.TABLEAU, 0, 0);
+        steps[steps.length - 2] = Move.of(Move.PILE.TALON, 0, Move.PILE.TABLEAU, 0, 0);
+        Files.write(directory.resolve("illegal.kdr"), new Replay(replay.getSeed(), steps, replay.getScore(), replay.getMoves(), replay.isWon()).encode());
+        Files.write(directory.resolve("corrupted.kdr"), new byte[]{'K', 'L', 'D', 'R', 1});
+        Files.write(directory.resolve("ignored.txt"), replay.encode());
+
+        ReplayVerifier.Report report = new ReplayVerifier(3).verify(directory);
+        assertEquals(203, report.getTotal());
+        assertEquals(200, report.getValid());
+        assertEquals(1, report.getMismatched());
+        assertEquals(1, report.getIllegal());
+        assertEquals(1, report.getCorrupted());
+        assertEquals(3, report.getFailures().size());
+        assertFalse(report.isPassed());
+
+        report = new ReplayVerifier().verify(directory.resolve("all.kdr"));
+        assertEquals(200, report.getTotal());
+        assertTrue(report.isPassed());
+    }
+
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2017 Faculty of Informatics, Debrecen University, Hungary.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.klondike.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.stream.Stream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author sanyi
+ */
+public class SaveFileTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    public SaveFileTest() {
+    }
+
+    /**
+     * Test of write and read methods, of class SaveFile.
+     */
+    @Test
+    public void testWriteAndRead() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("saves").resolve("save.k");
+        byte[] content = new byte[3 * 1024 * 1024 + 17];
+        new Random(1).nextBytes(content);
+        double[] written = new double[1];
+        SaveFile.write(file, ByteBuffer.wrap(content), done -> written[0] = done);
+        assertEquals(1, written[0], 0);
+        assertArrayEquals(content, SaveFile.read(file, null));
+
+        byte[] replaced = {1, 2, 3};
+        SaveFile.write(file, ByteBuffer.wrap(replaced), null);
+        assertArrayEquals(replaced, SaveFile.read(file, null));
+        try (Stream<Path> files = Files.list(file.getParent())) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    /**
+     * Test of location method, of class SaveFile.
+     */
+    @Test
+    public void testLocation() {
+        String previous = System.getProperty(SaveFile.LOCATION_PROPERTY);
+        try {
+            Path file = folder.getRoot().toPath().resolve("custom.k");
+            System.setProperty(SaveFile.LOCATION_PROPERTY, file.toString());
+            assertEquals(file, SaveFile.location());
+            System.clearProperty(SaveFile.LOCATION_PROPERTY);
+            assertEquals(System.getProperty("user.home"), SaveFile.location().getParent().toString());
+        } finally {
+            if (previous != null) {
+                System.setProperty(SaveFile.LOCATION_PROPERTY, previous);
+            }
+        }
+    }
+
+}
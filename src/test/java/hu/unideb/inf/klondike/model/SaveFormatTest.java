@@ -0,0 +1,123 @@
+/*
+ * Copyright 2017 Faculty of Informatics, Debrecen University, Hungary.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.klondike.model;
+
+import hu.unideb.inf.klondike.OffenseException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import org.junit.Before;
+import org.junit.Test;
+import static hu.unideb.inf.klondike.model.GameAssert.*;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author sanyi
+ */
+public class SaveFormatTest {
+
+    private Game game;
+
+    public SaveFormatTest() {
+    }
+
+    @Before
+    public void setUp() throws OffenseException {
+        game = play(11, 120);
+    }
+
+    /**
+     * Test of encode and decode methods, of class SaveFormat.
+     */
+    @Test
+    public void testEncodeAndDecode() throws IOException {
+        Game decoded = SaveFormat.decode(content(SaveFormat.encode(game)));
+        assertSameGame(game, decoded);
+        assertTrue(decoded.isSeeded());
+        assertEquals(11, decoded.getSeed());
+    }
+
+    /**
+     * Test of decode method, of class SaveFormat, with a save file written by
+     * the former version of the game.
+     */
+    @Test
+    public void testDecodeLegacy() throws IOException {
+        byte[] legacy;
+        try (InputStream in = getClass().getResourceAsStream("legacy-save.k")) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] chunk = new byte[4096];
+            for (int n; (n = in.read(chunk)) > 0;) {
+                out.write(chunk, 0, n);
+            }
+            legacy = out.toByteArray();
+        }
+        Game migrated = SaveFormat.decode(legacy);
+        assertEquals(15, migrated.getScore());
+        assertEquals(63, migrated.getMoves());
+        assertEquals(0, migrated.getJournal().size());
+        String[][] tableaus = {
+            {"HEART_SIX"},
+            {"DOWNSIDE", "CLUB_THREE"},
+            {"DOWNSIDE", "DOWNSIDE", "CLUB_KING"},
+            {"DOWNSIDE", "DOWNSIDE", "DOWNSIDE", "CLUB_FOUR"},
+            {"DOWNSIDE", "DOWNSIDE", "DOWNSIDE", "DOWNSIDE", "HEART_KING"},
+            {"DOWNSIDE", "DOWNSIDE", "DOWNSIDE", "DOWNSIDE", "DOWNSIDE", "HEART_NINE"},
+            {"DOWNSIDE", "DOWNSIDE", "DOWNSIDE", "DOWNSIDE", "DOWNSIDE", "DOWNSIDE", "SPADE_JACK", "DIAMOND_TEN"}
+        };
+        for (int i = 0; i < tableaus.length; i++) {
+            assertEquals(Arrays.asList(tableaus[i]), migrated.getTableauCards(i));
+        }
+        for (int i = 0; i < 4; i++) {
+            assertEquals(i == 2 ? Arrays.asList("HEART_ACE") : Arrays.asList(), migrated.getFoundationCards(i));
+        }
+        assertEquals(Arrays.asList("SPADE_SEVEN", "CLUB_EIGHT", "DIAMOND_THREE"), migrated.getTalonCards());
+        assertTrue(content(SaveFormat.encode(migrated)).length < legacy.length);
+        assertSameGame(migrated, SaveFormat.decode(content(SaveFormat.encode(migrated))));
+    }
+
+    /**
+     * Test of decode method, of class SaveFormat, with corrupted contents.
+     */
+    @Test
+    public void testDecodeCorrupted() {
+        byte[] content = content(SaveFormat.encode(game));
+        byte[][] corrupted = {
+            Arrays.copyOf(content, content.length - 1),
+            Arrays.copyOf(content, 20),
+            content.clone(),
+            {1, 2, 3}
+        };
+        corrupted[2][30] ^= 1;
+        for (byte[] bytes : corrupted) {
+            try {
+                SaveFormat.decode(bytes);
+                fail("Expected an IOException to be thrown!");
+            } catch (IOException ex) {
+            }
+        }
+    }
+
+    private static byte[] content(ByteBuffer buffer) {
+        byte[] content = new byte[buffer.remaining()];
+        buffer.get(content);
+        return content;
+    }
+
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2017 Faculty of Informatics, Debrecen University, Hungary.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.klondike.model;
+
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static hu.unideb.inf.klondike.model.GameAssert.*;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author sanyi
+ */
+public class SaveServiceTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private String userHome;
+    private LinkedBlockingQueue<Runnable> callbacks;
+    private SaveService instance;
+
+    public SaveServiceTest() {
+    }
+
+    @Before
+    public void setUp() {
+        userHome = System.getProperty("user.home");
+        System.setProperty("user.home", folder.getRoot().getAbsolutePath());
+        callbacks = new LinkedBlockingQueue<>();
+        instance = new SaveService(callbacks::add);
+    }
+
+    @After
+    public void tearDown() {
+        instance.close();
+        System.setProperty("user.home", userHome);
+    }
+
+    /**
+     * Test of save and load methods, of class SaveService.
+     */
+    @Test
+    public void testSaveAndLoad() throws Exception {
+        Game game = play(7, 50);
+        GameState state = GameState.of(game);
+        List<Double> progress = new ArrayList<>();
+        CompletableFuture<Void> saved = instance.save(game, progress::add);
+        // The game can be played on while it is being saved.
+        game.undo();
+        runCallbacks(saved);
+        assertEquals(Double.valueOf(1), progress.get(progress.size() - 1));
+
+        CompletableFuture<Game> loaded = instance.load(null);
+        runCallbacks(loaded);
+        Game copy = new Game();
+        copy.loadGame(loaded.get());
+        assertEquals(state, GameState.of(copy));
+        copy.undo();
+        assertEquals(GameState.of(game), GameState.of(copy));
+        assertEquals(game.positionHash(), copy.positionHash());
+        assertEquals(game.getScore(), copy.getScore());
+        assertEquals(game.getMoves(), copy.getMoves());
+    }
+
+    /**
+     * Test of load method, of class SaveService, without a saved game.
+     */
+    @Test
+    public void testLoadFailure() throws InterruptedException {
+        CompletableFuture<Game> loaded = instance.load(null);
+        runCallbacks(loaded);
+        try {
+            loaded.get();
+            fail("Expected an ExecutionException to be thrown!");
+        } catch (ExecutionException ex) {
+            assertTrue(ex.getCause() instanceof FileNotFoundException);
+        }
+    }
+
+    private void runCallbacks(CompletableFuture<?> future) throws InterruptedException {
+        while (!future.isDone()) {
+            callbacks.take().run();
+        }
+    }
+
+}
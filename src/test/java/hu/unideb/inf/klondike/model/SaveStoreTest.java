@@ -0,0 +1,164 @@
+/*
+ * Copyright 2017 Faculty of Informatics, Debrecen University, Hungary.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.klondike.model;
+
+import hu.unideb.inf.klondike.OffenseException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static hu.unideb.inf.klondike.model.GameAssert.*;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author sanyi
+ */
+public class SaveStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path file;
+
+    public SaveStoreTest() {
+    }
+
+    @Before
+    public void setUp() {
+        file = folder.getRoot().toPath().resolve("saves.kds");
+    }
+
+    /**
+     * Test of save and load methods, of class SaveStore.
+     */
+    @Test
+    public void testSaveAndLoad() throws IOException, OffenseException {
+        Game[] games = new Game[20];
+        try (SaveStore store = SaveStore.open(file, 64)) {
+            for (int slot = 0; slot < games.length; slot++) {
+                games[slot] = play(slot, slot * 7);
+                store.save(slot * 3, "player " + slot, games[slot]);
+            }
+        }
+        try (SaveStore store = SaveStore.open(file)) {
+            assertEquals(64, store.getSlotCount());
+            List<SaveStore.Slot> slots = store.list();
+            assertEquals(games.length, slots.size());
+            for (int slot = games.length - 1; slot >= 0; slot--) {
+                assertEquals(slot * 3, store.find("player " + slot));
+                assertEquals(slot * 3, slots.get(slot).getIndex());
+                assertSameGame(games[slot], store.load(slot * 3));
+            }
+            assertFalse(store.isUsed(1));
+            assertEquals(-1, store.find("nobody"));
+        }
+    }
+
+    /**
+     * Test of save and delete methods, of class SaveStore, with the reuse of
+     * the freed space.
+     */
+    @Test
+    public void testOverwriteAndDelete() throws IOException, OffenseException {
+        try (SaveStore store = SaveStore.open(file, 8)) {
+            Game small = play(1, 0);
+            Game large = play(1, 200);
+            store.save(0, "first", small);
+            store.save(1, "second", large);
+            store.save(0, "renamed", large);
+            store.save(0, "renamed", small);
+            long size = Files.size(file);
+
+            store.delete(1);
+            assertFalse(store.isUsed(1));
+            assertEquals(-1, store.find("second"));
+            assertEquals(-1, store.find("first"));
+            store.save(2, "third", large);
+            store.save(3, "fourth", small);
+            assertEquals(size, Files.size(file));
+            assertSameGame(large, store.load(2));
+            assertSameGame(small, store.load(3));
+            assertSameGame(small, store.load(0));
+            try {
+                store.load(1);
+                fail("Expected an IOException to be thrown!");
+            } catch (IOException ex) {
+            }
+        }
+    }
+
+    /**
+     * Test of save method, of class SaveStore, with the reuse of the space of
+     * a moved game while there is no empty slot, also after reopening the
+     * store.
+     */
+    @Test
+    public void testReuseMovedSpace() throws IOException, OffenseException {
+        Game small = play(2, 0);
+        Game medium = play(2, 60);
+        Game large = play(2, 200);
+        for (boolean reopen : new boolean[]{false, true}) {
+            Files.deleteIfExists(file);
+            SaveStore store = SaveStore.open(file, 2);
+            try {
+                store.save(0, "first", medium);
+                store.save(1, "second", small);
+                store.save(0, "first", large);
+                long size = Files.size(file);
+                if (reopen) {
+                    store.close();
+                    store = SaveStore.open(file);
+                }
+                store.save(1, "second", medium);
+                assertEquals(size, Files.size(file));
+                assertSameGame(large, store.load(0));
+                assertSameGame(medium, store.load(1));
+            } finally {
+                store.close();
+            }
+        }
+    }
+
+    /**
+     * Test of save method, of class SaveStore, with a name of another slot.
+     */
+    @Test
+    public void testUniqueNames() throws IOException, OffenseException {
+        try (SaveStore store = SaveStore.open(file, 4)) {
+            Game game = play(3, 10);
+            store.save(0, "player", game);
+            store.save(0, "player", game);
+            try {
+                store.save(1, "player", game);
+                fail("Expected an IllegalArgumentException to be thrown!");
+            } catch (IllegalArgumentException ex) {
+            }
+            assertFalse(store.isUsed(1));
+            store.delete(0);
+            store.save(1, "player", game);
+            assertEquals(1, store.find("player"));
+        }
+        try (SaveStore store = SaveStore.open(file)) {
+            assertEquals(1, store.find("player"));
+        }
+    }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2017 Faculty of Informatics, Debrecen University, Hungary.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.klondike.solver;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author sanyi
+ */
+public class BatchSolverTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    public BatchSolverTest() {
+    }
+
+    /**
+     * Test of run method, of class BatchSolver, including resuming an
+     * interrupted run.
+     */
+    @Test
+    public void testRun() throws IOException {
+        Path output = folder.getRoot().toPath().resolve("deals.csv");
+        BatchSolver instance = new BatchSolver(2_000, 0, 4);
+        long[] verdicts = instance.run(1, 300, output);
+        assertEquals(300, verdicts[0] + verdicts[1] + verdicts[2]);
+        List<String> lines = Files.readAllLines(output, StandardCharsets.UTF_8);
+        assertEquals(BatchSolver.HEADER, lines.get(0));
+        assertSeeds(lines, 300);
+
+        // Simulates an interrupted run: the last lines are lost, one of them
+        // is written only partially.
+        StringBuilder sb = new StringBuilder();
+        for (String line : lines.subList(0, 101)) {
+            sb.append(line).append('\n');
+        }
+        sb.append(lines.get(101), 0, 3);
+        Files.write(output, sb.toString().getBytes(StandardCharsets.UTF_8));
+        assertArrayEquals(verdicts, instance.run(1, 300, output));
+        lines = Files.readAllLines(output, StandardCharsets.UTF_8);
+        assertEquals(BatchSolver.HEADER, lines.get(0));
+        assertSeeds(lines, 300);
+    }
+
+    /**
+     * Test of run method, of class BatchSolver, with invalid seed ranges.
+     */
+    @Test
+    public void testRunInvalidRange() throws IOException {
+        Path output = folder.getRoot().toPath().resolve("deals.csv");
+        BatchSolver instance = new BatchSolver(2_000, 0, 1);
+        long[][] ranges = {{5, 4}, {0, Integer.MAX_VALUE}, {-10, Long.MAX_VALUE}, {Long.MIN_VALUE, 0}};
+        for (long[] range : ranges) {
+            try {
+                instance.run(range[0], range[1], output);
+                fail("Expected an IllegalArgumentException to be thrown!");
+            } catch (IllegalArgumentException ex) {
+            }
+        }
+        assertFalse(Files.exists(output));
+    }
+
+    private static void assertSeeds(List<String> lines, int count) {
+        assertEquals(count + 1, lines.size());
+        Set<Long> seeds = new HashSet<>();
+        for (String line : lines.subList(1, lines.size())) {
+            String[] fields = line.split(",");
+            assertEquals(4, fields.length);
+            assertTrue(seeds.add(Long.parseLong(fields[0])));
+            SolverResult.STATUS.valueOf(fields[1]);
+        }
+        assertEquals(1L, (long) Collections.min(seeds));
+        assertEquals((long) count, (long) Collections.max(seeds));
+    }
+
+}
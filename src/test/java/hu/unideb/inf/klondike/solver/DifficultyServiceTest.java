@@ -0,0 +1,106 @@
+/*
+ * Copyright 2017 Faculty of Informatics, Debrecen University, Hungary.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.klondike.solver;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author sanyi
+ */
+public class DifficultyServiceTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    public DifficultyServiceTest() {
+    }
+
+    /**
+     * Test of precompute method, of class DifficultyService, including an
+     * incremental update and reopening the index.
+     */
+    @Test
+    public void testPrecompute() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("ratings.kdi");
+        Map<Long, DealRating> ratings = new HashMap<>();
+        try (DifficultyService service = DifficultyService.open(file, 2_000)) {
+            assertNull(service.lookup(1));
+            assertEquals(100, service.precompute(1, 100, 4));
+            assertEquals(50, service.precompute(51, 150, 4));
+            assertEquals(150, service.size());
+            for (long seed = 1; seed <= 150; seed++) {
+                DealRating rating = service.lookup(seed);
+                assertNotNull(rating);
+                assertEquals(rating.getStatus() == SolverResult.STATUS.SOLVED, rating.getLength() > 0);
+                assertTrue(rating.getNodes() > 0 && rating.getNodes() <= 2_000);
+                ratings.put(seed, rating);
+            }
+            assertEquals(ratings.get(7L), service.rate(7));
+            assertEquals(150, service.size());
+            try {
+                service.precompute(-10, Long.MAX_VALUE, 4);
+                fail("Expected an IllegalArgumentException to be thrown!");
+            } catch (IllegalArgumentException ex) {
+            }
+        }
+        try (DifficultyService service = DifficultyService.open(file, 100_000)) {
+            assertEquals(150, service.size());
+            for (long seed = 1; seed <= 150; seed++) {
+                assertEquals(ratings.get(seed), service.lookup(seed));
+            }
+            DealRating rating = service.rate(1_000);
+            assertEquals(rating, service.lookup(1_000));
+            assertEquals(151, service.size());
+        }
+    }
+
+    /**
+     * Test of put method, of class RatingIndex, while the index grows.
+     */
+    @Test
+    public void testIndexGrowth() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("growing.kdi");
+        Random random = new Random(3);
+        Map<Long, Long> expected = new HashMap<>();
+        try (RatingIndex index = RatingIndex.open(file, 4)) {
+            for (int i = 0; i < 1_000; i++) {
+                long seed = random.nextInt(600) - 300;
+                DealRating rating = new DealRating(SolverResult.STATUS.values()[random.nextInt(3)],
+                        random.nextInt(500), random.nextInt(1_000_000), random.nextInt(1_000_000));
+                index.put(seed, rating.pack());
+                expected.put(seed, rating.pack());
+                assertEquals(rating, DealRating.unpack(index.get(seed)));
+            }
+            assertEquals(expected.size(), index.size());
+        }
+        try (RatingIndex index = RatingIndex.open(file, 4)) {
+            assertEquals(expected.size(), index.size());
+            for (long seed = -300; seed < 300; seed++) {
+                assertEquals(expected.getOrDefault(seed, 0L).longValue(), index.get(seed));
+            }
+        }
+    }
+
+}
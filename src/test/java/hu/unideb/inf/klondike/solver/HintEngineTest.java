@@ -0,0 +1,86 @@
+/*
+ * Copyright 2017 Faculty of Informatics, Debrecen University, Hungary.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.klondike.solver;
+
+import hu.unideb.inf.klondike.OffenseException;
+import hu.unideb.inf.klondike.model.GameEngine;
+import hu.unideb.inf.klondike.model.GameState;
+import hu.unideb.inf.klondike.model.MoveBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author sanyi
+ */
+public class HintEngineTest {
+
+    public HintEngineTest() {
+    }
+
+    /**
+     * Test of hint method, of class HintEngine: the hint must be a legal move
+     * and the game must not be modified.
+     */
+    @Test
+    public void testHint() throws InterruptedException, ExecutionException, TimeoutException, OffenseException {
+        try (HintEngine hints = new HintEngine(Runnable::run)) {
+            hints.setBudget(20);
+            GameEngine engine = new GameEngine();
+            for (int d = 0; d < 5; d++) {
+                engine.newGame(d);
+                GameState before = GameState.of(engine.getGame());
+                Hint hint = hints.hint(engine.getGame()).get(5, TimeUnit.SECONDS);
+                assertEquals(before, GameState.of(engine.getGame()));
+                assertTrue(hint.getMillis() < 1000);
+                assertTrue(hint.getNodes() > 0);
+                MoveBuffer buffer = new MoveBuffer();
+                engine.legalMoves(buffer);
+                boolean legal = false;
+                for (int i = 0; i < buffer.size(); i++) {
+                    legal |= buffer.get(i) == hint.getMove();
+                }
+                assertTrue(legal);
+                engine.move(hint.getMove());
+            }
+        }
+    }
+
+    /**
+     * Test of cancel method, of class HintEngine.
+     */
+    @Test
+    public void testCancel() throws InterruptedException, ExecutionException, TimeoutException {
+        try (HintEngine hints = new HintEngine(Runnable::run)) {
+            hints.setBudget(60_000);
+            GameEngine engine = new GameEngine();
+            engine.newGame(1);
+            long start = System.nanoTime();
+            CompletableFuture<Hint> first = hints.hint(engine.getGame());
+            Thread.sleep(50);
+            hints.setBudget(20);
+            CompletableFuture<Hint> second = hints.hint(engine.getGame());
+            assertTrue(first.isCancelled());
+            assertNotNull(second.get(5, TimeUnit.SECONDS));
+            assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 5);
+        }
+    }
+
+}
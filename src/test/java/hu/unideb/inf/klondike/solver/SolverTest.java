@@ -0,0 +1,83 @@
+/*
+ * Copyright 2017 Faculty of Informatics, Debrecen University, Hungary.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.klondike.solver;
+
+import hu.unideb.inf.klondike.OffenseException;
+import hu.unideb.inf.klondike.model.Game;
+import hu.unideb.inf.klondike.model.GameEngine;
+import hu.unideb.inf.klondike.model.GameState;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author sanyi
+ */
+public class SolverTest {
+
+    public SolverTest() {
+    }
+
+    /**
+     * Test of solve method, of class Solver: the winning moves must win the
+     * game and the solved game must not be modified.
+     */
+    @Test
+    public void testSolve() throws OffenseException {
+        Solver solver = new Solver(50_000, 0);
+        Game game = new Game();
+        int solved = 0;
+        for (int d = 0; d < 20 && solved < 2; d++) {
+            game.newGame(d);
+            GameState before = GameState.of(game);
+            SolverResult result = solver.solve(game);
+            assertEquals(before, GameState.of(game));
+            assertTrue(result.getNodes() <= 50_000);
+            if (result.getStatus() != SolverResult.STATUS.SOLVED) {
+                assertEquals(0, result.getMoves().length);
+                continue;
+            }
+            solved++;
+            GameEngine engine = new GameEngine(before.toGame());
+            for (int move : result.getMoves()) {
+                engine.move(move);
+            }
+            assertTrue(engine.isWon());
+        }
+        assertTrue("No deal has been solved!", solved > 0);
+    }
+
+    /**
+     * Test of the node budget, of class Solver.
+     */
+    @Test
+    public void testNodeLimit() {
+        Solver solver = new Solver(10, 0);
+        Game game = new Game();
+        int unknown = 0;
+        for (int d = 0; d < 20; d++) {
+            game.newGame(d);
+            SolverResult result = solver.solve(game);
+            assertNotEquals(SolverResult.STATUS.SOLVED, result.getStatus());
+            if (result.getStatus() == SolverResult.STATUS.UNKNOWN) {
+                assertEquals(10, result.getNodes());
+                unknown++;
+            }
+        }
+        assertTrue(unknown > 0);
+    }
+
+}